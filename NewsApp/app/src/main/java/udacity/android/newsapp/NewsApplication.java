@@ -0,0 +1,35 @@
+package udacity.android.newsapp;
+
+import android.app.Application;
+
+import udacity.android.newsapp.utility.StartupTracer;
+
+/**
+ * This is the Application of the app. It only starts timing the launches
+ * of the app; the network, cache and preference subsystems are created
+ * the first time they are used, so none of them is set up before the
+ * first activity is drawn.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class NewsApplication extends Application {
+
+    /**
+     * Constructor, the earliest point the app runs any of its own code,
+     * which is taken as the start of the process.
+     */
+    public NewsApplication() {
+        StartupTracer.getInstance().onProcessStart();
+    }
+
+    /**
+     * This method is called when the process has started, before any of
+     * its activities or services is created.
+     */
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        registerActivityLifecycleCallbacks(StartupTracer.getInstance());
+    }
+}
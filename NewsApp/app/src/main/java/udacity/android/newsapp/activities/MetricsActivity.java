@@ -0,0 +1,127 @@
+package udacity.android.newsapp.activities;
+
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import udacity.android.newsapp.R;
+import udacity.android.newsapp.core.PipelineMetrics;
+
+/**
+ * This is the debug screen of the PipelineMetrics. It shows how long each
+ * stage of loading a search took and the counters, and it can write them
+ * to a dump file in the app's files directory or reset them so a single
+ * scenario can be measured.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class MetricsActivity extends AppCompatActivity {
+
+    private static final String LOG_TAG = MetricsActivity.class.getSimpleName();
+
+    private static final String DUMP_DIRECTORY = "metrics";
+
+    private final PipelineMetrics metrics = PipelineMetrics.getInstance();
+
+    private TextView reportTextView;
+    private TextView dumpTextView;
+
+    /**
+     * This method is called when the activity is created.
+     *
+     * @param savedInstanceState The saved state.
+     */
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        reportTextView = (TextView) findViewById(R.id.metrics_report);
+        dumpTextView = (TextView) findViewById(R.id.metrics_dump);
+
+        Button exportButton = (Button) findViewById(R.id.metrics_export_button);
+        exportButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                writeDump();
+            }
+        });
+
+        Button resetButton = (Button) findViewById(R.id.metrics_reset_button);
+        resetButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                metrics.reset();
+                showReport();
+            }
+        });
+    }
+
+    /**
+     * This method shows the current metrics each time the screen comes to the front.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showReport();
+    }
+
+    /**
+     * This method shows the report of the metrics.
+     */
+    private void showReport() {
+        StringWriter report = new StringWriter();
+        try {
+            metrics.writeReport(report);
+        } catch (IOException e) {
+            // A StringWriter does not throw
+            throw new AssertionError(e);
+        }
+        reportTextView.setText(report.toString());
+    }
+
+    /**
+     * This method writes the report to a new dump file and shows its path.
+     */
+    private void writeDump() {
+        File directory = new File(getFilesDir(), DUMP_DIRECTORY);
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
+        File dump = new File(directory, "pipeline-" + timestamp + ".txt");
+
+        Writer writer = null;
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            writer = new OutputStreamWriter(new FileOutputStream(dump), "UTF-8");
+            metrics.writeReport(writer);
+            dumpTextView.setText(getString(R.string.metrics_dump_written, dump.getAbsolutePath()));
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Problem writing the metrics dump", e);
+            dumpTextView.setText(R.string.metrics_dump_failed);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    Log.e(LOG_TAG, "Error closing the metrics dump", e);
+                }
+            }
+        }
+        showReport();
+    }
+}
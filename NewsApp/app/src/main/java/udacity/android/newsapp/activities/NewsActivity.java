@@ -4,44 +4,161 @@ import android.app.LoaderManager;
 import android.content.Context;
 import android.content.Intent;
 import android.content.Loader;
-import android.content.SharedPreferences;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
-import android.net.Uri;
 import android.os.Bundle;
-import android.preference.PreferenceManager;
+import android.os.Trace;
 import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.widget.ListView;
+import android.view.ViewTreeObserver;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import udacity.android.newsapp.BuildConfig;
 import udacity.android.newsapp.R;
+import udacity.android.newsapp.core.ArticleMerger;
+import udacity.android.newsapp.core.PipelineMetrics;
+import udacity.android.newsapp.model.ArticleStore;
 import udacity.android.newsapp.model.NewsArticle;
 import udacity.android.newsapp.utility.ArticleAdapter;
+import udacity.android.newsapp.utility.ArticleBodyRepository;
+import udacity.android.newsapp.utility.ArticlePager;
+import udacity.android.newsapp.utility.FanOutQueryEngine;
+import udacity.android.newsapp.utility.FrameAllocationMonitor;
+import udacity.android.newsapp.utility.LocalSearchLoader;
 import udacity.android.newsapp.utility.NewsLoader;
+import udacity.android.newsapp.utility.PriorityLoadExecutor;
+import udacity.android.newsapp.utility.QueryUrlBuilder;
+import udacity.android.newsapp.utility.SaveSearchAction;
+import udacity.android.newsapp.utility.SearchSnapshot;
+import udacity.android.newsapp.utility.SearchSources;
+import udacity.android.newsapp.utility.StartupTracer;
 
 /**
- * This is the NewsActivity which recieves
+ * This is the NewsActivity which receives the search text and displays the
+ * matching articles.
+ *
+ * A search in at most one section is loaded a page at a time, each page by
+ * its own loader. The first page is shown while it is still being parsed,
+ * and the next page is prefetched at a lower priority and appended once the
+ * list is scrolled near its end. A search in several sections or feeds is
+ * fanned out to the providers of its SearchSources instead, and their
+ * merged results are shown as each provider finishes. Either way the best
+ * matches among the locally cached articles are shown at the top until the
+ * first page or the first merged results arrive, which then take their
+ * place in the order of the search. Results are loaded without a
+ * connection too, as they may be cached.
+ *
+ * The whole list is handed to the adapter each time it changes, which works
+ * out the rows that did. Until the search has results, the SearchSnapshot
+ * of the last time it was displayed is shown instead. Switching between
+ * newest and oldest in the settings re-sorts the loaded results in place,
+ * while switching to relevance searches again. The time until the first
+ * results are drawn is recorded in the PipelineMetrics, and the search can
+ * be saved from the options menu.
  *
  * @author Joseph Stewart
- * @version 2.0
+ * @version 3.4
  */
-public class NewsActivity extends AppCompatActivity implements LoaderManager.LoaderCallbacks<List<NewsArticle>>  {
+public class NewsActivity extends AppCompatActivity
+        implements LoaderManager.LoaderCallbacks<List<NewsArticle>>, FanOutQueryEngine.Listener,
+        NewsLoader.OnProgressListener {
 
-    private static final String URL = "http://content.guardianapis.com/search?";
+    // Extras of the Intent that opens the results of a search
+    public static final String EXTRA_QUERY_TEXT = "Query Text";
+    public static final String EXTRA_ORDER_BY = "Order By";
+    public static final String EXTRA_SEARCH_START = "Search Start";
+
+    private static final int LOCAL_SEARCH_LOADER_ID = 0;
     private static final int ARTICLE_LOADER_ID = 1;
 
+    // Number of local matches shown above the results of the search
+    private static final int LOCAL_HIT_LIMIT = 5;
+
+    // The next page is appended once the list is scrolled this close to its end
+    private static final int APPEND_THRESHOLD = 5;
+
+    private static final String PAGE_INDEX = "Page Index";
+    private static final String REQUESTED_PAGES = "Requested Pages";
+    private static final String DISPLAYED_PAGES = "Displayed Pages";
+    private static final String DISPLAY_ORDER = "Display Order";
+
     // Search text entered by user, belongs to class so value persists
     private static String searchText;
 
+    private final ArticlePager pager =
+            new ArticlePager(QueryUrlBuilder.FIRST_PAGE_SIZE, QueryUrlBuilder.PAGE_SIZE);
+
+    // Pages that have been loaded, the first displayedPages of them are in the list
+    private final SparseArray<List<NewsArticle>> loadedPages = new SparseArray<>();
+
+    // Articles of the first page parsed so far, shown until it has loaded
+    private List<NewsArticle> firstPageProgress;
+
+    // Best matches among the locally cached articles, shown first
+    private List<NewsArticle> localHits = new ArrayList<>();
+
+    // Whether the search has delivered results, which replace the local matches
+    private boolean localHitsReplaced;
+
+    // Merged results when the search is fanned out across several providers
+    private List<NewsArticle> sectionArticles = new ArrayList<>();
+
+    // Order of the results, from the saved search or the settings
+    private String orderBy;
+
+    // Order the results are displayed in, differs from orderBy once re-sorted locally
+    private String displayOrder;
+
+    // Whether the order follows the settings rather than a saved search
+    private boolean orderFromSettings;
+
+    // Sections and other feeds selected in the settings
+    private SearchSources sources;
+
+    // The running search when it is fanned out across several providers
+    private FanOutQueryEngine.Query sectionQuery;
+
+    private int requestedPages;
+    private int displayedPages;
+    private int restoredPages;
+    private boolean lastPageReached;
+
+    // Saves the search from the options menu
+    private SaveSearchAction saveSearchAction;
+
+    // When the search was started and when its first results were displayed
+    private long searchStartNanos;
+    private long firstResultNanos;
+    private boolean firstFrameRecorded;
+
+    // Whether the list goes back to its top once re-sorted results are shown
+    private boolean scrollToTopPending;
+
+    // Whether the search has delivered results, which replace a snapshot
+    private boolean searchResultsArrived;
+
+    // The results of the last time the search was displayed
+    private SearchSnapshot snapshot;
+
+    private boolean emptyStateShown;
+    private boolean isConnected;
+
     private ArticleAdapter adapter;
     private TextView emptyStateTextView;
-    private ListView articleListView;
+    private RecyclerView articleListView;
+    private LinearLayoutManager layoutManager;
 
     /**
      * This method is called when the activity is created.
@@ -51,70 +168,380 @@ public class NewsActivity extends AppCompatActivity implements LoaderManager.Loa
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        Trace.beginSection("NewsActivity.onCreate");
         setContentView(R.layout.activity_news);
 
-        searchText = getIntent().getExtras().getString("Query Text");
+        searchText = getIntent().getExtras().getString(EXTRA_QUERY_TEXT);
+        orderBy = getIntent().getExtras().getString(EXTRA_ORDER_BY);
+        orderFromSettings = orderBy == null;
+        if (orderFromSettings) {
+            orderBy = QueryUrlBuilder.getOrderBy(this);
+        }
+        displayOrder = orderBy;
+        saveSearchAction = new SaveSearchAction(this, searchText, orderBy);
+        sources = SearchSources.fromSettings(this);
+        snapshot = new SearchSnapshot(this, searchText, sources);
+        if (savedInstanceState != null) {
+            displayOrder = savedInstanceState.getString(DISPLAY_ORDER, orderBy);
+        }
 
-        articleListView = (ListView) findViewById(R.id.list);
+        // Only the first time the results are drawn is timed
+        searchStartNanos = getIntent().getExtras().getLong(EXTRA_SEARCH_START, PipelineMetrics.now());
+        firstFrameRecorded = savedInstanceState != null;
+
+        articleListView = (RecyclerView) findViewById(R.id.list);
+        layoutManager = new LinearLayoutManager(this);
+        articleListView.setLayoutManager(layoutManager);
+        adapter = new ArticleAdapter(this);
+        articleListView.setAdapter(adapter);
+
+        // Show the results of the last time this search was opened right away
+        if (savedInstanceState == null) {
+            showSnapshot();
+        }
+
+        // The empty view is only visible when the list has no items
+        emptyStateTextView = (TextView) findViewById(R.id.empty_view);
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                updateEmptyView();
+                recordFirstFrame();
+                prefetchVisibleBodiesAfterLayout();
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                updateEmptyView();
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                // The rows of re-sorted results are moved rather than replaced
+                if (scrollToTopPending) {
+                    scrollToTopPending = false;
+                    layoutManager.scrollToPosition(0);
+                }
+            }
+        });
+
+        // Append the next page when the list is scrolled near its end
+        articleListView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    prefetchVisibleBodies();
+                }
+
+                // Count allocations per frame while the list moves in debug builds
+                if (BuildConfig.DEBUG) {
+                    if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                        FrameAllocationMonitor.getInstance().stop();
+                    } else {
+                        FrameAllocationMonitor.getInstance().start();
+                    }
+                }
+            }
+
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (adapter.getItemCount() > 0 && isNearEnd()) {
+                    appendLoadedPages(true);
+                }
+            }
+        });
 
         ConnectivityManager cm =
                 (ConnectivityManager)this.getSystemService(Context.CONNECTIVITY_SERVICE);
 
         NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
-        boolean isConnected = activeNetwork != null &&
+        isConnected = activeNetwork != null &&
                 activeNetwork.isConnectedOrConnecting();
 
-        if(isConnected) {
-            LoaderManager loaderManager = getLoaderManager();
-            loaderManager.initLoader(ARTICLE_LOADER_ID, null, this);
+        // Look for matches among the cached articles while the search runs
+        getLoaderManager().initLoader(LOCAL_SEARCH_LOADER_ID, null, this);
+
+        // Without a connection the loaders still serve locally cached results
+        if(sources.isFannedOut()) {
+            startSectionQuery();
+        } else {
+            // Reconnect to the pages that were loaded before a configuration change
+            int pages = 1;
+            if (savedInstanceState != null) {
+                pages = Math.max(1, savedInstanceState.getInt(REQUESTED_PAGES));
+                restoredPages = savedInstanceState.getInt(DISPLAYED_PAGES);
+            }
+            for (int i = 0; i < pages; i++) {
+                requestPage(i);
+            }
+        }
+        Trace.endSection();
+    }
+
+    /**
+     * This method saves how many pages were loaded and displayed so they
+     * can be restored after a configuration change.
+     *
+     * @param outState The Bundle to save the state to.
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(REQUESTED_PAGES, requestedPages);
+        outState.putInt(DISPLAYED_PAGES, Math.max(displayedPages, restoredPages));
+        outState.putString(DISPLAY_ORDER, displayOrder);
+    }
+
+    /**
+     * This method keeps the displayed results as the snapshot of the search
+     * when the activity is left.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        snapshot.save(adapter.getArticleStore(), displayOrder);
+    }
+
+    /**
+     * This method shows the snapshot of the search, if there is one, in
+     * place of the progress bar, so the first results can be drawn before
+     * the loaders have read anything.
+     */
+    private void showSnapshot() {
+        if (snapshot.show(adapter, orderBy)) {
+            firstResultNanos = PipelineMetrics.now();
+            findViewById(R.id.loading_spinner).setVisibility(View.GONE);
+        }
+    }
+
+    /**
+     * This method applies a change of the order in the settings when the
+     * user comes back from them. Results can be re-sorted by date without
+     * the network, so switching to newest or oldest re-sorts the loaded
+     * results in place. Results ordered by relevance can only come from the
+     * server, so switching to relevance starts the search again.
+     */
+    @Override
+    protected void onRestart() {
+        super.onRestart();
+        if (!orderFromSettings) {
+            return;
+        }
+
+        String newOrder = QueryUrlBuilder.getOrderBy(this);
+        if (newOrder.equals(displayOrder)) {
+            return;
+        }
+
+        if (!isDateOrder(newOrder) && !newOrder.equals(orderBy)) {
+            Intent intent = new Intent(getIntent());
+            intent.putExtra(EXTRA_SEARCH_START, PipelineMetrics.now());
+            startActivity(intent);
+            finish();
+            overridePendingTransition(0, 0);
+            return;
+        }
+
+        displayOrder = newOrder;
+        if (sources.isFannedOut()) {
+            submitArticles(withLocalHits(sortForDisplay(new ArrayList<>(sectionArticles))));
         } else {
-            emptyStateTextView = (TextView) findViewById(R.id.empty_view);
-            articleListView.setEmptyView(emptyStateTextView);
-            emptyStateTextView.setText(R.string.no_internet_connection);
+            displayArticles();
+            appendLoadedPages(isNearEnd());
         }
+        scrollToTopPending = true;
+    }
+
+    /**
+     * Returns whether an order can be applied locally by sorting by date.
+     *
+     * @param order The order-by value.
+     * @return true for newest and oldest.
+     */
+    private boolean isDateOrder(String order) {
+        return getString(R.string.settings_order_by_newest).equals(order)
+                || getString(R.string.settings_order_by_oldest).equals(order);
     }
 
     /**
-     * This method is called to create the loader.
+     * Returns whether the displayed results were re-sorted locally, in
+     * which case no further pages are appended as they would not follow on
+     * from the displayed ones.
+     *
+     * @return true if the results are displayed in another order than they were loaded in.
+     */
+    private boolean isResorted() {
+        return !displayOrder.equals(orderBy);
+    }
+
+    /**
+     * This method sorts the results in place by date if they are displayed
+     * in another order than they were loaded in. The dates were parsed when
+     * the articles were created, so nothing is parsed while sorting.
+     *
+     * @param results The results, which must be modifiable.
+     * @return The passed in results.
+     */
+    private List<NewsArticle> sortForDisplay(List<NewsArticle> results) {
+        if (isResorted()) {
+            ArticleMerger.sortByDate(results,
+                    !getString(R.string.settings_order_by_oldest).equals(displayOrder));
+        }
+        return results;
+    }
+
+    /**
+     * This method cancels the search across sections if one is running.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (sectionQuery != null) {
+            sectionQuery.cancel();
+        }
+    }
+
+    /**
+     * This method is called to create the loader for a page.
      *
      * @param id The id.
-     * @param args The Bundle.
+     * @param args The Bundle holding the index of the page.
      * @return The created loader.
      */
     @Override
     public Loader<List<NewsArticle>> onCreateLoader(int id, Bundle args) {
-        SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
+        if (id == LOCAL_SEARCH_LOADER_ID) {
+            LocalSearchLoader loader = new LocalSearchLoader(this, searchText, LOCAL_HIT_LIMIT);
+            loader.setPriority(PriorityLoadExecutor.PRIORITY_PREFETCH);
+            return loader;
+        }
 
-        String orderBy = sharedPrefs.getString(
-                getString(R.string.settings_order_by_key),
-                getString(R.string.settings_order_by_default)
-        );
+        int pageIndex = args.getInt(PAGE_INDEX);
+        // Create a new loader for the given url, only the first page is waited for
+        NewsLoader loader = new NewsLoader(this, buildQueryUrl(sources.getSection(),
+                pager.getPageNumber(pageIndex), pager.getPageSize(pageIndex)));
+        if (pageIndex > 0) {
+            loader.setPriority(PriorityLoadExecutor.PRIORITY_PREFETCH);
+        }
+        return loader;
+    }
 
-        Uri baseUri = Uri.parse(URL);
-        Uri.Builder uriBuilder = baseUri.buildUpon();
+    /**
+     * This method builds the query url for a page of results.
+     *
+     * @param section The section to search in, or null to search in all of them.
+     * @param page The page number.
+     * @param pageSize The number of results on the page.
+     * @return The query url.
+     */
+    private String buildQueryUrl(String section, int page, int pageSize) {
+        return QueryUrlBuilder.buildQueryUrl(this, searchText, orderBy, section, page, pageSize);
+    }
 
-        uriBuilder.appendQueryParameter(getString(R.string.query_key), searchText);
-        uriBuilder.appendQueryParameter(getString(R.string.format_label), getString(R.string.format_value));
-        uriBuilder.appendQueryParameter(getString(R.string.page_size_key), "30");
-        uriBuilder.appendQueryParameter(getString(R.string.settings_order_by_key), orderBy);
-        uriBuilder.appendQueryParameter(getString(R.string.api_key), getString(R.string.api_value));
+    /**
+     * This method fans the search out to one provider per selected section,
+     * or one for all sections, and one per feed. Paging is not used for
+     * these searches.
+     */
+    private void startSectionQuery() {
+        lastPageReached = true;
 
-        // Create a new loader for the given url
-        return new NewsLoader(this, uriBuilder.toString());
+        boolean newestFirst = !getString(R.string.settings_order_by_oldest).equals(orderBy);
+        sectionQuery = FanOutQueryEngine.getInstance().execute(
+                sources.createProviders(this, orderBy), searchText, newestFirst, this);
     }
 
     /**
-     * This method is called when the loading is completed. It removes the progress bar
-     * and calls the displayArticles method.
+     * This method is called each time a provider finishes or times out and
+     * shows the merged results of the providers finished so far.
+     *
+     * @param articles The merged articles, ordered by date.
+     * @param completedRequests The number of providers finished so far.
+     * @param totalRequests The number of providers searched.
+     */
+    @Override
+    public void onArticlesMerged(List<NewsArticle> articles, int completedRequests, int totalRequests) {
+        if (completedRequests == 1) {
+            ProgressBar progressBar = (ProgressBar) findViewById(R.id.loading_spinner);
+            progressBar.setVisibility(View.GONE);
+            showEmptyState();
+        }
+        sectionArticles = articles;
+        searchResultsArrived = true;
+        if (!articles.isEmpty()) {
+            localHitsReplaced = true;
+        }
+        submitArticles(withLocalHits(sortForDisplay(new ArrayList<>(sectionArticles))));
+    }
+
+    /**
+     * This method is called when a page has finished loading. It removes the
+     * progress bar, holds on to the page until it is its turn to be displayed,
+     * and starts prefetching the following page. A page that is already
+     * displayed has been refreshed, so the list is updated with it.
      *
      * @param loader The loader.
      * @param articles The list of articles.
      */
     @Override
     public void onLoadFinished(Loader<List<NewsArticle>> loader, List<NewsArticle> articles) {
+        if (loader.getId() == LOCAL_SEARCH_LOADER_ID) {
+            localHits = articles;
+            if (sources.isFannedOut()) {
+                submitArticles(withLocalHits(sortForDisplay(new ArrayList<>(sectionArticles))));
+            } else {
+                displayArticles();
+            }
+            return;
+        }
+
+        int pageIndex = loader.getId() - ARTICLE_LOADER_ID;
+
+        if (pageIndex == 0) {
+            ProgressBar progressBar = (ProgressBar) findViewById(R.id.loading_spinner);
+            progressBar.setVisibility(View.GONE);
+            showEmptyState();
+            firstPageProgress = null;
+        }
+
+        if (articles == null || pager.isLastPage(pageIndex, articles.size())) {
+            lastPageReached = true;
+        }
+
+        if (articles != null) {
+            searchResultsArrived = true;
+            if (!articles.isEmpty()) {
+                localHitsReplaced = true;
+            }
+            int skip = Math.min(pager.getSkipCount(pageIndex), articles.size());
+            loadedPages.put(pageIndex, articles.subList(skip, articles.size()));
+        }
+
+        if (pageIndex < displayedPages) {
+            displayArticles();
+        } else {
+            appendLoadedPages(isNearEnd());
+        }
+    }
+
+    /**
+     * This method is called while the first page is parsed and shows the
+     * articles parsed so far in place of the progress bar.
+     *
+     * @param loader The loader.
+     * @param articles The articles parsed so far.
+     */
+    @Override
+    public void onLoadProgress(NewsLoader loader, List<NewsArticle> articles) {
+        if (loader.getId() != ARTICLE_LOADER_ID || displayedPages > 0) {
+            return;
+        }
+
         ProgressBar progressBar = (ProgressBar) findViewById(R.id.loading_spinner);
         progressBar.setVisibility(View.GONE);
-        displayArticles(articles);
+        firstPageProgress = articles;
+        searchResultsArrived = true;
+        displayArticles();
     }
 
     /**
@@ -124,26 +551,230 @@ public class NewsActivity extends AppCompatActivity implements LoaderManager.Loa
      */
     @Override
     public void onLoaderReset(Loader<List<NewsArticle>> loader) {
-        adapter.clear();
+        if (loader.getId() == LOCAL_SEARCH_LOADER_ID) {
+            localHits = new ArrayList<>();
+        } else if (loader.getId() == ARTICLE_LOADER_ID) {
+            loadedPages.clear();
+            displayedPages = 0;
+            adapter.submitList(new ArrayList<NewsArticle>());
+        }
     }
 
     /**
-     * This method displays the list of NewsArticles.
+     * This method starts the loader for a page of results.
      *
-     * @param articles The list of NewsArticles.
+     * @param pageIndex The zero based index of the page.
      */
-    private void displayArticles(List<NewsArticle> articles) {
-        emptyStateTextView = (TextView) findViewById(R.id.empty_view);
-        articleListView.setEmptyView(emptyStateTextView);
+    private void requestPage(int pageIndex) {
+        Bundle args = new Bundle();
+        args.putInt(PAGE_INDEX, pageIndex);
+        Loader<List<NewsArticle>> loader = getLoaderManager().initLoader(ARTICLE_LOADER_ID + pageIndex, args, this);
+        if (pageIndex == 0) {
+            ((NewsLoader) loader).setOnProgressListener(this);
+        }
+        requestedPages = Math.max(requestedPages, pageIndex + 1);
+    }
+
+    /**
+     * This method appends loaded pages to the list in order. Apart from the
+     * first page and pages restored after a configuration change, a page is
+     * only appended once the list has been scrolled near its end. Whenever the
+     * last requested page has been appended the next one is prefetched. No
+     * pages are appended while the results are re-sorted.
+     *
+     * @param nearEnd Whether the list is scrolled near its end.
+     */
+    private void appendLoadedPages(boolean nearEnd) {
+        // Pages of the loaded order would not follow on from re-sorted results
+        if (isResorted()) {
+            nearEnd = false;
+        }
+
+        boolean appended = false;
+        while (loadedPages.get(displayedPages) != null
+                && (nearEnd || displayedPages == 0 || displayedPages < restoredPages)) {
+            displayedPages++;
+            appended = true;
 
-        if (articles != null && !articles.isEmpty()) {
-            // Set the adapter with the data list
-            adapter = new ArticleAdapter(this, articles);
-            articleListView.setAdapter(adapter);
+            // Only one page is appended for each time the end is reached
+            nearEnd = false;
         }
 
+        if (appended) {
+            displayArticles();
+        }
+
+        // The list reached the end before the prefetched page arrived
+        if (nearEnd && displayedPages < requestedPages) {
+            Loader<List<NewsArticle>> loader = getLoaderManager().getLoader(ARTICLE_LOADER_ID + displayedPages);
+            if (loader instanceof NewsLoader) {
+                ((NewsLoader) loader).setPriority(PriorityLoadExecutor.PRIORITY_VISIBLE);
+            }
+        }
+
+        if (!lastPageReached && !isResorted() && requestedPages == displayedPages) {
+            requestPage(requestedPages);
+        }
+    }
+
+    /**
+     * This method displays the pages that are in the list, leaving out
+     * articles repeated on a later page as results can move between pages.
+     * While the first page is loading the articles parsed so far are shown.
+     */
+    private void displayArticles() {
+        List<NewsArticle> pages = new ArrayList<>();
+        for (int i = 0; i < displayedPages; i++) {
+            pages.addAll(loadedPages.get(i));
+        }
+        if (displayedPages == 0 && firstPageProgress != null) {
+            pages.addAll(firstPageProgress);
+        }
+        submitArticles(withLocalHits(sortForDisplay(pages)));
+    }
+
+    /**
+     * This method hands the list to display to the adapter, noting when
+     * the first results were handed over. A snapshot stays on the screen
+     * until the search has results to replace it with, so it is not
+     * cleared by a search that fails offline.
+     *
+     * @param articles The list to display.
+     */
+    private void submitArticles(List<NewsArticle> articles) {
+        if (adapter.isShowingSnapshot() && (!searchResultsArrived || articles.isEmpty())) {
+            return;
+        }
+        if (firstResultNanos == 0 && !articles.isEmpty()) {
+            firstResultNanos = PipelineMetrics.now();
+        }
+        adapter.submitList(articles);
+    }
+
+    /**
+     * This method records, once the first rows have been inserted, how
+     * long it takes until they are drawn and how long it took since the
+     * search was started. The first results drawn after a launch of the
+     * app also end the timing of the launch.
+     */
+    private void recordFirstFrame() {
+        if (firstResultNanos == 0) {
+            return;
+        }
+        StartupTracer.getInstance().onResultsShown(this);
+        if (firstFrameRecorded) {
+            return;
+        }
+        firstFrameRecorded = true;
+
+        final ViewTreeObserver observer = articleListView.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }
+                PipelineMetrics metrics = PipelineMetrics.getInstance();
+                long now = metrics.end(PipelineMetrics.Stage.FIRST_FRAME, firstResultNanos);
+                metrics.record(PipelineMetrics.Stage.SEARCH_TO_FIRST_FRAME, now - searchStartNanos);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * This method puts the local matches in front of the results of the
+     * search, leaving out every article whose url is already in the list.
+     * Once the search has delivered results of its own, they are shown in
+     * their own order without the local matches.
+     *
+     * @param results The results of the search.
+     * @return The new list to display.
+     */
+    private List<NewsArticle> withLocalHits(List<NewsArticle> results) {
+        if (localHitsReplaced) {
+            return results;
+        }
+
+        List<NewsArticle> articles = new ArrayList<>(localHits.size() + results.size());
+        Set<String> urls = new HashSet<>();
+
+        for (List<NewsArticle> source : Arrays.asList(localHits, results)) {
+            for (NewsArticle article : source) {
+                if (article.getUrl() == null || urls.add(article.getUrl())) {
+                    articles.add(article);
+                }
+            }
+        }
+        return articles;
+    }
+
+    /**
+     * This method checks whether the list is scrolled near its end, which is
+     * also the case when all of its rows fit on the screen.
+     *
+     * @return true if the next page should be appended.
+     */
+    private boolean isNearEnd() {
+        return layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - 1 - APPEND_THRESHOLD;
+    }
+
+    /**
+     * This method prefetches the visible articles once the inserted rows
+     * have been laid out.
+     */
+    private void prefetchVisibleBodiesAfterLayout() {
+        articleListView.post(new Runnable() {
+            @Override
+            public void run() {
+                if (articleListView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+                    prefetchVisibleBodies();
+                }
+            }
+        });
+    }
+
+    /**
+     * This method prefetches the bodies of the visible articles in the
+     * background, so they open at once and can be read offline later.
+     */
+    private void prefetchVisibleBodies() {
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (!isConnected || first == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        // The rows of a snapshot have nothing to prefetch until they are replaced
+        ArticleStore store = adapter.getArticleStore();
+        last = Math.min(last, store.size() - 1);
+        if (last < first) {
+            return;
+        }
+        List<String> urls = new ArrayList<>(last - first + 1);
+        for (int i = first; i <= last; i++) {
+            urls.add(store.getUrl(i));
+        }
+        ArticleBodyRepository.getInstance(this).prefetch(urls);
+    }
+
+    /**
+     * This method sets up the empty view once the first results have loaded,
+     * so it is shown if the search had no results.
+     */
+    private void showEmptyState() {
         // Set empty state text
-        emptyStateTextView.setText(R.string.no_articles);
+        emptyStateTextView.setText(isConnected ? R.string.no_articles : R.string.no_internet_connection);
+        emptyStateShown = true;
+        updateEmptyView();
+    }
+
+    /**
+     * This method shows the empty view only while the list has no items.
+     */
+    private void updateEmptyView() {
+        boolean empty = adapter.getItemCount() == 0;
+        emptyStateTextView.setVisibility(emptyStateShown && empty ? View.VISIBLE : View.GONE);
     }
 
     /**
@@ -158,11 +789,25 @@ public class NewsActivity extends AppCompatActivity implements LoaderManager.Loa
         return true;
     }
 
+    /**
+     * This method updates the title of the save item to match whether
+     * the search is saved.
+     *
+     * @param menu The menu.
+     * @return true so the menu is displayed.
+     */
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        saveSearchAction.updateMenuItem(menu.findItem(R.id.action_save_search));
+        menu.findItem(R.id.action_metrics).setVisible(BuildConfig.DEBUG);
+        return super.onPrepareOptionsMenu(menu);
+    }
+
     /**
      * This method is called when an item is selected in the options menu.
      *
      * @param item The selected item.
-     * @return true if settings intent started properly.
+     * @return true if the item was handled.
      */
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
@@ -171,6 +816,13 @@ public class NewsActivity extends AppCompatActivity implements LoaderManager.Loa
             Intent settingsIntent = new Intent(this, SettingsActivity.class);
             startActivity(settingsIntent);
             return true;
+        } else if (id == R.id.action_save_search) {
+            saveSearchAction.toggle();
+            invalidateOptionsMenu();
+            return true;
+        } else if (id == R.id.action_metrics) {
+            startActivity(new Intent(this, MetricsActivity.class));
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
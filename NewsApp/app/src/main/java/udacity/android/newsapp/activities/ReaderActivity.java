@@ -0,0 +1,149 @@
+package udacity.android.newsapp.activities;
+
+import android.app.LoaderManager;
+import android.content.Context;
+import android.content.Intent;
+import android.content.Loader;
+import android.net.Uri;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.text.Html;
+import android.text.method.LinkMovementMethod;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import udacity.android.newsapp.R;
+import udacity.android.newsapp.utility.ArticleBodyLoader;
+
+/**
+ * This is the in-app reader. It shows the title and body of an article
+ * loaded through the Guardian API, which opens at once when the body was
+ * prefetched while the article was visible in the list, and works offline
+ * for every article that was read or prefetched before. The article can
+ * still be opened in the browser from the options menu.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ReaderActivity extends AppCompatActivity implements LoaderManager.LoaderCallbacks<String> {
+
+    private static final int BODY_LOADER_ID = 1;
+
+    private static final String EXTRA_URL = "Article Url";
+    private static final String EXTRA_TITLE = "Article Title";
+
+    // The web url of the article
+    private String url;
+
+    private TextView bodyTextView;
+    private TextView emptyStateTextView;
+    private ProgressBar progressBar;
+
+    /**
+     * This method creates the Intent that opens an article in the reader.
+     *
+     * @param context The context starting the reader.
+     * @param url The web url of the article.
+     * @param title The title of the article.
+     * @return The Intent.
+     */
+    public static Intent createIntent(Context context, String url, String title) {
+        Intent intent = new Intent(context, ReaderActivity.class);
+        intent.putExtra(EXTRA_URL, url);
+        intent.putExtra(EXTRA_TITLE, title);
+        return intent;
+    }
+
+    /**
+     * This method is called when the activity is created.
+     *
+     * @param savedInstanceState The saved state.
+     */
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_reader);
+
+        url = getIntent().getExtras().getString(EXTRA_URL);
+
+        TextView titleTextView = (TextView) findViewById(R.id.reader_title);
+        titleTextView.setText(getIntent().getExtras().getString(EXTRA_TITLE));
+
+        bodyTextView = (TextView) findViewById(R.id.reader_body);
+        bodyTextView.setMovementMethod(LinkMovementMethod.getInstance());
+        emptyStateTextView = (TextView) findViewById(R.id.reader_empty_view);
+        progressBar = (ProgressBar) findViewById(R.id.reader_loading_spinner);
+
+        getLoaderManager().initLoader(BODY_LOADER_ID, null, this);
+    }
+
+    /**
+     * This method creates the loader of the body.
+     *
+     * @param id The id.
+     * @param args Not used.
+     * @return The created loader.
+     */
+    @Override
+    public Loader<String> onCreateLoader(int id, Bundle args) {
+        return new ArticleBodyLoader(this, url);
+    }
+
+    /**
+     * This method displays the body, or explains that it is not available.
+     *
+     * @param loader The loader.
+     * @param body The HTML body, or null if it could not be loaded.
+     */
+    @Override
+    public void onLoadFinished(Loader<String> loader, String body) {
+        progressBar.setVisibility(View.GONE);
+        if (body == null) {
+            emptyStateTextView.setText(R.string.article_body_unavailable);
+            emptyStateTextView.setVisibility(View.VISIBLE);
+        } else {
+            emptyStateTextView.setVisibility(View.GONE);
+            bodyTextView.setText(Html.fromHtml(body));
+        }
+    }
+
+    /**
+     * This method is called when the loader is reset.
+     *
+     * @param loader The loader.
+     */
+    @Override
+    public void onLoaderReset(Loader<String> loader) {
+        bodyTextView.setText(null);
+    }
+
+    /**
+     * This method is called when the options menu is created.
+     *
+     * @param menu The menu.
+     * @return true if menu is inflated without throwing an exception.
+     */
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.reader, menu);
+        return true;
+    }
+
+    /**
+     * This method opens the article in the browser when selected in the options menu.
+     *
+     * @param item The selected item.
+     * @return true if the item was handled.
+     */
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_open_in_browser) {
+            startActivity(new Intent(Intent.ACTION_VIEW, Uri.parse(url)));
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
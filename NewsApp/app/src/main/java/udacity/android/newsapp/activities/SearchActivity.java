@@ -1,39 +1,137 @@
 package udacity.android.newsapp.activities;
 
+import android.app.LoaderManager;
+import android.app.SearchManager;
+import android.content.Context;
 import android.content.Intent;
+import android.content.Loader;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Trace;
+import android.preference.PreferenceManager;
 import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.KeyEvent;
 import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import udacity.android.newsapp.R;
+import udacity.android.newsapp.model.NewsArticle;
+import udacity.android.newsapp.model.SavedSearch;
+import udacity.android.newsapp.core.PipelineMetrics;
+import udacity.android.newsapp.core.PrefixResultCache;
+import udacity.android.newsapp.utility.ArticleAdapter;
+import udacity.android.newsapp.utility.ArticleRepository;
+import udacity.android.newsapp.utility.LocalSearchLoader;
+import udacity.android.newsapp.utility.NewsLoader;
+import udacity.android.newsapp.utility.QueryUrlBuilder;
+import udacity.android.newsapp.utility.SavedSearchStore;
+import udacity.android.newsapp.utility.StartupTracer;
 
 /**
  * This is the activity for the search function. It displays an EditText
- * that allows the user to enter a search topic and a button that gets
- * the entered text and uses it to build a query url for the Google Books
- * API.
+ * that allows the user to enter a search topic and a button that opens
+ * the results of the entered text from the Guardian API in the
+ * NewsActivity. Saved searches are listed below it and open with one tap, and a
+ * long press removes one.
+ *
+ * The top results are shown while the search text is typed. The search
+ * only starts once typing pauses for the delay chosen in the settings,
+ * and each keystroke cancels the request of the previous search text.
+ * Results are kept by search text, so going back to an earlier search
+ * text shows its results without a request, and a longer search text
+ * shows the matching results of the shorter one until its own arrive.
+ * Without a connection the search is answered from the index of locally
+ * cached articles instead.
+ *
+ * This is the launcher, so it keeps its work off the startup path: the
+ * saved searches are read in the background and only listed once the
+ * first frame is drawn, and nothing else is set up until it is used. A
+ * search it is launched with, as the startup benchmark does, is opened
+ * straight away.
  *
  * @author Joseph Stewart
- * @version 1.1
+ * @version 1.6
  */
-public class SearchActivity extends AppCompatActivity {
+public class SearchActivity extends AppCompatActivity
+        implements LoaderManager.LoaderCallbacks<List<NewsArticle>> {
+
+    private static final int LOCAL_SEARCH_LOADER_ID = 1;
+    private static final int TYPED_SEARCH_LOADER_ID = 2;
+
+    // Maximum number of offline results
+    private static final int LOCAL_RESULT_LIMIT = 50;
+
+    // Shorter search texts match too much to be worth a request
+    private static final int MIN_TYPED_QUERY_LENGTH = 2;
+
+    private static final String RESULTS_QUERY = "Results Query";
 
     private EditText searchEditText;
+    private TextView savedSearchesLabel;
+    private ListView savedSearchesView;
+    private ArrayAdapter<SavedSearch> savedSearchesAdapter;
+
+    // Results shown in place of the saved searches and the search text they are for
+    private TextView resultsLabel;
+    private RecyclerView resultsView;
+    private ArticleAdapter resultsAdapter;
+    private String resultsQuery;
+
+    // The search text of the typed search loader
+    private String typedQuery;
+
+    // Whether the activity was launched with a search, whose results end the launch
+    private boolean searchLaunched;
+
+    // Starts the search once typing pauses
+    private final Handler handler = new Handler();
+    private final Runnable typedSearch = new Runnable() {
+        @Override
+        public void run() {
+            showResults(searchEditText.getText().toString().trim());
+        }
+    };
+
+    // Lists the saved searches once a frame has been drawn
+    private final Runnable savedSearchesTask = new Runnable() {
+        @Override
+        public void run() {
+            showSavedSearches();
+            if (!searchLaunched) {
+                StartupTracer.getInstance().onResultsShown(SearchActivity.this);
+            }
+        }
+    };
 
     /**
-     * Called when the Activity is created. This method gets the
-     * entered text and passed the built url to the BookActivity.
+     * Called when the Activity is created. This method sets up the search
+     * text, the saved searches and the results shown while typing.
      *
      * @param savedInstanceState The saved instance state.
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        Trace.beginSection("SearchActivity.onCreate");
         setContentView(R.layout.activity_search);
 
+        // The preferences of the saved searches are read on a background thread from here on
+        SavedSearchStore.getInstance(this);
+
         searchEditText = (EditText) findViewById(R.id.search_text);
         Button searchButton = (Button) findViewById(R.id.search_button);
 
@@ -57,19 +155,338 @@ public class SearchActivity extends AppCompatActivity {
                 startQuery();
             }
         });
+
+        // Open a saved search when clicked and remove it when long pressed
+        savedSearchesLabel = (TextView) findViewById(R.id.saved_searches_label);
+        savedSearchesView = (ListView) findViewById(R.id.saved_searches);
+        savedSearchesAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1);
+        savedSearchesView.setAdapter(savedSearchesAdapter);
+        savedSearchesView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                SavedSearch search = savedSearchesAdapter.getItem(position);
+                startQuery(search.getQuery(), search.getOrderBy());
+            }
+        });
+        savedSearchesView.setOnItemLongClickListener(new AdapterView.OnItemLongClickListener() {
+            @Override
+            public boolean onItemLongClick(AdapterView<?> parent, View view, int position, long id) {
+                SavedSearchStore.getInstance(SearchActivity.this).remove(savedSearchesAdapter.getItem(position));
+                showSavedSearches();
+                return true;
+            }
+        });
+
+        resultsLabel = (TextView) findViewById(R.id.results_label);
+        resultsView = (RecyclerView) findViewById(R.id.results);
+        resultsView.setLayoutManager(new LinearLayoutManager(this));
+        resultsAdapter = new ArticleAdapter(this);
+        resultsView.setAdapter(resultsAdapter);
+
+        // Search as the text is typed and go back to the saved searches once it is cleared
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                onSearchTextChanged(s.toString().trim());
+            }
+        });
+
+        // Reconnect to the results shown before a configuration change
+        if (savedInstanceState != null && savedInstanceState.getString(RESULTS_QUERY) != null) {
+            showResults(savedInstanceState.getString(RESULTS_QUERY));
+        }
+
+        // Open the results of a search the app was launched with
+        String launchQuery = getIntent().getStringExtra(SearchManager.QUERY);
+        if (savedInstanceState == null && Intent.ACTION_SEARCH.equals(getIntent().getAction())
+                && launchQuery != null) {
+            searchLaunched = true;
+            startQuery(launchQuery.trim(), null);
+        }
+        Trace.endSection();
+    }
+
+    /**
+     * This method saves the search text of the results.
+     *
+     * @param outState The Bundle to save the state to.
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(RESULTS_QUERY, resultsQuery);
+    }
+
+    /**
+     * This method lists the saved searches, which may have changed
+     * while another activity was in front. Runnables posted to a view
+     * that is not attached yet run after the traversal that attaches it,
+     * so on launch they are listed just after the first frame.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        savedSearchesView.post(savedSearchesTask);
+    }
+
+    /**
+     * This method drops a search that is waiting for typing to pause and
+     * a listing of the saved searches that has not run yet.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(typedSearch);
+        savedSearchesView.removeCallbacks(savedSearchesTask);
+    }
+
+    /**
+     * This method fills the list of saved searches.
+     */
+    private void showSavedSearches() {
+        List<SavedSearch> searches = SavedSearchStore.getInstance(this).getAll();
+        savedSearchesAdapter.clear();
+        savedSearchesAdapter.addAll(searches);
+        boolean visible = resultsQuery == null && !searches.isEmpty();
+        savedSearchesLabel.setVisibility(visible ? View.VISIBLE : View.GONE);
+        savedSearchesView.setVisibility(resultsQuery == null ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * This method reacts to a change of the search text. The request for
+     * the previous search text is cancelled, results cached for the new
+     * one are shown straight away and, unless they are complete, the
+     * search starts once typing pauses.
+     *
+     * @param query The trimmed search text.
+     */
+    private void onSearchTextChanged(String query) {
+        handler.removeCallbacks(typedSearch);
+
+        if (query.isEmpty()) {
+            showResults(null);
+            return;
+        }
+
+        long delay = getSearchDelay();
+        if (delay < 0 || query.length() < MIN_TYPED_QUERY_LENGTH) {
+            return;
+        }
+
+        // The results of the previous search text are no longer wanted
+        Loader<List<NewsArticle>> loader = getLoaderManager().getLoader(TYPED_SEARCH_LOADER_ID);
+        if (loader != null) {
+            loader.cancelLoad();
+        }
+
+        if (!showCachedResults(query)) {
+            handler.postDelayed(typedSearch, delay);
+        }
+    }
+
+    /**
+     * This method shows the results cached for a search text, or the
+     * matching results of the longest cached search text it starts with.
+     *
+     * @param query The search text.
+     * @return true if the results of the search text itself were shown.
+     */
+    private boolean showCachedResults(String query) {
+        if (!isConnected()) {
+            return false;
+        }
+
+        PrefixResultCache cache = ArticleRepository.getInstance(this).getTypedSearches();
+        String scope = getTypedSearchScope();
+
+        List<NewsArticle> articles = cache.get(scope, query);
+        if (articles != null) {
+            showResultsView(query, R.string.typed_results_label);
+            resultsAdapter.submitList(articles);
+            return true;
+        }
+
+        articles = cache.getFromPrefix(scope, query);
+        if (articles != null) {
+            showResultsView(query, R.string.typed_results_label);
+            resultsAdapter.submitList(articles);
+        }
+        return false;
+    }
+
+    /**
+     * This method searches for the passed in text, on the network when
+     * connected and in the cached articles otherwise, and shows the
+     * results in place of the saved searches, or the saved searches again.
+     *
+     * @param query The search text, or null to show the saved searches.
+     */
+    private void showResults(String query) {
+        LoaderManager loaderManager = getLoaderManager();
+        if (query == null) {
+            loaderManager.destroyLoader(LOCAL_SEARCH_LOADER_ID);
+            loaderManager.destroyLoader(TYPED_SEARCH_LOADER_ID);
+            resultsAdapter.submitList(new ArrayList<NewsArticle>());
+            showResultsView(null, R.string.typed_results_label);
+            return;
+        }
+
+        Bundle args = new Bundle();
+        args.putString(RESULTS_QUERY, query);
+        if (isConnected()) {
+            loaderManager.destroyLoader(LOCAL_SEARCH_LOADER_ID);
+            typedQuery = query;
+            loaderManager.restartLoader(TYPED_SEARCH_LOADER_ID, args, this);
+            showResultsView(query, R.string.typed_results_label);
+        } else {
+            loaderManager.destroyLoader(TYPED_SEARCH_LOADER_ID);
+            loaderManager.restartLoader(LOCAL_SEARCH_LOADER_ID, args, this);
+            showResultsView(query, R.string.local_results_label);
+        }
+    }
+
+    /**
+     * This method shows the results in place of the saved searches, or
+     * the saved searches again.
+     *
+     * @param query The search text of the results, or null to show the saved searches.
+     * @param labelId The string resource id of the label of the results.
+     */
+    private void showResultsView(String query, int labelId) {
+        resultsQuery = query;
+        resultsLabel.setText(labelId);
+
+        int visibility = query == null ? View.GONE : View.VISIBLE;
+        resultsLabel.setVisibility(visibility);
+        resultsView.setVisibility(visibility);
+        showSavedSearches();
+    }
+
+    /**
+     * This method creates the loader of the results.
+     *
+     * @param id The id.
+     * @param args The Bundle holding the search text.
+     * @return The created loader.
+     */
+    @Override
+    public Loader<List<NewsArticle>> onCreateLoader(int id, Bundle args) {
+        String query = args.getString(RESULTS_QUERY);
+        if (id == TYPED_SEARCH_LOADER_ID) {
+            return new NewsLoader(this, QueryUrlBuilder.buildTypedSearchUrl(this, query));
+        }
+        return new LocalSearchLoader(this, query, LOCAL_RESULT_LIMIT);
+    }
+
+    /**
+     * This method displays the results and keeps those of a typed
+     * search so they can be reused. A search that failed has no results
+     * and is not kept, so the search text is requested again next time
+     * instead of being taken to match nothing.
+     *
+     * @param loader The loader.
+     * @param articles The matching articles.
+     */
+    @Override
+    public void onLoadFinished(Loader<List<NewsArticle>> loader, List<NewsArticle> articles) {
+        if (articles == null) {
+            articles = new ArrayList<>();
+        } else if (loader.getId() == TYPED_SEARCH_LOADER_ID) {
+            ArticleRepository.getInstance(this).getTypedSearches()
+                    .put(getTypedSearchScope(), typedQuery, articles);
+        }
+
+        // A cancelled search may still finish after the text has moved on
+        if (loader.getId() == LOCAL_SEARCH_LOADER_ID || resultsQuery != null && resultsQuery.equals(typedQuery)) {
+            resultsAdapter.submitList(articles);
+        }
+    }
+
+    /**
+     * This method clears the results when the loader is reset.
+     *
+     * @param loader The loader.
+     */
+    @Override
+    public void onLoaderReset(Loader<List<NewsArticle>> loader) {
+        resultsAdapter.submitList(new ArrayList<NewsArticle>());
+    }
+
+    /**
+     * Returns the delay chosen in the settings between the last keystroke
+     * and the search.
+     *
+     * @return The delay in milliseconds, negative when searching while typing is off.
+     */
+    private long getSearchDelay() {
+        String delay = PreferenceManager.getDefaultSharedPreferences(this).getString(
+                getString(R.string.settings_search_delay_key),
+                getString(R.string.settings_search_delay_default));
+        return Long.parseLong(delay);
+    }
+
+    /**
+     * Returns the scope of the cached typed searches: the query url without
+     * a search text, which changes with the order and sections in the settings.
+     *
+     * @return The scope.
+     */
+    private String getTypedSearchScope() {
+        return QueryUrlBuilder.buildTypedSearchUrl(this, "");
+    }
+
+    /**
+     * This method checks whether there is a network connection.
+     *
+     * @return true if connected or connecting.
+     */
+    private boolean isConnected() {
+        ConnectivityManager cm =
+                (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
+        return activeNetwork != null && activeNetwork.isConnectedOrConnecting();
     }
 
     /**
      * This method gets the text entered by the user and sends it
-     * to the NewsActivity so it can be used in the url query.
+     * to the NewsActivity so it can be used in the url query. Without
+     * a connection the cached articles are searched instead.
      */
     private void startQuery() {
+        handler.removeCallbacks(typedSearch);
+
         // Get text entered by user
         String queryText = searchEditText.getText().toString().trim();
 
-        // Go to the BookActivity to display the results
+        if (!isConnected() && !queryText.isEmpty()) {
+            showResults(queryText);
+            return;
+        }
+        startQuery(queryText, null);
+    }
+
+    /**
+     * This method opens the NewsActivity for a search.
+     *
+     * @param queryText The search text.
+     * @param orderBy The order of the results, or null for the one in the settings.
+     */
+    private void startQuery(String queryText, String orderBy) {
+        // Go to the NewsActivity to display the results
         Intent intent = new Intent(SearchActivity.this, NewsActivity.class);
-        intent.putExtra("Query Text", queryText);
+        intent.putExtra(NewsActivity.EXTRA_QUERY_TEXT, queryText);
+        intent.putExtra(NewsActivity.EXTRA_SEARCH_START, PipelineMetrics.now());
+        if (orderBy != null) {
+            intent.putExtra(NewsActivity.EXTRA_ORDER_BY, orderBy);
+        }
         startActivity(intent);
     }
 
@@ -3,11 +3,15 @@ package udacity.android.newsapp.activities;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.preference.ListPreference;
+import android.preference.MultiSelectListPreference;
 import android.preference.Preference;
 import android.preference.PreferenceFragment;
 import android.preference.PreferenceManager;
 import android.support.v7.app.AppCompatActivity;
 
+import java.util.Collections;
+import java.util.Set;
+
 import udacity.android.newsapp.R;
 
 public class SettingsActivity extends AppCompatActivity {
@@ -28,10 +32,24 @@ public class SettingsActivity extends AppCompatActivity {
 
             Preference orderBy = findPreference(getString(R.string.settings_order_by_key));
             bindPreferenceSummaryToValue(orderBy);
+
+            Preference sections = findPreference(getString(R.string.settings_sections_key));
+            bindSetPreferenceSummaryToValue(sections);
+
+            Preference feeds = findPreference(getString(R.string.settings_feeds_key));
+            bindPreferenceSummaryToValue(feeds);
+
+            Preference searchDelay = findPreference(getString(R.string.settings_search_delay_key));
+            bindPreferenceSummaryToValue(searchDelay);
         }
 
         @Override
         public boolean onPreferenceChange(Preference preference, Object value) {
+            if (preference instanceof MultiSelectListPreference) {
+                setMultiSelectSummary((MultiSelectListPreference) preference, (Set<?>) value);
+                return true;
+            }
+
             String stringValue = value.toString();
 
             if (preference instanceof ListPreference) {
@@ -54,5 +72,34 @@ public class SettingsActivity extends AppCompatActivity {
             onPreferenceChange(preference, preferenceString);
         }
 
+        private void bindSetPreferenceSummaryToValue(Preference preference) {
+            preference.setOnPreferenceChangeListener(this);
+            SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(preference.getContext());
+            Set<String> preferenceValues = preferences.getStringSet(preference.getKey(), Collections.<String>emptySet());
+            onPreferenceChange(preference, preferenceValues);
+        }
+
+        private void setMultiSelectSummary(MultiSelectListPreference preference, Set<?> values) {
+            CharSequence[] labels = preference.getEntries();
+            CharSequence[] entryValues = preference.getEntryValues();
+
+            // List the selected labels in the order they are offered
+            StringBuilder summary = new StringBuilder();
+            for (int i = 0; i < entryValues.length; i++) {
+                if (values.contains(entryValues[i].toString())) {
+                    if (summary.length() > 0) {
+                        summary.append(", ");
+                    }
+                    summary.append(labels[i]);
+                }
+            }
+
+            if (summary.length() == 0) {
+                preference.setSummary(getString(R.string.settings_sections_all));
+            } else {
+                preference.setSummary(summary);
+            }
+        }
+
     }
 }
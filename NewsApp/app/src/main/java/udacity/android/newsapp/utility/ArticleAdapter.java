@@ -1,95 +1,416 @@
 package udacity.android.newsapp.utility;
 
-import android.app.Activity;
-import android.content.Intent;
-import android.net.Uri;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import udacity.android.newsapp.R;
+import udacity.android.newsapp.activities.ReaderActivity;
+import udacity.android.newsapp.core.PipelineMetrics;
+import udacity.android.newsapp.model.ArticleSnapshot;
+import udacity.android.newsapp.model.ArticleStore;
 import udacity.android.newsapp.model.NewsArticle;
 
 /**
- * This class extends the ArrayAdapter class and allows customization
- * to accommodate a NewsArticle object being represented in a list view.
+ * This class extends the RecyclerView.Adapter class to display a list of
+ * NewsArticles.
+ *
+ * Submitted lists are copied into a compact ArticleStore and compared with
+ * the displayed one on a background thread, matching articles by url, so
+ * only the rows that changed are rebound. Until the first list is
+ * submitted, the rows can be read from a memory-mapped ArticleSnapshot of
+ * the last results instead, decoding the text of a row only when it is
+ * bound, into buffers kept by its ViewHolder.
+ *
+ * Binding the text of a row allocates nothing: it is set straight from
+ * char buffers, and a single click listener shared by every row opens the
+ * clicked article in the reader. The time spent binding it is recorded in
+ * the PipelineMetrics. Only then is the thumbnail requested from the
+ * ImagePipeline, which is set up once the first row with a thumbnail is
+ * bound, with a url resolved when the store or snapshot was built. A
+ * thumbnail is cancelled as soon as its row leaves the screen, and only
+ * requested again if the row comes back without being bound.
  *
  * @author Joseph Stewart
- * @version 1.4
+ * @version 2.8
  */
-public class ArticleAdapter extends ArrayAdapter<NewsArticle> {
+public class ArticleAdapter extends RecyclerView.Adapter<ArticleAdapter.ViewHolder> {
+
+    // Stores are built and diffed one at a time, in the order the lists are submitted
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final FrameAllocationMonitor allocationMonitor = FrameAllocationMonitor.getInstance();
+    private final PipelineMetrics metrics = PipelineMetrics.getInstance();
+
+    // Created when the first thumbnail is bound, only used on the main thread
+    private ImagePipeline imagePipeline;
+
+    // The displayed articles
+    private ArticleStore articles = new ArticleStore(0);
+
+    // The snapshot displayed until the first list is submitted, or null
+    private ArticleSnapshot snapshot;
+
+    // Incremented for each submitted list so outdated diffs are dropped
+    private int generation;
 
     /**
      * This class allows for the ViewHolder pattern
      * to be implemented for efficiency. It holds
      * references to views for reuse.
      */
-    private static class ViewHolder {
-        TextView titleTextView;
-        TextView dateTextView;
-        TextView sectionTextView;
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView titleTextView;
+        final TextView dateTextView;
+        final TextView sectionTextView;
+        final ImageView thumbnailView;
+
+        // Rows read from a snapshot decode their text into these
+        char[] titleChars = new char[64];
+        final char[] dateChars = new char[16];
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            titleTextView = (TextView) itemView.findViewById(R.id.title_text_view);
+            dateTextView = (TextView) itemView.findViewById(R.id.date_text_view);
+            sectionTextView = (TextView) itemView.findViewById(R.id.section_text_view);
+            thumbnailView = (ImageView) itemView.findViewById(R.id.thumbnail_image_view);
+        }
     }
 
-    /** Constructor */
-    public ArticleAdapter(Activity context, List<NewsArticle> articles) {
-        super(context, 0, articles);
+    // Open the article in the reader when clicked
+    private final View.OnClickListener clickListener = new View.OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            int position = ((ViewHolder) v.getTag()).getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+
+            String url;
+            String title;
+            if (snapshot != null) {
+                url = snapshot.getUrl(position);
+                char[] titleChars = new char[snapshot.getTitleCapacity(position)];
+                title = new String(titleChars, 0, snapshot.readTitle(position, titleChars));
+            } else {
+                url = articles.getUrl(position);
+                title = articles.getTitle(position);
+            }
+            if (url != null) {
+                context.startActivity(ReaderActivity.createIntent(context, url, title));
+            }
+        }
+    };
+
+    /**
+     * Constructor
+     *
+     * @param context The Activity displaying the list.
+     */
+    public ArticleAdapter(Context context) {
+        this.context = context;
     }
 
     /**
-     * This method sets up the view with NewsArticle data.
+     * This method inflates a row and attaches the shared click listener.
      *
-     * @param position The current position in the list of NewsArticles.
-     * @param convertView The view currently being set up.
      * @param parent The parent view group.
-     * @return The set up view.
+     * @param viewType The type of the row.
+     * @return The ViewHolder of the row.
+     */
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View itemView = LayoutInflater.from(context).inflate(R.layout.list_item, parent, false);
+        ViewHolder holder = new ViewHolder(itemView);
+        itemView.setTag(holder);
+        itemView.setOnClickListener(clickListener);
+        return holder;
+    }
+
+    /**
+     * This method sets up the row with the data of an article in the store.
+     *
+     * @param holder The ViewHolder of the row.
+     * @param position The current position in the list of NewsArticles.
      */
     @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        allocationMonitor.onBindStart();
+        long start = PipelineMetrics.now();
+
+        if (snapshot != null) {
+            bindSnapshotRow(holder, snapshot, position);
+        } else {
+            ArticleStore store = articles;
+
+            // TextView for the title of the article
+            holder.titleTextView.setText(store.getTitleChars(),
+                    store.getTitleStart(position), store.getTitleLength(position));
+
+            // TextView for the section of the article, an interned String
+            holder.sectionTextView.setText(store.getSection(position));
 
-        // Create new NewsArticle object
-        final NewsArticle currentArticle = getItem(position);
+            // TextView for the modified date of the article
+            holder.dateTextView.setText(store.getDateLabelChars(),
+                    store.getDateLabelStart(position), store.getDateLabelLength(position));
+        }
+
+        metrics.end(PipelineMetrics.Stage.BIND, start);
+        allocationMonitor.onBindEnd();
+
+        // ImageView for the thumbnail of the article, hidden if it has none.
+        // Requesting it creates a request, so it is left out of the bind window.
+        bindThumbnail(holder, position);
+    }
 
-        ViewHolder holder;
+    /**
+     * This method sets up a row from the snapshot, decoding its title and
+     * date label from the mapped file into the buffers of the ViewHolder.
+     *
+     * @param holder The ViewHolder of the row.
+     * @param rows The displayed snapshot.
+     * @param position The position of the row.
+     */
+    private void bindSnapshotRow(ViewHolder holder, ArticleSnapshot rows, int position) {
+        int titleCapacity = rows.getTitleCapacity(position);
+        if (holder.titleChars.length < titleCapacity) {
+            holder.titleChars = new char[titleCapacity];
+        }
+        holder.titleTextView.setText(holder.titleChars, 0, rows.readTitle(position, holder.titleChars));
 
-        if(convertView == null) {
-            convertView = LayoutInflater.from(getContext()).inflate(
-                    R.layout.list_item, parent, false);
+        // The section names of a snapshot are decoded once when it is mapped
+        holder.sectionTextView.setText(rows.getSection(position));
+
+        holder.dateTextView.setText(holder.dateChars, 0, rows.readDateLabel(position, holder.dateChars));
+    }
+
+    /**
+     * This method shows the thumbnail again when a row that left the
+     * screen is brought back without being bound. A row that was just
+     * bound already has its request and is left alone.
+     *
+     * @param holder The ViewHolder of the row.
+     */
+    @Override
+    public void onViewAttachedToWindow(ViewHolder holder) {
+        int position = holder.getAdapterPosition();
+        if (position != RecyclerView.NO_POSITION && holder.thumbnailView.getTag() == null) {
+            bindThumbnail(holder, position);
+        }
+    }
+
+    /**
+     * This method cancels the thumbnail of a row that left the screen.
+     *
+     * @param holder The ViewHolder of the row.
+     */
+    @Override
+    public void onViewDetachedFromWindow(ViewHolder holder) {
+        cancelThumbnail(holder);
+    }
+
+    /**
+     * This method cancels the thumbnail of a row that is put aside for reuse,
+     * which includes rows bound ahead of time that were never shown.
+     *
+     * @param holder The ViewHolder of the row.
+     */
+    @Override
+    public void onViewRecycled(ViewHolder holder) {
+        cancelThumbnail(holder);
+    }
 
-            holder = new ViewHolder();
-            holder.titleTextView = (TextView) convertView.findViewById(R.id.title_text_view);
-            holder.dateTextView = (TextView) convertView.findViewById(R.id.date_text_view);
-            holder.sectionTextView = (TextView) convertView.findViewById(R.id.section_text_view);
-            convertView.setTag(holder);
+    /**
+     * This method loads the thumbnail of an article into its row.
+     *
+     * @param holder The ViewHolder of the row.
+     * @param position The position of the row.
+     */
+    private void bindThumbnail(ViewHolder holder, int position) {
+        ArticleSnapshot rows = snapshot;
+        if (rows != null ? rows.hasThumbnail(position) : articles.hasThumbnail(position)) {
+            holder.thumbnailView.setVisibility(View.VISIBLE);
+            getImagePipeline().load(rows != null ? rows.getThumbnailUrl(position)
+                    : articles.getThumbnailUrl(position), holder.thumbnailView);
         } else {
-            holder = (ViewHolder) convertView.getTag();
+            holder.thumbnailView.setVisibility(View.GONE);
+            cancelThumbnail(holder);
+        }
+    }
+
+    /**
+     * This method cancels the thumbnail of a row, if any has been loaded.
+     *
+     * @param holder The ViewHolder of the row.
+     */
+    private void cancelThumbnail(ViewHolder holder) {
+        if (imagePipeline != null) {
+            imagePipeline.cancel(holder.thumbnailView);
+        }
+    }
+
+    /**
+     * Returns the ImagePipeline, which is set up the first time it is needed.
+     *
+     * @return The ImagePipeline instance.
+     */
+    private ImagePipeline getImagePipeline() {
+        if (imagePipeline == null) {
+            imagePipeline = ImagePipeline.getInstance(context);
+        }
+        return imagePipeline;
+    }
+
+    /**
+     * Returns the number of displayed articles.
+     *
+     * @return The number of rows.
+     */
+    @Override
+    public int getItemCount() {
+        return snapshot != null ? snapshot.size() : articles.size();
+    }
+
+    /**
+     * Returns the displayed articles.
+     *
+     * @return The ArticleStore, which must not be modified, empty while a snapshot is shown.
+     */
+    public ArticleStore getArticleStore() {
+        return articles;
+    }
+
+    /**
+     * Returns whether the rows are read from a snapshot.
+     *
+     * @return true until the first list is submitted after showSnapshot.
+     */
+    public boolean isShowingSnapshot() {
+        return snapshot != null;
+    }
+
+    /**
+     * This method shows the rows of a snapshot until the first list is
+     * submitted, which is then compared with the snapshot so rows that
+     * did not change stay in place. Nothing is read from the snapshot
+     * apart from the rows that are bound. It only has an effect before
+     * any list has been submitted.
+     *
+     * @param rows The snapshot.
+     * @return true if the snapshot is shown.
+     */
+    public boolean showSnapshot(ArticleSnapshot rows) {
+        if (generation > 0 || snapshot != null || rows.size() == 0) {
+            return false;
         }
+        snapshot = rows;
+        notifyItemRangeInserted(0, rows.size());
+        return true;
+    }
 
-        // TextView for the title of the article
-        holder.titleTextView.setText(currentArticle.getTitle());
-
-        // TextView for the section of the article
-        holder.sectionTextView.setText(currentArticle.getSection());
-
-        // TextView for the modified date of the article
-        String date = currentArticle.getDate().substring(0, 10); // Removes time and zone data
-        holder.dateTextView.setText(date);
-
-        // Navigate to the website of the article when clicked
-        if(currentArticle.getUrl() != null) {
-            convertView.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    Uri uri = Uri.parse(currentArticle.getUrl());
-                    Intent intent = new Intent(Intent.ACTION_VIEW, uri);
-                    getContext().startActivity(intent);
-                }
-            });
+    /**
+     * This method replaces the displayed list. The articles are copied into
+     * an ArticleStore and compared with the displayed ones on a background
+     * thread, and only the rows that changed are updated. The list must not
+     * be modified afterwards.
+     *
+     * @param newArticles The new List of NewsArticles.
+     */
+    public void submitList(final List<NewsArticle> newArticles) {
+        final ArticleStore displayedStore = articles;
+        final ArticleSnapshot displayedSnapshot = snapshot;
+        final int submitGeneration = ++generation;
+
+        // Nothing to build or compare for an empty list
+        if (newArticles.isEmpty()) {
+            int oldSize = getItemCount();
+            articles = new ArticleStore(0);
+            snapshot = null;
+            if (oldSize > 0) {
+                notifyItemRangeRemoved(0, oldSize);
+            }
+            return;
         }
 
-        return convertView;
+        DIFF_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                // The snapshot is only decoded in full to be compared, off the main thread
+                final ArticleStore oldStore = displayedSnapshot != null
+                        ? displayedSnapshot.toStore() : displayedStore;
+                final ArticleStore newStore = ArticleStore.from(newArticles);
+                final DiffUtil.DiffResult result = oldStore.size() == 0 ? null
+                        : DiffUtil.calculateDiff(new ArticleDiffCallback(oldStore, newStore));
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // A newer list was submitted while this diff was computed
+                        if (submitGeneration != generation) {
+                            return;
+                        }
+                        articles = newStore;
+                        snapshot = null;
+                        if (result != null) {
+                            result.dispatchUpdatesTo(ArticleAdapter.this);
+                        } else {
+                            notifyItemRangeInserted(0, newStore.size());
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * This class compares two ArticleStores, matching articles by url.
+     */
+    private static class ArticleDiffCallback extends DiffUtil.Callback {
+
+        private final ArticleStore oldStore;
+        private final ArticleStore newStore;
+
+        ArticleDiffCallback(ArticleStore oldStore, ArticleStore newStore) {
+            this.oldStore = oldStore;
+            this.newStore = newStore;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldStore.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newStore.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            // Articles without a url cannot be matched
+            if (!oldStore.hasUrl(oldItemPosition) || !newStore.hasUrl(newItemPosition)) {
+                return false;
+            }
+            return oldStore.urlEquals(oldItemPosition, newStore, newItemPosition);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldStore.contentEquals(oldItemPosition, newStore, newItemPosition);
+        }
     }
 }
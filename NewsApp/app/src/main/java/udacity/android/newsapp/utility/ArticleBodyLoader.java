@@ -0,0 +1,64 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+
+/**
+ * This class loads the body of an article for the reader. A body held in
+ * memory, usually because it was prefetched, is delivered straight away;
+ * otherwise it is read from disk or fetched on a background thread. The
+ * body is kept and delivered again when the loader is restarted.
+ *
+ * @author Joseph Stewart
+ * @version 1.2
+ */
+public class ArticleBodyLoader extends ExecutorLoader<String> {
+
+    // The web url of the article
+    private final String url;
+
+    /**
+     * Constructor
+     *
+     * @param context The context of the Activity calling constructor.
+     * @param url The web url of the article.
+     */
+    public ArticleBodyLoader(Context context, String url) {
+        super(context);
+        this.url = url;
+    }
+
+    /**
+     * This method delivers the body held in memory the first time it is
+     * started, and otherwise leaves it to ExecutorLoader to deliver the
+     * kept body or load it.
+     */
+    @Override
+    protected void onStartLoading() {
+        if (!hasResult()) {
+            String body = ArticleBodyRepository.getInstance(getContext()).getFromMemory(url);
+            if (body != null) {
+                deliverResult(body);
+                return;
+            }
+        }
+        super.onStartLoading();
+    }
+
+    /**
+     * This method reads the body from the cache or fetches it.
+     *
+     * @return The HTML body, or null if it could not be loaded.
+     */
+    @Override
+    public String loadInBackground() {
+        ArticleBodyRepository repository = ArticleBodyRepository.getInstance(getContext());
+
+        String cached = repository.getCached(url);
+        if (cached != null) {
+            return cached;
+        }
+
+        // The fetch continues if a prefetch shares it when this load is cancelled
+        return awaitFetch(repository.fetchShared(url));
+    }
+}
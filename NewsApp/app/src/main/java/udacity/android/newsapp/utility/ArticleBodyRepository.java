@@ -0,0 +1,241 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.LruCache;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class loads the bodies of articles for the in-app reader. Bodies
+ * are kept in a memory cache bounded by their length, backed by a bounded
+ * on-disk cache, both keyed by the web url of the article, so an article
+ * that has been read or prefetched opens at once, even offline. The rows
+ * visible in the list are prefetched one at a time on a single background
+ * thread of the lowest priority; each new set of visible rows replaces the
+ * prefetches that have not started yet. A prefetch and a tap on the same
+ * article share one request.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class ArticleBodyRepository {
+
+    private static final String CACHE_DIRECTORY = "bodies";
+    private static final long DISK_CACHE_BYTES = 4 * 1024 * 1024;
+    private static final int MEMORY_CACHE_CHARS = 512 * 1024;
+
+    // Bodies rarely change once published
+    private static final long ENTRY_TTL = TimeUnit.DAYS.toMillis(7);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static ArticleBodyRepository instance;
+
+    private final Context context;
+    private final DiskLruStore diskStore;
+    private final LruCache<String, String> memoryCache = new LruCache<String, String>(MEMORY_CACHE_CHARS) {
+        @Override
+        protected int sizeOf(String key, String value) {
+            return value.length();
+        }
+    };
+
+    // Fetches in flight, keyed by web url
+    private final RequestCoalescer<String> fetchCoalescer = new RequestCoalescer<>();
+
+    // Web urls waiting to be prefetched, guarded by the set itself
+    private final LinkedHashSet<String> prefetchQueue = new LinkedHashSet<>();
+    private boolean prefetchRunning;
+
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ArticleBodyPrefetch");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private final Runnable prefetchTask = new Runnable() {
+        @Override
+        public void run() {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+            String url;
+            while ((url = nextPrefetch()) != null) {
+                if (getCached(url) == null) {
+                    fetch(url);
+                }
+            }
+        }
+    };
+
+    /**
+     * Private constructor, use getInstance.
+     *
+     * @param context The application context.
+     */
+    private ArticleBodyRepository(Context context) {
+        this.context = context;
+        this.diskStore = new DiskLruStore(new File(context.getCacheDir(), CACHE_DIRECTORY), DISK_CACHE_BYTES);
+    }
+
+    /**
+     * Returns the repository shared by the whole process.
+     *
+     * @param context Any context, only its application context is kept.
+     * @return The ArticleBodyRepository instance.
+     */
+    public static synchronized ArticleBodyRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticleBodyRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * This method returns the body of an article held in memory. It is
+     * cheap enough to be called on the main thread.
+     *
+     * @param url The web url of the article.
+     * @return The body or null if it is not in memory.
+     */
+    public String getFromMemory(String url) {
+        return memoryCache.get(url);
+    }
+
+    /**
+     * This method returns the cached body of an article, looking in memory
+     * first and then on disk. It must not be called on the main thread.
+     *
+     * @param url The web url of the article.
+     * @return The body or null if it is not cached.
+     */
+    public String getCached(String url) {
+        String body = memoryCache.get(url);
+        if (body != null) {
+            return body;
+        }
+
+        DiskLruStore.Entry entry = diskStore.get(url);
+        if (entry == null) {
+            return null;
+        }
+
+        body = new String(entry.getData(), UTF_8);
+        memoryCache.put(url, body);
+        return body;
+    }
+
+    /**
+     * This method returns the body of an article from the cache, or
+     * fetches it if it is not cached. It must not be called on the main
+     * thread.
+     *
+     * @param url The web url of the article.
+     * @return The body or null if it could not be loaded.
+     */
+    public String load(String url) {
+        String body = getCached(url);
+        return body != null ? body : fetch(url);
+    }
+
+    /**
+     * This method fetches the body of an article and caches it. If the
+     * article is already being fetched the result of that fetch is shared.
+     *
+     * @param url The web url of the article.
+     * @return The body or null if the request failed.
+     */
+    public String fetch(String url) {
+        return fetchShared(url).get();
+    }
+
+    /**
+     * This method returns a ticket for the fetch of the body of an article,
+     * so the caller can give up on it.
+     *
+     * @param url The web url of the article.
+     * @return The ticket of the fetch.
+     */
+    public RequestCoalescer.Ticket<String> fetchShared(final String url) {
+        return fetchCoalescer.acquire(url, new Callable<String>() {
+            @Override
+            public String call() {
+                return fetchFromNetwork(url);
+            }
+        });
+    }
+
+    /**
+     * This method replaces the articles waiting to be prefetched with the
+     * passed in ones and makes sure the prefetch thread is running.
+     *
+     * @param urls The web urls of the visible articles, in display order.
+     */
+    public void prefetch(List<String> urls) {
+        List<String> missing = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            if (url != null && memoryCache.get(url) == null) {
+                missing.add(url);
+            }
+        }
+
+        synchronized (prefetchQueue) {
+            prefetchQueue.clear();
+            prefetchQueue.addAll(missing);
+            if (!prefetchRunning && !prefetchQueue.isEmpty()) {
+                prefetchRunning = true;
+                prefetchExecutor.execute(prefetchTask);
+            }
+        }
+    }
+
+    /**
+     * This method takes the next article to prefetch off the queue.
+     *
+     * @return The web url of the article, or null once the queue is empty.
+     */
+    private String nextPrefetch() {
+        synchronized (prefetchQueue) {
+            if (prefetchQueue.isEmpty()) {
+                prefetchRunning = false;
+                return null;
+            }
+            String url = prefetchQueue.iterator().next();
+            prefetchQueue.remove(url);
+            return url;
+        }
+    }
+
+    /**
+     * This method requests the body of an article and stores it in both caches.
+     *
+     * @param url The web url of the article.
+     * @return The body or null if the request failed.
+     */
+    private String fetchFromNetwork(String url) {
+        String bodyUrl = QueryUrlBuilder.buildArticleBodyUrl(context, url);
+        if (bodyUrl == null) {
+            return null;
+        }
+
+        String body = QueryUtility.fetchArticleBody(bodyUrl);
+        if (body == null) {
+            return null;
+        }
+
+        memoryCache.put(url, body);
+        diskStore.put(url, body.getBytes(UTF_8), ENTRY_TTL);
+        return body;
+    }
+}
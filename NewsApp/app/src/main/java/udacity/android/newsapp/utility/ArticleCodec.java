@@ -0,0 +1,180 @@
+package udacity.android.newsapp.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class converts a List of NewsArticles to and from the compact binary
+ * format stored in the article cache. Section names repeat across results
+ * so they are written once into a table and referenced by index. The cache
+ * validators of the response are stored ahead of the articles.
+ *
+ * @author Joseph Stewart
+ * @version 1.2
+ */
+final class ArticleCodec {
+
+    private static final int VERSION = 3;
+
+    // Bits of the flags byte marking which attributes are present
+    private static final int HAS_TITLE = 1;
+    private static final int HAS_DATE = 1 << 1;
+    private static final int HAS_URL = 1 << 2;
+    private static final int HAS_THUMBNAIL = 1 << 3;
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private ArticleCodec() {
+        throw new AssertionError("The ArticleCodec cannot be instantiated.");
+    }
+
+    /**
+     * This method encodes the cached results into the binary format.
+     *
+     * @param cached The results to encode.
+     * @return The encoded bytes.
+     * @throws IOException Thrown if an attribute is too long to be written.
+     */
+    static byte[] encode(ArticleRepository.CachedArticles cached) throws IOException {
+        List<NewsArticle> articles = cached.getArticles();
+
+        // Build the table of distinct section names
+        Map<String, Integer> sectionIndexes = new HashMap<>();
+        List<String> sections = new ArrayList<>();
+        for (NewsArticle article : articles) {
+            String section = article.getSection();
+            if (section != null && !sectionIndexes.containsKey(section)) {
+                sectionIndexes.put(section, sections.size());
+                sections.add(section);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(articles.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(VERSION);
+        writeOptionalUTF(out, cached.getEtag());
+        writeOptionalUTF(out, cached.getLastModified());
+
+        out.writeShort(sections.size());
+        for (String section : sections) {
+            out.writeUTF(section);
+        }
+
+        out.writeInt(articles.size());
+        for (NewsArticle article : articles) {
+            int flags = 0;
+            if (article.getTitle() != null) {
+                flags |= HAS_TITLE;
+            }
+            if (article.getDate() != null) {
+                flags |= HAS_DATE;
+            }
+            if (article.getUrl() != null) {
+                flags |= HAS_URL;
+            }
+            if (article.getThumbnailUrl() != null) {
+                flags |= HAS_THUMBNAIL;
+            }
+            out.writeByte(flags);
+
+            // Section index is shifted by one so zero stands for no section
+            Integer sectionIndex = sectionIndexes.get(article.getSection());
+            out.writeShort(sectionIndex == null ? 0 : sectionIndex + 1);
+
+            if (article.getTitle() != null) {
+                out.writeUTF(article.getTitle());
+            }
+            if (article.getDate() != null) {
+                out.writeUTF(article.getDate());
+            }
+            if (article.getUrl() != null) {
+                out.writeUTF(article.getUrl());
+            }
+            if (article.getThumbnailUrl() != null) {
+                out.writeUTF(article.getThumbnailUrl());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * This method decodes cached results from the binary format.
+     *
+     * @param data The encoded bytes.
+     * @param createdAt The time the results were stored.
+     * @return The decoded results.
+     * @throws IOException Thrown if the data is truncated or of another version.
+     */
+    static ArticleRepository.CachedArticles decode(byte[] data, long createdAt) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported article cache version: " + version);
+        }
+
+        String etag = readOptionalUTF(in);
+        String lastModified = readOptionalUTF(in);
+
+        String[] sections = new String[in.readUnsignedShort()];
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = in.readUTF();
+        }
+
+        int count = in.readInt();
+        List<NewsArticle> articles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = in.readUnsignedByte();
+            int sectionIndex = in.readUnsignedShort();
+            if (sectionIndex > sections.length) {
+                throw new IOException("Invalid section index: " + sectionIndex);
+            }
+
+            String title = (flags & HAS_TITLE) != 0 ? in.readUTF() : null;
+            String date = (flags & HAS_DATE) != 0 ? in.readUTF() : null;
+            String url = (flags & HAS_URL) != 0 ? in.readUTF() : null;
+            String thumbnailUrl = (flags & HAS_THUMBNAIL) != 0 ? in.readUTF() : null;
+            String section = sectionIndex == 0 ? null : sections[sectionIndex - 1];
+
+            articles.add(new NewsArticle(title, date, section, url, thumbnailUrl));
+        }
+        return new ArticleRepository.CachedArticles(articles, createdAt, etag, lastModified);
+    }
+
+    /**
+     * This method writes a string that may be null.
+     *
+     * @param out The stream to write to.
+     * @param value The string or null.
+     * @throws IOException Thrown if the string is too long to be written.
+     */
+    private static void writeOptionalUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * This method reads a string written by writeOptionalUTF.
+     *
+     * @param in The stream to read from.
+     * @return The string or null.
+     * @throws IOException Thrown if the data is truncated.
+     */
+    private static String readOptionalUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,36 @@
+package udacity.android.newsapp.utility;
+
+import android.util.LruCache;
+
+/**
+ * This class holds recently loaded query results in memory so they are shared
+ * by every NewsActivity in the process. It is bounded by the total number of
+ * articles it holds rather than by the number of queries.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ArticleMemoryCache extends LruCache<String, ArticleRepository.CachedArticles> {
+
+    /**
+     * Constructor
+     *
+     * @param maxArticles The total number of articles the cache may hold.
+     */
+    public ArticleMemoryCache(int maxArticles) {
+        super(maxArticles);
+    }
+
+    /**
+     * This method measures an entry by the number of articles it holds,
+     * counting one for the entry itself so empty results still have a size.
+     *
+     * @param key The normalized query url.
+     * @param value The cached results.
+     * @return The size of the entry.
+     */
+    @Override
+    protected int sizeOf(String key, ArticleRepository.CachedArticles value) {
+        return value.getArticles().size() + 1;
+    }
+}
@@ -0,0 +1,73 @@
+package udacity.android.newsapp.utility;
+
+/**
+ * This class works out which Guardian page to request for each page of the
+ * article list. The first page is kept small so it arrives quickly and the
+ * following pages are larger. The Guardian numbers its pages by page size,
+ * so the first large page overlaps the small one and the overlapping results
+ * are skipped.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ArticlePager {
+
+    private final int firstPageSize;
+    private final int pageSize;
+
+    /**
+     * Constructor
+     *
+     * @param firstPageSize The number of results on the first page.
+     * @param pageSize The number of results on every following page.
+     */
+    public ArticlePager(int firstPageSize, int pageSize) {
+        if (firstPageSize > pageSize) {
+            throw new IllegalArgumentException("The first page cannot be larger than the other pages.");
+        }
+        this.firstPageSize = firstPageSize;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the Guardian page number to request for a page of the list.
+     *
+     * @param pageIndex The zero based index of the page in the list.
+     * @return The page number for the query.
+     */
+    public int getPageNumber(int pageIndex) {
+        return pageIndex == 0 ? 1 : pageIndex;
+    }
+
+    /**
+     * Returns the page size to request for a page of the list.
+     *
+     * @param pageIndex The zero based index of the page in the list.
+     * @return The page size for the query.
+     */
+    public int getPageSize(int pageIndex) {
+        return pageIndex == 0 ? firstPageSize : pageSize;
+    }
+
+    /**
+     * Returns how many results at the start of a page were already
+     * shown on the first page.
+     *
+     * @param pageIndex The zero based index of the page in the list.
+     * @return The number of results to skip.
+     */
+    public int getSkipCount(int pageIndex) {
+        return pageIndex == 1 ? firstPageSize : 0;
+    }
+
+    /**
+     * Returns whether a page was the last one with results.
+     *
+     * @param pageIndex The zero based index of the page in the list.
+     * @param resultCount The number of results the page returned.
+     * @return true if no more pages should be requested.
+     */
+    public boolean isLastPage(int pageIndex, int resultCount) {
+        return resultCount < getPageSize(pageIndex);
+    }
+}
@@ -0,0 +1,514 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import udacity.android.newsapp.core.ArticleParser;
+import udacity.android.newsapp.core.ArticleSearchIndex;
+import udacity.android.newsapp.core.PipelineMetrics;
+import udacity.android.newsapp.core.PrefixResultCache;
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class is the single point through which query results are loaded.
+ *
+ * Results are kept in a memory cache backed by a disk cache, both keyed by
+ * the normalized query url, so repeat searches are served locally and the
+ * network is only used to refresh them with conditional requests.
+ * Concurrent fetches of the same query share one request, and everyone
+ * waiting on it can follow the articles as they are parsed. A fetch that
+ * fails returns the cached results, or null if there are none.
+ *
+ * Every cached article is also added to a search index, so searches can be
+ * answered without the network, and the results of searches made while
+ * typing are kept by search text, so longer search texts can reuse them.
+ *
+ * @author Joseph Stewart
+ * @version 1.7
+ */
+public final class ArticleRepository {
+
+    private static final String LOG_TAG = ArticleRepository.class.getSimpleName();
+
+    private static final String CACHE_DIRECTORY = "articles";
+    private static final long DISK_CACHE_BYTES = 2 * 1024 * 1024;
+    private static final int MEMORY_CACHE_ARTICLES = 600;
+    private static final int TYPED_SEARCHES = 32;
+
+    // Cached results are served for this long
+    private static final long ENTRY_TTL = TimeUnit.HOURS.toMillis(6);
+
+    // Cached results older than this are refreshed in the background
+    private static final long REFRESH_AGE = TimeUnit.MINUTES.toMillis(5);
+
+    // The articles parsed so far are handed out at most this often after the first one
+    private static final long PROGRESS_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static ArticleRepository instance;
+
+    private final DiskLruStore diskStore;
+    private final ArticleMemoryCache memoryCache = new ArticleMemoryCache(MEMORY_CACHE_ARTICLES);
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+
+    // Fetches in flight, keyed by normalized query url
+    private final RequestCoalescer<List<NewsArticle>> fetchCoalescer = new RequestCoalescer<>();
+
+    // Index of the cached articles, filled from the disk cache on first use
+    private final ArticleSearchIndex searchIndex = new ArticleSearchIndex();
+    private boolean searchIndexLoaded;
+
+    // Results of the searches made while typing, by search text
+    private final PrefixResultCache typedSearches = new PrefixResultCache(TYPED_SEARCHES);
+
+    // Progress listeners, and the articles parsed so far by the fetches in
+    // flight, by normalized query url. Both are guarded by progressListeners.
+    private final Map<String, List<ProgressListener>> progressListeners = new HashMap<>();
+    private final Map<String, List<NewsArticle>> partialResults = new HashMap<>();
+
+    /**
+     * This interface follows the results of a fetch while its response
+     * is still being parsed.
+     */
+    public interface ProgressListener {
+
+        /**
+         * This method is called on the fetching thread with the articles
+         * parsed so far, first as soon as there is one and then in batches.
+         * It is not called with the complete results.
+         *
+         * @param articles The articles parsed so far, which cannot be modified.
+         */
+        void onProgress(List<NewsArticle> articles);
+    }
+
+    /**
+     * This class collects the articles of a fetch as they are parsed and
+     * hands them to the progress listeners of its query.
+     */
+    private final class ProgressDispatcher implements ArticleParser.Listener {
+
+        private final String key;
+        private final List<NewsArticle> parsed = new ArrayList<>();
+        private long lastProgress;
+
+        ProgressDispatcher(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void onArticleParsed(NewsArticle article) {
+            List<ProgressListener> listeners;
+            List<NewsArticle> articles;
+            synchronized (progressListeners) {
+                parsed.add(article);
+
+                long now = PipelineMetrics.now();
+                if (parsed.size() > 1 && now - lastProgress < PROGRESS_INTERVAL) {
+                    return;
+                }
+                lastProgress = now;
+
+                List<ProgressListener> registered = progressListeners.get(key);
+                if (registered == null) {
+                    return;
+                }
+                listeners = new ArrayList<>(registered);
+                articles = Collections.unmodifiableList(new ArrayList<>(parsed));
+            }
+
+            for (ProgressListener listener : listeners) {
+                listener.onProgress(articles);
+            }
+        }
+    }
+
+    /**
+     * This class holds results read from the cache together with the
+     * validators used to ask the server whether they have changed.
+     */
+    public static final class CachedArticles {
+
+        private final List<NewsArticle> articles;
+        private final long createdAt;
+        private final String etag;
+        private final String lastModified;
+
+        CachedArticles(List<NewsArticle> articles, long createdAt, String etag, String lastModified) {
+            this.articles = Collections.unmodifiableList(articles);
+            this.createdAt = createdAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Private constructor used by revalidated to share the article list.
+         */
+        private CachedArticles(CachedArticles cached, long createdAt, String etag, String lastModified) {
+            this.articles = cached.articles;
+            this.createdAt = createdAt;
+            this.etag = etag != null ? etag : cached.etag;
+            this.lastModified = lastModified != null ? lastModified : cached.lastModified;
+        }
+
+        /**
+         * This method returns a copy of these results for when the server
+         * confirmed they have not changed.
+         *
+         * @param createdAt The time the results were confirmed.
+         * @param etag The new ETag or null to keep the current one.
+         * @param lastModified The new Last-Modified date or null to keep the current one.
+         * @return The revalidated results.
+         */
+        CachedArticles revalidated(long createdAt, String etag, String lastModified) {
+            return new CachedArticles(this, createdAt, etag, lastModified);
+        }
+
+        /**
+         * Returns the cached articles. The list is shared and cannot be modified.
+         *
+         * @return The List of NewsArticles.
+         */
+        public List<NewsArticle> getArticles() {
+            return articles;
+        }
+
+        /**
+         * Returns the ETag of the response the results came from.
+         *
+         * @return The ETag or null.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Returns the Last-Modified date of the response the results came from.
+         *
+         * @return The Last-Modified date or null.
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns whether the results are old enough to be refreshed.
+         *
+         * @return true if the results should be refreshed from the network.
+         */
+        public boolean isStale() {
+            return System.currentTimeMillis() - createdAt > REFRESH_AGE;
+        }
+    }
+
+    /**
+     * Private constructor, use getInstance.
+     *
+     * @param context The application context.
+     */
+    private ArticleRepository(Context context) {
+        this.diskStore = new DiskLruStore(new File(context.getCacheDir(), CACHE_DIRECTORY), DISK_CACHE_BYTES);
+    }
+
+    /**
+     * Returns the repository shared by the whole process.
+     *
+     * @param context Any context, only its application context is kept.
+     * @return The ArticleRepository instance.
+     */
+    public static synchronized ArticleRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticleRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * This method returns the cached results for the query url held in memory.
+     * It is cheap enough to be called on the main thread.
+     *
+     * @param url The query url.
+     * @return The cached results or null if they are not in memory.
+     */
+    public CachedArticles getFromMemory(String url) {
+        CachedArticles cached = memoryCache.get(QueryKey.normalize(url));
+        if (cached != null) {
+            PipelineMetrics.getInstance().increment(PipelineMetrics.Counter.MEMORY_CACHE_HITS);
+        }
+        return cached;
+    }
+
+    /**
+     * This method returns the cached results for the query url, looking in
+     * memory first and then on disk. It may read from disk and must not be
+     * called on the main thread.
+     *
+     * @param url The query url.
+     * @return The cached results or null if there are none.
+     */
+    public CachedArticles getCached(String url) {
+        String key = QueryKey.normalize(url);
+
+        CachedArticles cached = memoryCache.get(key);
+        if (cached != null) {
+            PipelineMetrics.getInstance().increment(PipelineMetrics.Counter.MEMORY_CACHE_HITS);
+            return cached;
+        }
+
+        DiskLruStore.Entry entry = diskStore.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        try {
+            cached = ArticleCodec.decode(entry.getData(), entry.getCreatedAt());
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Problem decoding cached articles", e);
+            diskStore.remove(key);
+            return null;
+        }
+
+        PipelineMetrics.getInstance().increment(PipelineMetrics.Counter.DISK_CACHE_HITS);
+
+        // Promote the results so the next request does not touch the disk
+        memoryCache.put(key, cached);
+        searchIndex.addAll(cached.getArticles());
+        return cached;
+    }
+
+    /**
+     * This method searches the titles and sections of every cached
+     * article. The first search reads the whole disk cache to build the
+     * index, so it must not be called on the main thread.
+     *
+     * @param query The search text.
+     * @param limit The maximum number of results.
+     * @return The matching articles, best match first.
+     */
+    public List<NewsArticle> searchLocal(String query, int limit) {
+        loadSearchIndex();
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * This method adds the articles on disk to the search index the
+     * first time it is needed. The entries are only peeked at, so they
+     * are neither promoted to the memory cache nor counted as cache hits,
+     * and their place in the least recently used order is kept. An entry
+     * that is also in memory is indexed again, which replaces its articles.
+     */
+    private synchronized void loadSearchIndex() {
+        if (searchIndexLoaded) {
+            return;
+        }
+        searchIndexLoaded = true;
+
+        for (String key : diskStore.keys()) {
+            DiskLruStore.Entry entry = diskStore.peek(key);
+            if (entry == null) {
+                continue;
+            }
+
+            try {
+                searchIndex.addAll(ArticleCodec.decode(entry.getData(), entry.getCreatedAt()).getArticles());
+            } catch (IOException e) {
+                Log.e(LOG_TAG, "Problem decoding cached articles", e);
+                diskStore.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the results of the searches made while typing.
+     *
+     * @return The cache of the results by search text.
+     */
+    public PrefixResultCache getTypedSearches() {
+        return typedSearches;
+    }
+
+    /**
+     * Returns the memory cache so its hit and miss counts can be inspected.
+     *
+     * @return The memory cache.
+     */
+    public ArticleMemoryCache getMemoryCache() {
+        return memoryCache;
+    }
+
+    /**
+     * This method returns the cached results for the query url if they are
+     * still fresh, otherwise it fetches them. It must not be called on the
+     * main thread.
+     *
+     * @param url The query url.
+     * @return The List of NewsArticles, empty if there are no results.
+     */
+    public List<NewsArticle> load(String url) {
+        CachedArticles cached = getCached(url);
+        if (cached != null && !cached.isStale()) {
+            return cached.getArticles();
+        }
+        return fetch(url);
+    }
+
+    /**
+     * This method fetches the results for the query url from the network
+     * and stores them in the cache. The request is made conditional on the
+     * cached results, so if the server answers that they have not changed
+     * they are kept without downloading them again. If the request fails
+     * the cached results are returned instead. If the same query is already
+     * being fetched its result is shared instead of making another request.
+     *
+     * @param url The query url.
+     * @return The List of NewsArticles, empty if there are no results or the request failed.
+     */
+    public List<NewsArticle> fetch(String url) {
+        List<NewsArticle> articles = fetchShared(url).get();
+        return articles != null ? articles : new ArrayList<NewsArticle>();
+    }
+
+    /**
+     * This method returns a ticket on the fetch of the query url, joining
+     * the fetch already in flight for the same query if there is one. The
+     * fetch runs on the first thread that calls get on a ticket and is only
+     * cancelled once every ticket on it has been cancelled. Its result is
+     * null if the request failed and nothing is cached for the query, so
+     * a failure is not mistaken for a search without results.
+     *
+     * @param url The query url.
+     * @return The ticket, whose get method must not be called on the main thread.
+     */
+    public RequestCoalescer.Ticket<List<NewsArticle>> fetchShared(final String url) {
+        return fetchCoalescer.acquire(QueryKey.normalize(url), new Callable<List<NewsArticle>>() {
+            @Override
+            public List<NewsArticle> call() {
+                return fetchFromNetwork(url);
+            }
+        });
+    }
+
+    /**
+     * This method registers a listener for the articles of the query url
+     * while they are parsed. If the query is being fetched the listener is
+     * called at once with the articles parsed so far.
+     *
+     * @param url The query url.
+     * @param listener The listener.
+     */
+    public void addProgressListener(String url, ProgressListener listener) {
+        String key = QueryKey.normalize(url);
+        List<NewsArticle> articles = null;
+        synchronized (progressListeners) {
+            List<ProgressListener> listeners = progressListeners.get(key);
+            if (listeners == null) {
+                listeners = new ArrayList<>();
+                progressListeners.put(key, listeners);
+            }
+            listeners.add(listener);
+
+            List<NewsArticle> parsed = partialResults.get(key);
+            if (parsed != null && !parsed.isEmpty()) {
+                articles = Collections.unmodifiableList(new ArrayList<>(parsed));
+            }
+        }
+
+        if (articles != null) {
+            listener.onProgress(articles);
+        }
+    }
+
+    /**
+     * This method unregisters a progress listener.
+     *
+     * @param url The query url the listener was registered for.
+     * @param listener The listener.
+     */
+    public void removeProgressListener(String url, ProgressListener listener) {
+        String key = QueryKey.normalize(url);
+        synchronized (progressListeners) {
+            List<ProgressListener> listeners = progressListeners.get(key);
+            if (listeners != null) {
+                listeners.remove(listener);
+                if (listeners.isEmpty()) {
+                    progressListeners.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct queries currently being fetched.
+     *
+     * @return The number of fetches in flight.
+     */
+    public int getInFlightCount() {
+        return fetchCoalescer.getInFlightCount();
+    }
+
+    /**
+     * This method makes the conditional request for the query url and
+     * updates the caches with the result. The articles are handed to the
+     * progress listeners of the query while they are parsed. If the
+     * request fails the cached results are returned instead.
+     *
+     * @param url The query url.
+     * @return The List of NewsArticles, or null if the request failed and nothing is cached.
+     */
+    private List<NewsArticle> fetchFromNetwork(String url) {
+        CachedArticles cached = getCached(url);
+
+        String key = QueryKey.normalize(url);
+        ProgressDispatcher dispatcher = new ProgressDispatcher(key);
+        synchronized (progressListeners) {
+            partialResults.put(key, dispatcher.parsed);
+        }
+
+        CachedArticles fetched;
+        try {
+            fetched = QueryUtility.fetchArticles(url, QueryUtility.ARTICLE_PARSER, cached, dispatcher);
+        } finally {
+            synchronized (progressListeners) {
+                partialResults.remove(key);
+            }
+        }
+
+        if (fetched == null) {
+            return cached != null ? cached.getArticles() : null;
+        }
+
+        if (cached != null && fetched.getArticles() == cached.getArticles()) {
+            notModifiedCount.incrementAndGet();
+        }
+
+        memoryCache.put(key, fetched);
+        searchIndex.addAll(fetched.getArticles());
+
+        try {
+            diskStore.put(key, ArticleCodec.encode(fetched), ENTRY_TTL);
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Problem encoding articles for the cache", e);
+        }
+        return fetched.getArticles();
+    }
+
+    /**
+     * Returns the number of refreshes the server answered with 304 Not
+     * Modified, each of which was served from the cache.
+     *
+     * @return The number of not modified responses.
+     */
+    public int getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+}
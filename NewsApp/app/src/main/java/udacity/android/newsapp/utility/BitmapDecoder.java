@@ -0,0 +1,99 @@
+package udacity.android.newsapp.utility;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import udacity.android.newsapp.core.PipelineMetrics;
+
+/**
+ * This class decodes images downsampled to the size they are displayed at.
+ * The size of the image is read first without decoding any pixels, then the
+ * image is decoded at the largest power of two reduction that still covers
+ * the view, into a bitmap taken from the BitmapPool when one fits. Images
+ * are decoded without an alpha channel, which halves their memory, as
+ * thumbnails are JPEG photos.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+final class BitmapDecoder {
+
+    private static final Bitmap.Config CONFIG = Bitmap.Config.RGB_565;
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private BitmapDecoder() {
+        throw new AssertionError("The BitmapDecoder cannot be instantiated.");
+    }
+
+    /**
+     * This method decodes an image no larger than needed to cover the
+     * passed in size.
+     *
+     * @param data The encoded image.
+     * @param width The width of the view in pixels.
+     * @param height The height of the view in pixels.
+     * @param pool The pool to take a reusable bitmap from.
+     * @return The bitmap, or null if the image could not be decoded.
+     */
+    static Bitmap decode(byte[] data, int width, int height, BitmapPool pool) {
+        // Read the size of the image without decoding it
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = calculateInSampleSize(options.outWidth, options.outHeight, width, height);
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = CONFIG;
+        options.inMutable = true;
+
+        // Bitmaps of other sizes can be reused as long as their buffer is large enough
+        Bitmap reusable = pool.get((options.outWidth + sampleSize - 1) / sampleSize,
+                (options.outHeight + sampleSize - 1) / sampleSize, CONFIG);
+        options.inBitmap = reusable;
+
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            // The decoder would not reuse the bitmap, decode into a new one
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+
+        if (reusable != null) {
+            if (bitmap == null) {
+                pool.put(reusable);
+            } else {
+                PipelineMetrics.getInstance().increment(PipelineMetrics.Counter.BITMAPS_REUSED);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * This method returns the largest power of two by which an image can be
+     * reduced while still covering the requested size.
+     *
+     * @param imageWidth The width of the image.
+     * @param imageHeight The height of the image.
+     * @param width The requested width.
+     * @param height The requested height.
+     * @return The sample size, at least one.
+     */
+    static int calculateInSampleSize(int imageWidth, int imageHeight, int width, int height) {
+        int sampleSize = 1;
+        if (width <= 0 || height <= 0) {
+            return sampleSize;
+        }
+        while (imageWidth / (sampleSize * 2) >= width && imageHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
@@ -0,0 +1,128 @@
+package udacity.android.newsapp.utility;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class keeps bitmaps that are no longer displayed so their buffers
+ * can be decoded into again instead of allocating new ones, which keeps the
+ * garbage collector from pausing the list while it scrolls. A pooled bitmap
+ * can take any image that fits into its buffer, so they are kept sorted by
+ * the size of their buffer. The pool is bounded by the bytes it holds.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+final class BitmapPool {
+
+    // A buffer much larger than needed is better left to the garbage collector
+    private static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final long maxBytes;
+    private long currentBytes;
+
+    // Pooled bitmaps by the size of their buffer
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> bitmapsBySize = new TreeMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param maxBytes The most bytes the pooled bitmaps may hold.
+     */
+    BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * This method adds a bitmap that is no longer displayed to the pool.
+     * Bitmaps that cannot be decoded into are left to the garbage collector.
+     *
+     * @param bitmap The bitmap.
+     */
+    synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+
+        int size = bitmap.getAllocationByteCount();
+        if (size > maxBytes) {
+            return;
+        }
+
+        ArrayDeque<Bitmap> bitmaps = bitmapsBySize.get(size);
+        if (bitmaps == null) {
+            bitmaps = new ArrayDeque<>();
+            bitmapsBySize.put(size, bitmaps);
+        }
+        bitmaps.addLast(bitmap);
+        currentBytes += size;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * This method takes a bitmap out of the pool whose buffer can hold an
+     * image of the passed in size.
+     *
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @param config The pixel format of the image.
+     * @return The bitmap, or null if none in the pool fits.
+     */
+    synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        int needed = width * height * bytesPerPixel(config);
+        Integer size = bitmapsBySize.ceilingKey(needed);
+        if (size == null || size > needed * MAX_SIZE_MULTIPLE) {
+            return null;
+        }
+
+        ArrayDeque<Bitmap> bitmaps = bitmapsBySize.get(size);
+        Bitmap bitmap = bitmaps.removeLast();
+        if (bitmaps.isEmpty()) {
+            bitmapsBySize.remove(size);
+        }
+        currentBytes -= size;
+        return bitmap;
+    }
+
+    /**
+     * This method drops pooled bitmaps, the largest first, until the pool
+     * holds no more than the passed in number of bytes.
+     *
+     * @param bytes The most bytes to keep.
+     */
+    synchronized void trimToSize(long bytes) {
+        while (currentBytes > bytes && !bitmapsBySize.isEmpty()) {
+            Map.Entry<Integer, ArrayDeque<Bitmap>> largest = bitmapsBySize.lastEntry();
+            largest.getValue().removeLast();
+            if (largest.getValue().isEmpty()) {
+                bitmapsBySize.remove(largest.getKey());
+            }
+            currentBytes -= largest.getKey();
+        }
+    }
+
+    /**
+     * This method drops every pooled bitmap.
+     */
+    synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * Returns the number of bytes a pixel takes in the passed in format.
+     *
+     * @param config The pixel format.
+     * @return The number of bytes per pixel.
+     */
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        } else if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        return 4;
+    }
+}
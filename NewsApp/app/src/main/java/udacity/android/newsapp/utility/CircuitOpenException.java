@@ -0,0 +1,24 @@
+package udacity.android.newsapp.utility;
+
+import java.io.IOException;
+
+/**
+ * This exception is thrown instead of making a request while the server
+ * is failing, so the caller can fall back to cached results at once.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor
+     *
+     * @param message The description of why no request was made.
+     */
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
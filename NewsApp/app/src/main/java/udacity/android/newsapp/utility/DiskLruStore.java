@@ -0,0 +1,386 @@
+package udacity.android.newsapp.utility;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class stores byte entries as files in a directory. Every entry has
+ * its own time to live, and when the total size of the entries grows past
+ * the byte budget the least recently used entries are deleted. Entries
+ * can also be peeked at, which reads them without marking them as used.
+ *
+ * @author Joseph Stewart
+ * @version 1.3
+ */
+public class DiskLruStore {
+
+    private static final String LOG_TAG = DiskLruStore.class.getSimpleName();
+
+    // Marks the start of every entry file
+    private static final int MAGIC = 0x4E415331;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+
+    // Entry file names mapped to their size, in least recently used order
+    private final LinkedHashMap<String, Long> entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private boolean initialized;
+
+    /**
+     * This class represents an entry read from the store.
+     */
+    public static final class Entry {
+
+        private final byte[] data;
+        private final long createdAt;
+        private final long expiresAt;
+
+        Entry(byte[] data, long createdAt, long expiresAt) {
+            this.data = data;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Returns the stored bytes.
+         *
+         * @return The data of the entry.
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Returns the time the entry was written in milliseconds.
+         *
+         * @return The creation time of the entry.
+         */
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * Returns the time after which the entry is no longer served.
+         *
+         * @return The expiry time of the entry.
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param directory The directory the entries are stored in.
+     * @param maxBytes The total size the entries may take up.
+     */
+    public DiskLruStore(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * This method returns the entry stored for the key and marks it as the
+     * most recently used. Expired entries are deleted and not returned.
+     *
+     * @param key The key of the entry.
+     * @return The entry or null if there is no valid entry for the key.
+     */
+    public synchronized Entry get(String key) {
+        return read(key, true);
+    }
+
+    /**
+     * This method returns the entry stored for the key, leaving its place
+     * in the least recently used order alone, for reads that are not
+     * requests for the entry. Expired entries are deleted and not returned.
+     *
+     * @param key The key of the entry.
+     * @return The entry or null if there is no valid entry for the key.
+     */
+    public synchronized Entry peek(String key) {
+        return read(key, false);
+    }
+
+    /**
+     * This method reads the entry stored for the key. Expired entries are
+     * deleted and not returned.
+     *
+     * @param key The key of the entry.
+     * @param markUsed Whether to mark the entry as the most recently used.
+     * @return The entry or null if there is no valid entry for the key.
+     */
+    private Entry read(String key, boolean markUsed) {
+        initialize();
+
+        String name = fileName(key);
+        if (!entrySizes.containsKey(name)) {
+            return null;
+        }
+
+        File file = new File(directory, name);
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || !key.equals(in.readUTF())) {
+                delete(name);
+                return null;
+            }
+
+            long createdAt = in.readLong();
+            long expiresAt = in.readLong();
+            long now = System.currentTimeMillis();
+            if (now > expiresAt) {
+                delete(name);
+                return null;
+            }
+
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+
+            if (markUsed) {
+                // Mark the entry as the most recently used
+                entrySizes.get(name);
+                file.setLastModified(now);
+            }
+
+            return new Entry(data, createdAt, expiresAt);
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Problem reading cache entry " + name, e);
+            delete(name);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * This method stores the data for the key, replacing any previous entry,
+     * and then evicts entries until the store is within its byte budget.
+     *
+     * @param key The key of the entry.
+     * @param data The data to store.
+     * @param ttlMillis How long the entry is served for in milliseconds.
+     */
+    public synchronized void put(String key, byte[] data, long ttlMillis) {
+        initialize();
+
+        String name = fileName(key);
+        File temp = new File(directory, name + TEMP_SUFFIX);
+        File file = new File(directory, name);
+        long now = System.currentTimeMillis();
+
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeUTF(key);
+            out.writeLong(now);
+            out.writeLong(now + ttlMillis);
+            out.writeInt(data.length);
+            out.write(data);
+            out.close();
+            out = null;
+
+            // Replace the previous entry in one step so readers never see a partial file
+            if (!temp.renameTo(file)) {
+                throw new IOException("Unable to rename " + temp);
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Problem writing cache entry " + name, e);
+            closeQuietly(out);
+            temp.delete();
+            return;
+        }
+
+        Long previous = entrySizes.put(name, file.length());
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+        totalBytes += file.length();
+        trimToSize();
+    }
+
+    /**
+     * This method deletes the entry stored for the key.
+     *
+     * @param key The key of the entry.
+     */
+    public synchronized void remove(String key) {
+        initialize();
+        delete(fileName(key));
+    }
+
+    /**
+     * This method deletes every entry of the store.
+     */
+    public synchronized void clear() {
+        initialize();
+        for (String name : entrySizes.keySet().toArray(new String[entrySizes.size()])) {
+            delete(name);
+        }
+    }
+
+    /**
+     * This method returns the keys of the stored entries, reading them from
+     * the entry files. Entries that expired are included and are deleted
+     * when they are next requested.
+     *
+     * @return The keys, least recently used first.
+     */
+    public synchronized List<String> keys() {
+        initialize();
+
+        List<String> keys = new ArrayList<>(entrySizes.size());
+        for (String name : entrySizes.keySet().toArray(new String[entrySizes.size()])) {
+            DataInputStream in = null;
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(directory, name))));
+                if (in.readInt() == MAGIC) {
+                    keys.add(in.readUTF());
+                }
+            } catch (IOException e) {
+                Log.e(LOG_TAG, "Problem reading cache entry " + name, e);
+            } finally {
+                closeQuietly(in);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the total size of the stored entries.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long size() {
+        initialize();
+        return totalBytes;
+    }
+
+    /**
+     * This method reads the existing entry files the first time the store
+     * is used, ordering them by when they were last used.
+     */
+    private void initialize() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(LOG_TAG, "Unable to create cache directory " + directory);
+            return;
+        }
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                long difference = first.lastModified() - second.lastModified();
+                return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+            }
+        });
+
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                // Left over from an interrupted write
+                file.delete();
+            } else {
+                entrySizes.put(file.getName(), file.length());
+                totalBytes += file.length();
+            }
+        }
+        trimToSize();
+    }
+
+    /**
+     * This method deletes the least recently used entries until the
+     * total size is within the byte budget.
+     */
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = entrySizes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * This method deletes the entry file with the passed in name.
+     *
+     * @param name The name of the entry file.
+     */
+    private void delete(String name) {
+        Long size = entrySizes.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        new File(directory, name).delete();
+    }
+
+    /**
+     * This method returns the file name for a key, which is the hex
+     * encoded SHA-1 hash of the key.
+     *
+     * @param key The key of the entry.
+     * @return The file name.
+     */
+    static String fileName(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder name = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16));
+                name.append(Character.forDigit(b & 0xF, 16));
+            }
+            return name.toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * This method closes the stream, ignoring any exception.
+     *
+     * @param stream The stream to close, may be null.
+     */
+    private static void closeQuietly(Closeable stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+                // Nothing more can be done
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.content.Loader;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.Future;
+
+/**
+ * This class is the base of the loaders of the app. Loads run on the
+ * shared PriorityLoadExecutor at the priority of the loader instead of one
+ * after the other on the serial executor of AsyncTaskLoader. The result of
+ * the last load is kept: when the loader is started again, for example
+ * when the Activity comes back to the foreground, it is delivered again
+ * instead of loading it anew, and a result that arrives while the loader
+ * is stopped is held until it is started. Results are always delivered on
+ * the main thread and only to the latest load; a cancelled load reports
+ * its cancellation to the LoaderManager so a restarted loader can run.
+ * A load waiting on a shared fetch through awaitFetch gives up its ticket
+ * as soon as it is cancelled, without touching the fetches of other loads.
+ *
+ * @param <D> The type of the result.
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public abstract class ExecutorLoader<D> extends Loader<D> {
+
+    private static final String LOG_TAG = ExecutorLoader.class.getSimpleName();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final PriorityLoadExecutor executor = PriorityLoadExecutor.getInstance();
+    private int priority = PriorityLoadExecutor.PRIORITY_VISIBLE;
+
+    // The latest result, delivered again when the loader is started
+    private D result;
+    private boolean hasResult;
+
+    // The load running or waiting, only accessed on the main thread
+    private LoadTask task;
+
+    // The load each background thread is running, as an older cancelled
+    // load may still be running next to the current one
+    private final ThreadLocal<LoadTask> runningTask = new ThreadLocal<>();
+
+    /**
+     * This class runs a single load and hands its result to the main thread.
+     */
+    private final class LoadTask implements Runnable {
+
+        volatile boolean cancelled;
+        Future<?> future;
+
+        // The fetch the load is waiting for
+        volatile RequestCoalescer.Ticket<?> pendingFetch;
+
+        @Override
+        public void run() {
+            D data = null;
+            if (!cancelled) {
+                runningTask.set(this);
+                try {
+                    data = loadInBackground();
+                } catch (RuntimeException e) {
+                    Log.e(LOG_TAG, "Problem loading in the background", e);
+                } finally {
+                    runningTask.remove();
+                }
+            }
+
+            final D loaded = data;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onLoadComplete(LoadTask.this, loaded);
+                }
+            });
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context The context of the Activity calling constructor.
+     */
+    public ExecutorLoader(Context context) {
+        super(context);
+    }
+
+    /**
+     * This method does the work of the load on a background thread.
+     *
+     * @return The result of the load.
+     */
+    public abstract D loadInBackground();
+
+    /**
+     * This method is called on the main thread when a running load is
+     * cancelled, so it can give up early. It does nothing by default.
+     */
+    public void cancelLoadInBackground() {
+    }
+
+    /**
+     * This method waits for a shared fetch from within loadInBackground.
+     * The ticket belongs to the load running on the calling thread and is
+     * cancelled with it, also when the load was cancelled before the
+     * ticket was handed over.
+     *
+     * @param ticket The ticket of the fetch.
+     * @param <V> The type of the result of the fetch.
+     * @return The result, or null if the fetch failed or the load was cancelled.
+     */
+    protected <V> V awaitFetch(RequestCoalescer.Ticket<V> ticket) {
+        LoadTask loadTask = runningTask.get();
+        if (loadTask == null) {
+            return ticket.get();
+        }
+
+        loadTask.pendingFetch = ticket;
+        // A cancellation that came before the ticket was set did not see it
+        if (loadTask.cancelled) {
+            ticket.cancel();
+            return null;
+        }
+        try {
+            return ticket.get();
+        } finally {
+            loadTask.pendingFetch = null;
+        }
+    }
+
+    /**
+     * Returns the priority the loads of this loader are queued with.
+     *
+     * @return One of the PriorityLoadExecutor priorities.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * This method sets the priority of the following loads. A load that is
+     * still waiting for a thread is queued again with the new priority.
+     *
+     * @param priority One of the PriorityLoadExecutor priorities.
+     */
+    public void setPriority(int priority) {
+        if (this.priority == priority) {
+            return;
+        }
+        this.priority = priority;
+
+        if (task != null && !task.cancelled && task.future.cancel(false)) {
+            task.future = executor.submit(task, priority);
+        }
+    }
+
+    /**
+     * Returns whether a result has been delivered.
+     *
+     * @return true if there is a result to deliver again.
+     */
+    protected boolean hasResult() {
+        return hasResult;
+    }
+
+    /**
+     * This method delivers the kept result, and only loads if there is
+     * none yet, no load is running or the content has changed.
+     */
+    @Override
+    protected void onStartLoading() {
+        if (hasResult) {
+            deliverResult(result);
+        }
+        if (takeContentChanged() || (!hasResult && task == null)) {
+            forceLoad();
+        }
+    }
+
+    /**
+     * This method cancels the current load and queues a new one.
+     */
+    @Override
+    protected void onForceLoad() {
+        super.onForceLoad();
+        cancelLoad();
+        task = new LoadTask();
+        task.future = executor.submit(task, priority);
+    }
+
+    /**
+     * This method cancels the current load. A load that has not started is
+     * removed from the queue, a running one is asked to give up.
+     *
+     * @return true if there was a load to cancel.
+     */
+    @Override
+    protected boolean onCancelLoad() {
+        if (task == null) {
+            return false;
+        }
+
+        LoadTask cancelledTask = task;
+        task = null;
+        cancelledTask.cancelled = true;
+        RequestCoalescer.Ticket<?> ticket = cancelledTask.pendingFetch;
+        if (ticket != null) {
+            ticket.cancel();
+        }
+        if (cancelledTask.future.cancel(false)) {
+            // It never runs, so its cancellation is reported right away
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliverCancellation();
+                }
+            });
+        } else {
+            cancelLoadInBackground();
+        }
+        return true;
+    }
+
+    /**
+     * This method delivers the result of the latest load.
+     *
+     * @param loadTask The load that finished.
+     * @param data The result.
+     */
+    private void onLoadComplete(LoadTask loadTask, D data) {
+        if (loadTask.cancelled) {
+            deliverCancellation();
+            return;
+        }
+        task = null;
+        if (!isAbandoned()) {
+            deliverResult(data);
+        }
+    }
+
+    /**
+     * This method keeps the result and delivers it if the loader is started.
+     * Otherwise it is delivered once the loader is started again.
+     *
+     * @param data The result.
+     */
+    @Override
+    public void deliverResult(D data) {
+        result = data;
+        hasResult = true;
+        if (isStarted()) {
+            super.deliverResult(data);
+        }
+    }
+
+    /**
+     * This method cancels the current load and drops the result.
+     */
+    @Override
+    protected void onReset() {
+        super.onReset();
+        cancelLoad();
+        result = null;
+        hasResult = false;
+    }
+}
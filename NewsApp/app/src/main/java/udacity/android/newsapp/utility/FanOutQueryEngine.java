@@ -0,0 +1,278 @@
+package udacity.android.newsapp.utility;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import udacity.android.newsapp.core.ArticleMerger;
+import udacity.android.newsapp.core.NewsProvider;
+import udacity.android.newsapp.core.PipelineMetrics;
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class fans a search out to several providers, for example one per
+ * section of the Guardian and one per feed, which are queried concurrently
+ * on a bounded pool of threads. Each time a provider finishes, the results
+ * of all providers that have finished so far are merged by date with a
+ * k-way merge and de-duplicated by article url, and the merged list is
+ * delivered on the main thread. A provider that takes longer than its
+ * timeout is interrupted and the search goes on without it, so one slow
+ * source does not hold back the others.
+ *
+ * @author Joseph Stewart
+ * @version 2.0
+ */
+public class FanOutQueryEngine {
+
+    private static final String LOG_TAG = FanOutQueryEngine.class.getSimpleName();
+
+    // Providers beyond this wait in the queue for a free thread
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    // Idle threads are let go after this many seconds
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static FanOutQueryEngine instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * This interface receives the results of a fanned out query on the main thread.
+     */
+    public interface Listener {
+
+        /**
+         * This method is called each time a provider finishes or times out.
+         *
+         * @param articles The merged articles of all providers finished so far.
+         * @param completedRequests The number of providers finished so far.
+         * @param totalRequests The number of providers of the query.
+         */
+        void onArticlesMerged(List<NewsArticle> articles, int completedRequests, int totalRequests);
+    }
+
+    /**
+     * This class represents a running query so it can be cancelled.
+     */
+    public static final class Query {
+
+        private final List<Future<?>> futures = new ArrayList<>();
+        private final List<List<NewsArticle>> results;
+        private final boolean[] finished;
+        private final int totalRequests;
+        private final boolean newestFirst;
+        private volatile boolean cancelled;
+
+        // Guarded by the query
+        private List<NewsArticle> merged = Collections.emptyList();
+        private int completedRequests;
+
+        // Only accessed on the main thread
+        private int deliveredRequests;
+
+        private Query(int totalRequests, boolean newestFirst) {
+            this.totalRequests = totalRequests;
+            this.newestFirst = newestFirst;
+            this.finished = new boolean[totalRequests];
+            this.results = new ArrayList<>(Collections.<List<NewsArticle>>nCopies(totalRequests, null));
+        }
+
+        /**
+         * This method records that a provider has finished and merges its
+         * results with those of the providers that finished before it.
+         *
+         * @param index The index of the provider.
+         * @param articles The results of the provider, or null if it failed or timed out.
+         * @return false if the provider had already finished, for example by timing out.
+         */
+        private synchronized boolean finish(int index, List<NewsArticle> articles) {
+            if (finished[index]) {
+                return false;
+            }
+            finished[index] = true;
+            completedRequests++;
+
+            if (articles != null && !articles.isEmpty()) {
+                results.set(index, articles);
+                merged = ArticleMerger.merge(results, newestFirst);
+            }
+            return true;
+        }
+
+        /**
+         * This method removes the providers that are still waiting and
+         * prevents any further delivery to the listener. Providers that are
+         * already running are left to finish so their results still reach
+         * the cache, for example when the activity is recreated.
+         */
+        public synchronized void cancel() {
+            cancelled = true;
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        /**
+         * Returns whether the query was cancelled.
+         *
+         * @return true if the query was cancelled.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Private constructor, use getInstance.
+     */
+    private FanOutQueryEngine() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(MAX_CONCURRENT_REQUESTS, MAX_CONCURRENT_REQUESTS,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "FanOutQuery-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the engine shared by the whole process.
+     *
+     * @return The FanOutQueryEngine instance.
+     */
+    public static synchronized FanOutQueryEngine getInstance() {
+        if (instance == null) {
+            instance = new FanOutQueryEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * This method queries each of the providers for the search text.
+     *
+     * @param providers The providers, in order of preference for duplicate articles.
+     * @param searchText The search text.
+     * @param newestFirst Whether the merged results start with the newest or the oldest articles.
+     * @param listener The listener the merged results are delivered to.
+     * @return The running query.
+     */
+    public Query execute(List<NewsProvider> providers, final String searchText,
+                         boolean newestFirst, final Listener listener) {
+        final Query query = new Query(providers.size(), newestFirst);
+
+        synchronized (query) {
+            for (int i = 0; i < providers.size(); i++) {
+                final int index = i;
+                final NewsProvider provider = providers.get(i);
+                query.futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (query.isCancelled()) {
+                            return;
+                        }
+
+                        // The timeout starts when the provider does, not while it waits for a thread
+                        Runnable timeout = new Runnable() {
+                            @Override
+                            public void run() {
+                                onTimeout(query, index, provider, listener);
+                            }
+                        };
+                        mainHandler.postDelayed(timeout, provider.getTimeoutMillis());
+
+                        List<NewsArticle> articles = null;
+                        try {
+                            articles = provider.query(searchText);
+                        } catch (IOException e) {
+                            Log.e(LOG_TAG, "Problem querying " + provider.getName(), e);
+                        } finally {
+                            mainHandler.removeCallbacks(timeout);
+                        }
+
+                        if (query.finish(index, articles)) {
+                            postDelivery(query, listener);
+                        }
+                    }
+                }));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * This method gives up on a provider that is still running once its
+     * timeout has passed, and delivers the results of the others.
+     *
+     * @param query The query.
+     * @param index The index of the provider.
+     * @param provider The provider.
+     * @param listener The listener of the query.
+     */
+    private void onTimeout(Query query, int index, NewsProvider provider, Listener listener) {
+        if (query.isCancelled() || !query.finish(index, null)) {
+            return;
+        }
+
+        synchronized (query) {
+            query.futures.get(index).cancel(true);
+        }
+        PipelineMetrics.getInstance().increment(PipelineMetrics.Counter.PROVIDER_TIMEOUTS);
+        Log.d(LOG_TAG, provider.getName() + " timed out after " + provider.getTimeoutMillis() + "ms");
+        deliver(query, listener);
+    }
+
+    /**
+     * This method delivers the merged results on the main thread.
+     *
+     * @param query The query.
+     * @param listener The listener of the query.
+     */
+    private void postDelivery(final Query query, final Listener listener) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                deliver(query, listener);
+            }
+        });
+    }
+
+    /**
+     * This method hands the latest merged results to the listener. As
+     * providers finish on different threads their deliveries can arrive
+     * out of order, so each delivery takes the latest results and the ones
+     * that have nothing new are skipped.
+     *
+     * @param query The query.
+     * @param listener The listener of the query.
+     */
+    private void deliver(Query query, Listener listener) {
+        List<NewsArticle> articles;
+        int completedRequests;
+        synchronized (query) {
+            articles = query.merged;
+            completedRequests = query.completedRequests;
+        }
+
+        if (!query.isCancelled() && completedRequests > query.deliveredRequests) {
+            query.deliveredRequests = completedRequests;
+            listener.onArticlesMerged(articles, completedRequests, query.totalRequests);
+        }
+    }
+}
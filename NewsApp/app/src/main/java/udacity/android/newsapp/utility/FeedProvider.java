@@ -0,0 +1,76 @@
+package udacity.android.newsapp.utility;
+
+import java.io.IOException;
+import java.util.List;
+
+import udacity.android.newsapp.core.ArticleParser;
+import udacity.android.newsapp.core.ArticleSearchIndex;
+import udacity.android.newsapp.core.FeedArticleParser;
+import udacity.android.newsapp.core.NewsProvider;
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class is the provider of an RSS or Atom feed. Feeds cannot be
+ * searched, so the whole feed is fetched through the QueryUtility, with
+ * its retries and metrics, and its items are filtered by the search text
+ * the same way the local search filters cached articles. Requests to the
+ * host of the feed have their own circuit breaker and timeouts, so a feed
+ * that is down does not slow down or shut off the Guardian.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class FeedProvider implements NewsProvider {
+
+    private static final long TIMEOUT_MILLIS = 8000;
+
+    // Parser shared by all feeds, it holds no state
+    private static final ArticleParser FEED_PARSER = new FeedArticleParser();
+
+    private final String url;
+
+    /**
+     * Constructor
+     *
+     * @param url The url of the feed.
+     */
+    public FeedProvider(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Returns the name of the provider.
+     *
+     * @return The url of the feed.
+     */
+    @Override
+    public String getName() {
+        return url;
+    }
+
+    /**
+     * Returns how long a query may take.
+     *
+     * @return The timeout in milliseconds.
+     */
+    @Override
+    public long getTimeoutMillis() {
+        return TIMEOUT_MILLIS;
+    }
+
+    /**
+     * This method fetches the feed and keeps the items matching the search text.
+     *
+     * @param query The search text.
+     * @return The matching articles.
+     * @throws IOException Thrown if the feed could not be fetched or parsed.
+     */
+    @Override
+    public List<NewsArticle> query(String query) throws IOException {
+        List<NewsArticle> articles = QueryUtility.fetchArticles(url, FEED_PARSER);
+        if (articles == null) {
+            throw new IOException("The feed could not be fetched: " + url);
+        }
+        return ArticleSearchIndex.filter(articles, query);
+    }
+}
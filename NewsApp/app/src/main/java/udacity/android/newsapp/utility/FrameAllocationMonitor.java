@@ -0,0 +1,136 @@
+package udacity.android.newsapp.utility;
+
+import android.os.Debug;
+import android.util.Log;
+import android.view.Choreographer;
+
+/**
+ * This class counts the objects allocated on the main thread for every frame
+ * while it is running, and separately the objects allocated while binding
+ * list rows. It is meant for debug builds, to check the binding path while
+ * flinging a long list; the summary is written to the log when it stops.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class FrameAllocationMonitor implements Choreographer.FrameCallback {
+
+    private static final String LOG_TAG = FrameAllocationMonitor.class.getSimpleName();
+
+    private static final FrameAllocationMonitor INSTANCE = new FrameAllocationMonitor();
+
+    // Only accessed on the main thread
+    private boolean running;
+    private int frameCount;
+    private int lastFrameAllocations;
+    private int maxFrameAllocations;
+    private long totalFrameAllocations;
+    private int bindCount;
+    private int bindStartAllocations;
+    private long totalBindAllocations;
+
+    /**
+     * Private constructor, use getInstance.
+     */
+    private FrameAllocationMonitor() {
+    }
+
+    /**
+     * Returns the monitor for the main thread.
+     *
+     * @return The FrameAllocationMonitor instance.
+     */
+    public static FrameAllocationMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This method starts counting allocations from the next frame.
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        frameCount = 0;
+        maxFrameAllocations = 0;
+        totalFrameAllocations = 0;
+        bindCount = 0;
+        totalBindAllocations = 0;
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        lastFrameAllocations = Debug.getThreadAllocCount();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * This method stops counting and logs the allocations per frame and per bind.
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        Debug.stopAllocCounting();
+
+        Log.d(LOG_TAG, "frames=" + frameCount
+                + " allocations/frame avg=" + (frameCount == 0 ? 0 : totalFrameAllocations / frameCount)
+                + " max=" + maxFrameAllocations
+                + " binds=" + bindCount
+                + " allocations/bind avg=" + (bindCount == 0 ? 0 : (double) totalBindAllocations / bindCount));
+    }
+
+    /**
+     * Returns whether the monitor is counting.
+     *
+     * @return true if the monitor is running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * This method is called at the start of binding a row.
+     */
+    public void onBindStart() {
+        if (running) {
+            bindStartAllocations = Debug.getThreadAllocCount();
+        }
+    }
+
+    /**
+     * This method is called at the end of binding a row.
+     */
+    public void onBindEnd() {
+        if (running) {
+            bindCount++;
+            totalBindAllocations += Debug.getThreadAllocCount() - bindStartAllocations;
+        }
+    }
+
+    /**
+     * This method records the allocations made since the previous frame.
+     *
+     * @param frameTimeNanos The time the frame started.
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+
+        int allocations = Debug.getThreadAllocCount();
+        int frameAllocations = allocations - lastFrameAllocations;
+        lastFrameAllocations = allocations;
+
+        frameCount++;
+        totalFrameAllocations += frameAllocations;
+        if (frameAllocations > maxFrameAllocations) {
+            maxFrameAllocations = frameAllocations;
+        }
+
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
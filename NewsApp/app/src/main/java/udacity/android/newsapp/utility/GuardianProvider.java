@@ -0,0 +1,74 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+
+import java.util.List;
+
+import udacity.android.newsapp.core.NewsProvider;
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class is the provider of the Guardian search results of one
+ * section, or of all of them. Queries go through the ArticleRepository,
+ * so they are answered from the cache when they can be and share a fetch
+ * with the loaders asking for the same url.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class GuardianProvider implements NewsProvider {
+
+    // The Guardian retries failed requests itself, so it is given longer
+    private static final long TIMEOUT_MILLIS = 15000;
+
+    private final Context context;
+    private final ArticleRepository repository;
+    private final String orderBy;
+    private final String section;
+
+    /**
+     * Constructor
+     *
+     * @param context Any context, only its application context is kept.
+     * @param orderBy The order of the results.
+     * @param section The section to search in, or null to search in all of them.
+     */
+    public GuardianProvider(Context context, String orderBy, String section) {
+        this.context = context.getApplicationContext();
+        this.repository = ArticleRepository.getInstance(context);
+        this.orderBy = orderBy;
+        this.section = section;
+    }
+
+    /**
+     * Returns the name of the provider.
+     *
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return section != null ? "Guardian " + section : "Guardian";
+    }
+
+    /**
+     * Returns how long a query may take.
+     *
+     * @return The timeout in milliseconds.
+     */
+    @Override
+    public long getTimeoutMillis() {
+        return TIMEOUT_MILLIS;
+    }
+
+    /**
+     * This method searches the section for the first page of results.
+     *
+     * @param query The search text.
+     * @return The matching articles, empty if the request failed.
+     */
+    @Override
+    public List<NewsArticle> query(String query) {
+        return repository.load(QueryUrlBuilder.buildQueryUrl(context, query, orderBy, section,
+                1, QueryUrlBuilder.PAGE_SIZE));
+    }
+}
@@ -0,0 +1,162 @@
+package udacity.android.newsapp.utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class represents the response to a request made by an HttpTransport.
+ * The body is already decompressed. A transport can also count the bytes
+ * of the body as they come off the connection, before decompression, and
+ * the time spent waiting for them. Closing the response reads whatever is
+ * left of the body so the connection can be reused for the next request.
+ *
+ * @author Joseph Stewart
+ * @version 1.2
+ */
+public class HttpResponse {
+
+    // Larger leftovers are not worth reading just to keep the connection
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private final int responseCode;
+    private final InputStream body;
+    private final String etag;
+    private final String lastModified;
+    private final String retryAfter;
+
+    // Counts the bytes read off the connection, null if the transport does not
+    private final MeteredInputStream wire;
+
+    /**
+     * Constructor
+     *
+     * @param responseCode The HTTP status code.
+     * @param body The decompressed body or null if there is none.
+     * @param etag The ETag header or null.
+     * @param lastModified The Last-Modified header or null.
+     */
+    public HttpResponse(int responseCode, InputStream body, String etag, String lastModified) {
+        this(responseCode, body, etag, lastModified, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param responseCode The HTTP status code.
+     * @param body The decompressed body or null if there is none.
+     * @param etag The ETag header or null.
+     * @param lastModified The Last-Modified header or null.
+     * @param retryAfter The Retry-After header or null.
+     */
+    public HttpResponse(int responseCode, InputStream body, String etag, String lastModified,
+                        String retryAfter) {
+        this(responseCode, body, null, etag, lastModified, retryAfter);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param responseCode The HTTP status code.
+     * @param body The decompressed body or null if there is none.
+     * @param wire The stream the body is read from the connection through, or null.
+     * @param etag The ETag header or null.
+     * @param lastModified The Last-Modified header or null.
+     * @param retryAfter The Retry-After header or null.
+     */
+    HttpResponse(int responseCode, InputStream body, MeteredInputStream wire, String etag,
+                 String lastModified, String retryAfter) {
+        this.responseCode = responseCode;
+        this.body = body;
+        this.wire = wire;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns the HTTP status code.
+     *
+     * @return The response code.
+     */
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /**
+     * Returns the body of the response.
+     *
+     * @return The body or null if there is none.
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the number of bytes of the body read off the connection so
+     * far, which are the compressed bytes of a compressed body.
+     *
+     * @return The number of bytes, 0 if the transport does not count them.
+     */
+    public long getBytesRead() {
+        return wire != null ? wire.getBytesRead() : 0;
+    }
+
+    /**
+     * Returns the time spent waiting for the body to come off the
+     * connection so far, without the time spent decompressing it.
+     *
+     * @return The time in nanoseconds, 0 if the transport does not count it.
+     */
+    public long getReadNanos() {
+        return wire != null ? wire.getReadNanos() : 0;
+    }
+
+    /**
+     * Returns the ETag header of the response.
+     *
+     * @return The ETag or null.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Returns the Last-Modified header of the response.
+     *
+     * @return The Last-Modified date or null.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the Retry-After header of the response, sent with rate
+     * limited and unavailable responses.
+     *
+     * @return The number of seconds or the HTTP date to wait until, or null.
+     */
+    public String getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * This method reads the rest of the body and closes it.
+     *
+     * @throws IOException Thrown if there is a problem closing the body.
+     */
+    public void close() throws IOException {
+        if (body == null) {
+            return;
+        }
+        try {
+            byte[] buffer = new byte[4096];
+            int drained = 0;
+            int read;
+            while (drained < MAX_DRAIN_BYTES && (read = body.read(buffer)) != -1) {
+                drained += read;
+            }
+        } finally {
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package udacity.android.newsapp.utility;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * This interface represents the way HTTP requests are made to the Guardian
+ * API so the connection handling can be swapped out.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public interface HttpTransport {
+
+    /**
+     * This method makes a GET request to the passed in url. If validators
+     * of a cached response are passed the request is made conditional, so
+     * the server may answer 304 Not Modified without a body.
+     *
+     * @param url The url to which the request is made.
+     * @param etag The ETag of the cached response or null.
+     * @param lastModified The Last-Modified date of the cached response or null.
+     * @return The response, which must be closed by the caller.
+     * @throws IOException Thrown if there is an issue with the request.
+     */
+    HttpResponse get(URL url, String etag, String lastModified) throws IOException;
+}
@@ -0,0 +1,418 @@
+package udacity.android.newsapp.utility;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import udacity.android.newsapp.core.PipelineMetrics;
+
+/**
+ * This class loads the thumbnails of the list into ImageViews. Decoded
+ * bitmaps are kept in a memory cache sized from the memory class of the
+ * device, and the downloaded images in a bounded on-disk cache, both keyed
+ * by the image url. Images are downloaded and decoded on two background
+ * threads, newest request first, downsampled to the size of the view. A
+ * request is cancelled as soon as its row leaves the screen, which stops
+ * its download. Bitmaps dropped from the memory cache go to a BitmapPool
+ * to be decoded into again, but only once no view displays them; the views
+ * showing each bitmap are counted on the main thread for that.
+ *
+ * All methods that take a view must be called on the main thread.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class ImagePipeline implements ComponentCallbacks2 {
+
+    private static final String LOG_TAG = ImagePipeline.class.getSimpleName();
+
+    private static final String CACHE_DIRECTORY = "thumbnails";
+    private static final long DISK_CACHE_BYTES = 16 * 1024 * 1024;
+
+    // Thumbnails of an article do not change
+    private static final long ENTRY_TTL = TimeUnit.DAYS.toMillis(30);
+
+    // Share of the memory class given to the memory cache, and of that to the pool
+    private static final int MEMORY_CACHE_DIVISOR = 8;
+    private static final int POOL_DIVISOR = 4;
+
+    private static final int THREAD_COUNT = 2;
+
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 8000;
+
+    // Thumbnails are small, anything larger is not one
+    private static final int MAX_IMAGE_BYTES = 1024 * 1024;
+
+    private static ImagePipeline instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final PipelineMetrics metrics = PipelineMetrics.getInstance();
+    private final DiskLruStore diskStore;
+    private final BitmapPool bitmapPool;
+    private final LruCache<String, Bitmap> memoryCache;
+
+    // Number of views displaying each bitmap, main thread only. Weak so
+    // the bitmaps of views that are destroyed without being unbound are
+    // not kept; Bitmap does not override equals so they match by identity.
+    private final Map<Bitmap, Integer> displayCounts = new WeakHashMap<>();
+
+    // Bitmaps dropped from the memory cache while they were displayed
+    private final Set<Bitmap> evictedWhileDisplayed =
+            Collections.newSetFromMap(new WeakHashMap<Bitmap, Boolean>());
+
+    // The most recent request is run first, it is the one closest to the screen
+    private final ExecutorService executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingDeque<Runnable>() {
+        @Override
+        public boolean offer(Runnable runnable) {
+            return offerFirst(runnable);
+        }
+    }, new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "ImagePipeline");
+        }
+    });
+
+    /**
+     * This class is a request to display an image in a view. It is kept
+     * as the tag of the view for as long as the view is bound to it.
+     */
+    private final class Request implements Runnable {
+        final ImageView view;
+        final String url;
+        final int width;
+        final int height;
+        Future<?> future;
+        Bitmap bitmap;
+
+        Request(ImageView view, String url) {
+            this.view = view;
+            this.url = url;
+            ViewGroup.LayoutParams params = view.getLayoutParams();
+            this.width = params != null ? params.width : 0;
+            this.height = params != null ? params.height : 0;
+        }
+
+        @Override
+        public void run() {
+            final Bitmap loaded = loadBitmap(url, width, height);
+            if (loaded == null) {
+                return;
+            }
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliver(Request.this, loaded);
+                }
+            });
+        }
+    }
+
+    /**
+     * Private constructor, use getInstance.
+     *
+     * @param context The application context.
+     */
+    private ImagePipeline(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int cacheBytes = activityManager.getMemoryClass() * 1024 * 1024 / MEMORY_CACHE_DIVISOR;
+
+        bitmapPool = new BitmapPool(cacheBytes / POOL_DIVISOR);
+        diskStore = new DiskLruStore(new File(context.getCacheDir(), CACHE_DIRECTORY), DISK_CACHE_BYTES);
+        memoryCache = new LruCache<String, Bitmap>(cacheBytes) {
+            @Override
+            protected int sizeOf(String url, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String url, Bitmap oldBitmap, Bitmap newBitmap) {
+                if (displayCounts.containsKey(oldBitmap)) {
+                    evictedWhileDisplayed.add(oldBitmap);
+                } else {
+                    bitmapPool.put(oldBitmap);
+                }
+            }
+        };
+
+        context.registerComponentCallbacks(this);
+    }
+
+    /**
+     * Returns the pipeline shared by the whole process.
+     *
+     * @param context Any context, only its application context is kept.
+     * @return The ImagePipeline instance.
+     */
+    public static synchronized ImagePipeline getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImagePipeline(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * This method displays an image in a view, at once if it is in memory
+     * and otherwise once it has been loaded. Whatever the view was showing
+     * or waiting for before is dropped.
+     *
+     * @param url The url of the image, or null to clear the view.
+     * @param view The view, sized in the layout.
+     */
+    public void load(String url, ImageView view) {
+        Request current = (Request) view.getTag();
+        if (current != null && url != null && url.equals(current.url)) {
+            return;
+        }
+
+        cancel(view);
+        if (url == null) {
+            return;
+        }
+
+        Request request = new Request(view, url);
+        view.setTag(request);
+
+        Bitmap bitmap = memoryCache.get(url);
+        if (bitmap != null) {
+            metrics.increment(PipelineMetrics.Counter.IMAGE_MEMORY_HITS);
+            display(request, bitmap);
+        } else {
+            request.future = executor.submit(request);
+        }
+    }
+
+    /**
+     * This method cancels the request of a view and clears it, so the
+     * bitmap it displayed can be reused.
+     *
+     * @param view The view.
+     */
+    public void cancel(ImageView view) {
+        Request request = (Request) view.getTag();
+        if (request == null) {
+            return;
+        }
+
+        view.setTag(null);
+        if (request.future != null) {
+            request.future.cancel(true);
+        }
+        view.setImageDrawable(null);
+        if (request.bitmap != null) {
+            release(request.bitmap);
+        }
+    }
+
+    /**
+     * This method caches a loaded bitmap and displays it if its view is
+     * still waiting for it.
+     *
+     * @param request The request.
+     * @param bitmap The loaded bitmap.
+     */
+    private void deliver(Request request, Bitmap bitmap) {
+        Bitmap cached = memoryCache.get(request.url);
+        if (cached == null) {
+            memoryCache.put(request.url, bitmap);
+            cached = bitmap;
+        } else {
+            // Another view loaded the same image meanwhile
+            bitmapPool.put(bitmap);
+        }
+
+        if (request.view.getTag() == request) {
+            display(request, cached);
+        }
+    }
+
+    /**
+     * This method shows a bitmap in the view of a request and counts it as displayed.
+     *
+     * @param request The request.
+     * @param bitmap The bitmap.
+     */
+    private void display(Request request, Bitmap bitmap) {
+        Integer count = displayCounts.get(bitmap);
+        displayCounts.put(bitmap, count == null ? 1 : count + 1);
+        request.bitmap = bitmap;
+        request.view.setImageBitmap(bitmap);
+    }
+
+    /**
+     * This method counts a bitmap as no longer displayed by a view, and
+     * pools it if it was dropped from the memory cache and no view is left
+     * displaying it.
+     *
+     * @param bitmap The bitmap.
+     */
+    private void release(Bitmap bitmap) {
+        Integer count = displayCounts.get(bitmap);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            displayCounts.put(bitmap, count - 1);
+            return;
+        }
+
+        displayCounts.remove(bitmap);
+        if (evictedWhileDisplayed.remove(bitmap)) {
+            bitmapPool.put(bitmap);
+        }
+    }
+
+    /**
+     * This method reads an image from the disk cache, or downloads and
+     * caches it, and decodes it. It runs on a background thread.
+     *
+     * @param url The url of the image.
+     * @param width The width of the view in pixels.
+     * @param height The height of the view in pixels.
+     * @return The bitmap, or null if it could not be loaded or the request was cancelled.
+     */
+    private Bitmap loadBitmap(String url, int width, int height) {
+        byte[] data;
+        DiskLruStore.Entry entry = diskStore.get(url);
+        if (entry != null) {
+            metrics.increment(PipelineMetrics.Counter.IMAGE_DISK_HITS);
+            data = entry.getData();
+        } else {
+            try {
+                data = download(url);
+            } catch (IOException e) {
+                if (!Thread.currentThread().isInterrupted()) {
+                    Log.e(LOG_TAG, "Problem downloading the image " + url, e);
+                }
+                return null;
+            }
+            if (data == null) {
+                return null;
+            }
+            metrics.increment(PipelineMetrics.Counter.IMAGE_DOWNLOADS);
+            diskStore.put(url, data, ENTRY_TTL);
+        }
+
+        // The image stays cached on disk for when the row comes back
+        if (Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+
+        long start = PipelineMetrics.now();
+        Bitmap bitmap = BitmapDecoder.decode(data, width, height, bitmapPool);
+        metrics.end(PipelineMetrics.Stage.IMAGE_DECODE, start);
+        return bitmap;
+    }
+
+    /**
+     * This method downloads an image. Reading stops as soon as the request
+     * is cancelled.
+     *
+     * @param url The url of the image.
+     * @return The encoded image, or null if the server did not send one.
+     * @throws IOException Thrown if there is an issue with the request.
+     */
+    private static byte[] download(String url) throws IOException {
+        HttpURLConnection urlConnection = (HttpURLConnection) new URL(url).openConnection();
+        urlConnection.setConnectTimeout(CONNECT_TIMEOUT);
+        urlConnection.setReadTimeout(READ_TIMEOUT);
+
+        InputStream inputStream = null;
+        try {
+            if (urlConnection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                Log.e(LOG_TAG, "Error response code: " + urlConnection.getResponseCode());
+                return null;
+            }
+
+            int length = urlConnection.getContentLength();
+            if (length > MAX_IMAGE_BYTES) {
+                return null;
+            }
+
+            inputStream = new InterruptibleInputStream(urlConnection.getInputStream());
+            ByteArrayOutputStream output = new ByteArrayOutputStream(length > 0 ? length : 16 * 1024);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                if (output.size() + read > MAX_IMAGE_BYTES) {
+                    return null;
+                }
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        }
+    }
+
+    /**
+     * This method gives memory back when the system runs low: the memory
+     * cache is halved while the app is visible and emptied once it is not.
+     *
+     * @param level The trim level.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            memoryCache.evictAll();
+            bitmapPool.clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            memoryCache.trimToSize(memoryCache.maxSize() / 2);
+            bitmapPool.clear();
+        }
+    }
+
+    /**
+     * This method empties the memory cache and the pool.
+     */
+    @Override
+    public void onLowMemory() {
+        memoryCache.evictAll();
+        bitmapPool.clear();
+    }
+
+    /**
+     * Not used, thumbnails do not depend on the configuration.
+     *
+     * @param newConfig The new configuration.
+     */
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+}
@@ -0,0 +1,56 @@
+package udacity.android.newsapp.utility;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * This class stops reading a stream as soon as the reading thread is
+ * interrupted, so a cancelled request does not keep downloading and
+ * parsing a response nobody is waiting for.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+final class InterruptibleInputStream extends FilterInputStream {
+
+    /**
+     * Constructor
+     *
+     * @param in The stream to read from.
+     */
+    InterruptibleInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkInterrupted();
+        return super.read();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        checkInterrupted();
+        return super.read(buffer, offset, count);
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        checkInterrupted();
+        return super.skip(count);
+    }
+
+    /**
+     * This method throws if the current thread has been interrupted,
+     * leaving its interrupted status set.
+     *
+     * @throws InterruptedIOException Thrown if the thread was interrupted.
+     */
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Request cancelled");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class searches the locally cached articles on a background thread,
+ * so results can be shown without the network. The results are kept and
+ * delivered again when the loader is restarted.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public class LocalSearchLoader extends ExecutorLoader<List<NewsArticle>> {
+
+    // The search text and the maximum number of results
+    private final String query;
+    private final int limit;
+
+    /**
+     * Constructor
+     *
+     * @param context The context of the Activity calling constructor.
+     * @param query The search text.
+     * @param limit The maximum number of results.
+     */
+    public LocalSearchLoader(Context context, String query, int limit) {
+        super(context);
+        this.query = query;
+        this.limit = limit;
+    }
+
+    /**
+     * This method searches the index of the cached articles.
+     *
+     * @return The matching articles, best match first.
+     */
+    @Override
+    public List<NewsArticle> loadInBackground() {
+        return ArticleRepository.getInstance(getContext()).searchLocal(query, limit);
+    }
+}
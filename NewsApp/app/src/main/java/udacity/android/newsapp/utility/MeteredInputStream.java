@@ -0,0 +1,87 @@
+package udacity.android.newsapp.utility;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class counts the bytes read from a stream and the time spent
+ * waiting for them. The parsers read the response body while they parse
+ * it, so this is how the time reading the body is told apart from the
+ * time parsing it.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+final class MeteredInputStream extends FilterInputStream {
+
+    private long bytesRead;
+    private long readNanos;
+
+    /**
+     * Constructor
+     *
+     * @param in The stream to read from.
+     */
+    MeteredInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        try {
+            int value = super.read();
+            if (value >= 0) {
+                bytesRead++;
+            }
+            return value;
+        } finally {
+            readNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        long start = System.nanoTime();
+        try {
+            int read = super.read(buffer, offset, count);
+            if (read > 0) {
+                bytesRead += read;
+            }
+            return read;
+        } finally {
+            readNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long start = System.nanoTime();
+        try {
+            long skipped = super.skip(count);
+            bytesRead += skipped;
+            return skipped;
+        } finally {
+            readNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Returns the number of bytes read so far.
+     *
+     * @return The number of bytes.
+     */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Returns the time spent reading so far.
+     *
+     * @return The time in nanoseconds.
+     */
+    long getReadNanos() {
+        return readNanos;
+    }
+}
@@ -1,25 +1,72 @@
 package udacity.android.newsapp.utility;
 
-import android.content.AsyncTaskLoader;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import java.util.List;
 import udacity.android.newsapp.model.NewsArticle;
 
 /**
- * This class provides for the network request over the internet
- * being performed on a background thread to avoid performance
- * issues. It receives a string query url which is passed to
- * the QueryUtility class for action.
+ * This class loads the results of a query url on a background thread
+ * through the ArticleRepository.
  *
- * @author Joseph Stewart
- * @version 1.2
+ * Results held in memory are delivered at once and results on disk from
+ * the background thread. If they are stale, a second load refreshes them
+ * from the network. Loaders of the same url share one fetch, which is only
+ * abandoned once all of them have been cancelled. Until the first results
+ * are delivered, the articles parsed so far are handed to the progress
+ * listener on the main thread; onLoadFinished is only called with the
+ * complete results, or null if the request failed. When the loader is
+ * started again its results are delivered again rather than loaded anew.
  *
+ * @author Joseph Stewart
+ * @version 1.9
  */
-public class NewsLoader extends AsyncTaskLoader<List<NewsArticle>> {
+public class NewsLoader extends ExecutorLoader<List<NewsArticle>> {
 
     // The query url
     private String url;
 
+    // Whether the next load should skip the cache and go to the network
+    private volatile boolean refreshing;
+
+    // Whether cached results were delivered that still need a refresh
+    private volatile boolean refreshPending;
+
+    // Whether results were delivered, after which progress is no longer shown
+    private volatile boolean delivered;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile OnProgressListener progressListener;
+
+    /**
+     * This interface receives the articles of a load while they are parsed.
+     */
+    public interface OnProgressListener {
+
+        /**
+         * This method is called on the main thread with the articles
+         * parsed so far, before the load has finished.
+         *
+         * @param loader The loader.
+         * @param articles The articles parsed so far.
+         */
+        void onLoadProgress(NewsLoader loader, List<NewsArticle> articles);
+    }
+
+    // Hands the articles parsed so far over to the main thread
+    private final ArticleRepository.ProgressListener repositoryListener = new ArticleRepository.ProgressListener() {
+        @Override
+        public void onProgress(final List<NewsArticle> articles) {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliverProgress(articles);
+                }
+            });
+        }
+    };
+
     /**
      * Constructor
      *
@@ -31,23 +78,113 @@ public class NewsLoader extends AsyncTaskLoader<List<NewsArticle>> {
         this.url = url;
     }
 
+    /**
+     * This method sets the listener for the articles parsed so far. It
+     * must be set again by an Activity recreated after a configuration
+     * change, which reconnects to the same loader.
+     *
+     * @param listener The listener, or null.
+     */
+    public void setOnProgressListener(OnProgressListener listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * This method delivers the results it already has when it is started
+     * again. The first time, results held in the memory cache are delivered
+     * straight away and a background load is only started if there are
+     * none or they are stale.
+     */
     @Override
     protected void onStartLoading() {
-        forceLoad();
+        if (!hasResult() && url != null) {
+            ArticleRepository.CachedArticles cached =
+                    ArticleRepository.getInstance(getContext()).getFromMemory(url);
+            if (cached != null) {
+                refreshPending = cached.isStale();
+                deliverResult(cached.getArticles());
+                return;
+            }
+        }
+        super.onStartLoading();
     }
 
     /**
-     * This method calls the QueryUtility.extractArticles method
-     * on a background thread.
+     * This method returns the cached results for the url if there are any,
+     * otherwise it fetches them on a background thread.
      *
-     * @return The populated list of NewsArticles.
+     * @return The populated list of NewsArticles, or null if the request failed or was cancelled.
      */
     @Override
     public List<NewsArticle> loadInBackground() {
         if(url == null) {
             return null;
         }
-        return QueryUtility.extractArticles(getContext(), url);
+
+        ArticleRepository repository = ArticleRepository.getInstance(getContext());
+
+        if (!refreshing) {
+            ArticleRepository.CachedArticles cached = repository.getCached(url);
+            if (cached != null) {
+                refreshPending = cached.isStale();
+                return cached.getArticles();
+            }
+        }
+
+        refreshing = false;
+
+        // A refresh replaces delivered results at once rather than in parts
+        boolean showProgress = !delivered && progressListener != null;
+        if (showProgress) {
+            repository.addProgressListener(url, repositoryListener);
+        }
+
+        try {
+            // Only this load gives up the fetch when it is cancelled
+            return awaitFetch(repository.fetchShared(url));
+        } finally {
+            if (showProgress) {
+                repository.removeProgressListener(url, repositoryListener);
+            }
+        }
     }
 
+    /**
+     * This method delivers the results and starts the background refresh
+     * if stale cached results were just delivered to a started loader.
+     *
+     * @param articles The list of NewsArticles.
+     */
+    @Override
+    public void deliverResult(List<NewsArticle> articles) {
+        delivered = true;
+        super.deliverResult(articles);
+
+        if (refreshPending && isStarted()) {
+            refreshPending = false;
+            refreshing = true;
+            forceLoad();
+        }
+    }
+
+    /**
+     * This method hands the articles parsed so far to the listener, unless
+     * the results have been delivered meanwhile or the loader was stopped.
+     *
+     * @param articles The articles parsed so far.
+     */
+    private void deliverProgress(List<NewsArticle> articles) {
+        if (!delivered && isStarted() && progressListener != null) {
+            progressListener.onLoadProgress(this, articles);
+        }
+    }
+
+    /**
+     * This method drops the progress listener when the loader is destroyed.
+     */
+    @Override
+    protected void onReset() {
+        super.onReset();
+        progressListener = null;
+    }
 }
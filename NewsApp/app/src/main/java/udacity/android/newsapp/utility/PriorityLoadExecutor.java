@@ -0,0 +1,116 @@
+package udacity.android.newsapp.utility;
+
+import android.os.Process;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class runs the loads of the ExecutorLoaders on a bounded pool of
+ * background threads. Waiting loads are taken by priority, so what is on
+ * screen is loaded before what is prefetched, and in the order they were
+ * submitted within a priority. A load that has not started yet can be
+ * cancelled without ever taking a thread.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class PriorityLoadExecutor {
+
+    // Priorities, lower values are loaded first
+    public static final int PRIORITY_VISIBLE = 0;
+    public static final int PRIORITY_PREFETCH = 1;
+    public static final int PRIORITY_BACKGROUND = 2;
+
+    // One thread is left to the main thread, and loads mostly wait on the network
+    private static final int DEFAULT_POOL_SIZE =
+            Math.max(2, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+
+    // Idle threads are let go after this many seconds
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final PriorityLoadExecutor INSTANCE = new PriorityLoadExecutor(DEFAULT_POOL_SIZE);
+
+    private final ThreadPoolExecutor executor;
+
+    // Orders loads of the same priority by submission
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * This class is a load waiting in the queue, ordered by its priority
+     * and then by when it was submitted.
+     */
+    private static final class Task extends FutureTask<Void> implements Comparable<Task> {
+
+        private final int priority;
+        private final long sequence;
+
+        Task(Runnable runnable, int priority, long sequence) {
+            super(runnable, null);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param poolSize The number of loads run at the same time.
+     */
+    public PriorityLoadExecutor(int poolSize) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        Thread thread = new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                runnable.run();
+                            }
+                        }, "Loader-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the executor shared by all loaders.
+     *
+     * @return The PriorityLoadExecutor instance.
+     */
+    public static PriorityLoadExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This method queues a load.
+     *
+     * @param runnable The load.
+     * @param priority The priority, one of the PRIORITY constants.
+     * @return The Future of the load, which can be cancelled while it waits.
+     */
+    public Future<?> submit(Runnable runnable, int priority) {
+        Task task = new Task(runnable, priority, sequence.getAndIncrement());
+        executor.execute(task);
+        return task;
+    }
+}
@@ -0,0 +1,63 @@
+package udacity.android.newsapp.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class provides the normalized form of a query url that is used as
+ * the key for cached results. Two urls that request the same results map
+ * to the same key regardless of the order of their query parameters.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class QueryKey {
+
+    // Parameters that do not change the results of a query
+    private static final String API_KEY_PARAMETER = "api-key=";
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private QueryKey() {
+        throw new AssertionError("The QueryKey cannot be instantiated.");
+    }
+
+    /**
+     * This method normalizes a query url by dropping its fragment and
+     * api key and sorting the remaining query parameters.
+     *
+     * @param url The query url.
+     * @return The normalized url.
+     */
+    public static String normalize(String url) {
+        int fragment = url.indexOf('#');
+        if (fragment >= 0) {
+            url = url.substring(0, fragment);
+        }
+
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return url;
+        }
+
+        List<String> parameters = new ArrayList<>();
+        for (String parameter : url.substring(query + 1).split("&")) {
+            if (!parameter.isEmpty() && !parameter.startsWith(API_KEY_PARAMETER)) {
+                parameters.add(parameter);
+            }
+        }
+        Collections.sort(parameters);
+
+        StringBuilder key = new StringBuilder(url.length());
+        key.append(url, 0, query + 1);
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                key.append('&');
+            }
+            key.append(parameters.get(i));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,190 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.net.Uri;
+import android.preference.PreferenceManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import udacity.android.newsapp.R;
+import udacity.android.newsapp.core.PipelineMetrics;
+
+/**
+ * This class builds the Guardian query urls for a search. Both the
+ * NewsActivity and the background sync use it, so results synced ahead of
+ * time are stored under exactly the urls the list later asks for. It also
+ * builds the urls of the bodies of single articles. Search results ask
+ * for the thumbnail of each article shown in the list. The urls of the
+ * other feeds searched along with the Guardian are read from the settings.
+ *
+ * @author Joseph Stewart
+ * @version 1.5
+ */
+public final class QueryUrlBuilder {
+
+    private static final String URL = "http://content.guardianapis.com/search?";
+    private static final String CONTENT_URL = "http://content.guardianapis.com/";
+
+    // The first page is small so it arrives quickly, the following pages are larger
+    public static final int FIRST_PAGE_SIZE = 10;
+    public static final int PAGE_SIZE = 30;
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private QueryUrlBuilder() {
+        throw new AssertionError("The QueryUrlBuilder cannot be instantiated.");
+    }
+
+    /**
+     * Returns the order selected in the settings.
+     *
+     * @param context The context to provide access to the preferences.
+     * @return The order-by value.
+     */
+    public static String getOrderBy(Context context) {
+        return PreferenceManager.getDefaultSharedPreferences(context).getString(
+                context.getString(R.string.settings_order_by_key),
+                context.getString(R.string.settings_order_by_default));
+    }
+
+    /**
+     * Returns the sections selected in the settings.
+     *
+     * @param context The context to provide access to the preferences.
+     * @return The selected sections, empty to search in all of them.
+     */
+    public static Set<String> getSections(Context context) {
+        return PreferenceManager.getDefaultSharedPreferences(context).getStringSet(
+                context.getString(R.string.settings_sections_key), Collections.<String>emptySet());
+    }
+
+    /**
+     * Returns the urls of the other feeds entered in the settings.
+     *
+     * @param context The context to provide access to the preferences.
+     * @return The feed urls, empty if there are none.
+     */
+    public static List<String> getFeedUrls(Context context) {
+        String feeds = PreferenceManager.getDefaultSharedPreferences(context).getString(
+                context.getString(R.string.settings_feeds_key), "");
+
+        List<String> urls = new ArrayList<>();
+        for (String url : feeds.split("\\s+")) {
+            if (url.startsWith("http://") || url.startsWith("https://")) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * This method builds the query url for a page of results.
+     *
+     * @param context The context to provide access to string resources.
+     * @param searchText The search text.
+     * @param orderBy The order of the results.
+     * @param section The section to search in, or null to search in all of them.
+     * @param page The page number.
+     * @param pageSize The number of results on the page.
+     * @return The query url.
+     */
+    public static String buildQueryUrl(Context context, String searchText, String orderBy,
+                                       String section, int page, int pageSize) {
+        long start = PipelineMetrics.now();
+        Uri baseUri = Uri.parse(URL);
+        Uri.Builder uriBuilder = baseUri.buildUpon();
+
+        uriBuilder.appendQueryParameter(context.getString(R.string.query_key), searchText);
+        uriBuilder.appendQueryParameter(context.getString(R.string.format_label), context.getString(R.string.format_value));
+        if (section != null) {
+            uriBuilder.appendQueryParameter(context.getString(R.string.section_query_key), section);
+        }
+        uriBuilder.appendQueryParameter(context.getString(R.string.page_key), String.valueOf(page));
+        uriBuilder.appendQueryParameter(context.getString(R.string.page_size_key), String.valueOf(pageSize));
+        uriBuilder.appendQueryParameter(context.getString(R.string.settings_order_by_key), orderBy);
+        uriBuilder.appendQueryParameter(context.getString(R.string.show_fields_key), context.getString(R.string.thumbnail_field_value));
+        uriBuilder.appendQueryParameter(context.getString(R.string.api_key), context.getString(R.string.api_value));
+
+        String url = uriBuilder.toString();
+        PipelineMetrics.getInstance().end(PipelineMetrics.Stage.URL_BUILD, start);
+        return url;
+    }
+
+    /**
+     * This method builds the url of the body of an article. The Guardian
+     * content id of an article is the path of its web url.
+     *
+     * @param context The context to provide access to string resources.
+     * @param webUrl The web url of the article.
+     * @return The url of the article with its body, or null if the web url has no path.
+     */
+    public static String buildArticleBodyUrl(Context context, String webUrl) {
+        String path = Uri.parse(webUrl).getEncodedPath();
+        if (path == null || path.length() <= 1) {
+            return null;
+        }
+
+        Uri.Builder uriBuilder = Uri.parse(CONTENT_URL).buildUpon();
+        uriBuilder.appendEncodedPath(path.substring(1));
+        uriBuilder.appendQueryParameter(context.getString(R.string.show_fields_key), context.getString(R.string.body_field_value));
+        uriBuilder.appendQueryParameter(context.getString(R.string.format_label), context.getString(R.string.format_value));
+        uriBuilder.appendQueryParameter(context.getString(R.string.api_key), context.getString(R.string.api_value));
+        return uriBuilder.toString();
+    }
+
+    /**
+     * This method builds the url of the results shown while the search
+     * text is typed: the first page across all the selected sections.
+     *
+     * @param context The context to provide access to the preferences.
+     * @param searchText The search text.
+     * @return The query url.
+     */
+    public static String buildTypedSearchUrl(Context context, String searchText) {
+        // Sections separated by '|' match any of them
+        StringBuilder sections = new StringBuilder();
+        for (String section : new TreeSet<>(getSections(context))) {
+            if (sections.length() > 0) {
+                sections.append('|');
+            }
+            sections.append(section);
+        }
+        return buildQueryUrl(context, searchText, getOrderBy(context),
+                sections.length() == 0 ? null : sections.toString(), 1, FIRST_PAGE_SIZE);
+    }
+
+    /**
+     * This method returns the urls the NewsActivity loads first for a
+     * search with the current settings: one per section when several
+     * sections are selected, otherwise the first two pages.
+     *
+     * @param context The context to provide access to the preferences.
+     * @param searchText The search text.
+     * @param orderBy The order of the results.
+     * @return The query urls.
+     */
+    public static List<String> buildFirstUrls(Context context, String searchText, String orderBy) {
+        Set<String> sections = getSections(context);
+        List<String> urls = new ArrayList<>();
+
+        if (sections.size() > 1) {
+            for (String section : sections) {
+                urls.add(buildQueryUrl(context, searchText, orderBy, section, 1, PAGE_SIZE));
+            }
+            return urls;
+        }
+
+        String section = sections.isEmpty() ? null : sections.iterator().next();
+        ArticlePager pager = new ArticlePager(FIRST_PAGE_SIZE, PAGE_SIZE);
+        for (int i = 0; i < 2; i++) {
+            urls.add(buildQueryUrl(context, searchText, orderBy, section,
+                    pager.getPageNumber(i), pager.getPageSize(i)));
+        }
+        return urls;
+    }
+}
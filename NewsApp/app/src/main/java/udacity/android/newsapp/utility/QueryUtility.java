@@ -1,38 +1,54 @@
 package udacity.android.newsapp.utility;
 
-import android.content.Context;
 import android.util.Log;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import udacity.android.newsapp.R;
+import udacity.android.newsapp.core.ArticleBodyParser;
+import udacity.android.newsapp.core.ArticleParser;
+import udacity.android.newsapp.core.PipelineMetrics;
+import udacity.android.newsapp.core.StreamingArticleParser;
 import udacity.android.newsapp.model.NewsArticle;
 
 /**
- * This class provides utility methods to make network requests over the internet
- * to the Guardian API based on the passed in query url string. The query results
- * are added to a list and returned.
+ * This class provides utility methods to make network requests to the
+ * Guardian API and other feeds, and to parse their responses with the pure
+ * Java parsers of the core module. A parser listener can be passed to
+ * receive the articles while the response is still being read, and the
+ * bodies of single articles are fetched the same way.
+ *
+ * Requests go through a RetryingTransport of their own host, so a failing
+ * source does not trip the circuit breaker of the others, and a failed
+ * request returns null so the caller can serve cached results instead. The
+ * time spent reading and parsing each response, the bytes read and the
+ * failed requests are recorded in the PipelineMetrics.
  *
  * @author Joseph Stewart
- * @version 2.2
+ * @version 3.3
  */
 public final class QueryUtility {
 
     private static final String LOG_TAG = QueryUtility.class.getSimpleName();
 
+    // Parser shared by all requests, it holds no state
+    static final ArticleParser ARTICLE_PARSER = new StreamingArticleParser();
+    private static final ArticleBodyParser ARTICLE_BODY_PARSER = new ArticleBodyParser();
+
+    // The transport requests are made with when one is set for every host
+    private static HttpTransport transport;
+
+    // One transport per host, so a failing feed does not hold up other sources
+    private static final Map<String, HttpTransport> HOST_TRANSPORTS = new HashMap<>();
+
     /**
      * Private constructor that throws AssertionError to prevent instantiation.
      */
@@ -41,74 +57,156 @@ public final class QueryUtility {
     }
 
     /**
-     * This method extracts a List of NewsArticles from the passed in query URL.
+     * This method extracts a List of NewsArticles from the passed in query URL
+     * using the StreamingArticleParser.
      *
-     * @param context The requesting context to provide access to string resources.
      * @param urlString the query URL.
      * @return The populated List.
      */
-    public static List<NewsArticle> extractArticles(Context context, String urlString) {
+    public static List<NewsArticle> extractArticles(String urlString) {
+        return extractArticles(urlString, ARTICLE_PARSER);
+    }
 
-        // Create a list to hold NewsArticles
-        List<NewsArticle> articles = new ArrayList<>();
+    /**
+     * This method extracts a List of NewsArticles from the passed in query URL
+     * using the passed in parser.
+     *
+     * @param urlString the query URL.
+     * @param parser The parser that reads the response.
+     * @return The populated List, empty if the request or parsing failed.
+     */
+    public static List<NewsArticle> extractArticles(String urlString, ArticleParser parser) {
+        List<NewsArticle> articles = fetchArticles(urlString, parser);
 
-        try {
-            // Create URL object
-            URL urlQuery = createUrl(urlString);
-
-            // Perform HTTP request to the URL and receive a JSON response back
-            String jsonResponse = null;
-            try {
-                jsonResponse = makeHttpRequest(urlQuery);
-            } catch (IOException e) {
-                Log.e(LOG_TAG, "Error closing input stream", e);
-            }
+        // Return the list of articles
+        return articles != null ? articles : new ArrayList<NewsArticle>();
+    }
 
-            // Create a JSONObject from the received string response
-            JSONObject response = new JSONObject(jsonResponse);
+    /**
+     * This method fetches the List of NewsArticles from the passed in query URL.
+     * Unlike extractArticles it tells a failed request apart from one that had
+     * no results, so callers can fall back to cached results.
+     *
+     * @param urlString the query URL.
+     * @param parser The parser that reads the response.
+     * @return The populated List, or null if the request or parsing failed.
+     */
+    public static List<NewsArticle> fetchArticles(String urlString, ArticleParser parser) {
+        ArticleRepository.CachedArticles fetched = fetchArticles(urlString, parser, null);
+        return fetched != null ? fetched.getArticles() : null;
+    }
 
-            // Extract the data from the response
-            JSONObject responseObject = response.getJSONObject(context.getString(R.string.response));
-            JSONArray resultsArray = responseObject.getJSONArray(context.getString(R.string.results));
+    /**
+     * This method fetches the results of the passed in query URL. If cached
+     * results are passed the request is made conditional on them, and when
+     * the server answers 304 Not Modified they are returned revalidated.
+     *
+     * @param urlString the query URL.
+     * @param parser The parser that reads the response.
+     * @param cached The cached results for the URL or null.
+     * @return The fetched results, or null if the request or parsing failed.
+     */
+    public static ArticleRepository.CachedArticles fetchArticles(
+            String urlString, ArticleParser parser, ArticleRepository.CachedArticles cached) {
+        return fetchArticles(urlString, parser, cached, null);
+    }
 
-            // Traverse the results of the JSON array
-            for(int i = 0; i < resultsArray.length(); i++) {
-                // Get the properties object from the earthquake object
-                JSONObject articleObject = resultsArray.getJSONObject(i);
+    /**
+     * This method fetches the results of the passed in query URL, handing
+     * each article to the listener as soon as it has been parsed. The
+     * listener is only called when the server sends new results.
+     *
+     * @param urlString the query URL.
+     * @param parser The parser that reads the response.
+     * @param cached The cached results for the URL or null.
+     * @param listener The listener, or null.
+     * @return The fetched results, or null if the request or parsing failed.
+     */
+    public static ArticleRepository.CachedArticles fetchArticles(String urlString, ArticleParser parser,
+            ArticleRepository.CachedArticles cached, ArticleParser.Listener listener) {
+        // Create URL object
+        URL urlQuery = createUrl(urlString);
 
-                // The desired article attributes
-                String title = null;
-                String date = null;
-                String section = null;
-                String url = null;
+        // Perform HTTP request to the URL and parse the JSON response
+        return makeHttpRequest(urlQuery, parser, cached, listener);
+    }
 
-                // Ensure each attribute exists to avooid errors
-                if(articleObject.has(context.getString(R.string.web_title))) {
-                    title = articleObject.getString(context.getString(R.string.web_title));
-                }
+    /**
+     * This method fetches the body of a single article.
+     *
+     * @param urlString The url of the article with its body.
+     * @return The HTML body, or null if the request failed or the article has no body.
+     */
+    public static String fetchArticleBody(String urlString) {
+        URL url = createUrl(urlString);
 
-                if(articleObject.has(context.getString(R.string.date))) {
-                    date = articleObject.getString(context.getString(R.string.date));
-                }
+        // If the URL is null or the request was cancelled, then return early.
+        if (url == null || Thread.currentThread().isInterrupted()) {
+            return null;
+        }
 
-                if(articleObject.has(context.getString(R.string.section))) {
-                    section = articleObject.getString(context.getString(R.string.section));
-                }
+        PipelineMetrics metrics = PipelineMetrics.getInstance();
+        metrics.increment(PipelineMetrics.Counter.NETWORK_REQUESTS);
 
-                if(articleObject.has(context.getString(R.string.url))) {
-                    url = articleObject.getString(context.getString(R.string.url));
+        HttpResponse response = null;
+        try {
+            response = getTransport(url).get(url, null, null);
+            if (response.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                return ARTICLE_BODY_PARSER.parse(new InterruptibleInputStream(response.getBody()));
+            }
+            metrics.increment(PipelineMetrics.Counter.ERRORS);
+            Log.e(LOG_TAG, "Error response code: " + response.getResponseCode());
+        } catch (SocketTimeoutException e) {
+            metrics.increment(PipelineMetrics.Counter.ERRORS);
+            Log.e(LOG_TAG, "Request timed out: " + url, e);
+        } catch (InterruptedIOException e) {
+            Log.d(LOG_TAG, "Request cancelled: " + url);
+        } catch (CircuitOpenException e) {
+            Log.d(LOG_TAG, "Request skipped: " + e.getMessage());
+        } catch (IOException e) {
+            metrics.increment(PipelineMetrics.Counter.ERRORS);
+            Log.e(LOG_TAG, "Problem retrieving the article body.", e);
+        } finally {
+            if (response != null) {
+                try {
+                    response.close();
+                } catch (IOException e) {
+                    Log.e(LOG_TAG, "Error closing input stream", e);
                 }
-
-                // Construct and add a new NewsArticle object from the data
-                NewsArticle article = new NewsArticle(title, date, section, url);
-                articles.add(article);
             }
-        } catch (JSONException e) {
-            Log.e(LOG_TAG, "Problem parsing the JSON results", e);
         }
+        return null;
+    }
 
-        // Return the list of articles
-        return articles;
+    /**
+     * This method replaces the transports used to make requests to every host.
+     *
+     * @param httpTransport The new transport, or null to go back to one per host.
+     */
+    public static synchronized void setTransport(HttpTransport httpTransport) {
+        transport = httpTransport;
+    }
+
+    /**
+     * Returns the transport used to make requests to the host of a url.
+     * Each host has its own, created on first use, so the retries, circuit
+     * breaker and timeouts of a slow or failing host do not affect others.
+     *
+     * @param url The url a request is made to.
+     * @return The transport.
+     */
+    private static synchronized HttpTransport getTransport(URL url) {
+        if (transport != null) {
+            return transport;
+        }
+
+        String host = url.getHost();
+        HttpTransport hostTransport = HOST_TRANSPORTS.get(host);
+        if (hostTransport == null) {
+            hostTransport = new RetryingTransport(new UrlConnectionTransport());
+            HOST_TRANSPORTS.put(host, hostTransport);
+        }
+        return hostTransport;
     }
 
     /**
@@ -122,75 +220,101 @@ public final class QueryUtility {
         try {
             url = new URL(stringUrl);
         } catch (MalformedURLException e) {
+            PipelineMetrics.getInstance().increment(PipelineMetrics.Counter.ERRORS);
             Log.e(LOG_TAG, "Error creating URL ", e);
         }
         return url;
     }
 
     /**
-     * This method makes an http request using the passed in url.
+     * This method makes an http request using the passed in url and
+     * parses the response straight from the connection's input stream.
      *
      * @param url The url to which the request is made.
-     * @return The JSON response as a string.
-     * @throws IOException Thrown if there is an issue with the request.
+     * @param parser The parser that reads the response.
+     * @param cached The cached results for the url or null.
+     * @param listener The listener, or null.
+     * @return The fetched results, or null if the request failed.
      */
-    private static String makeHttpRequest(URL url) throws IOException {
-        String jsonResponse = "";
+    private static ArticleRepository.CachedArticles makeHttpRequest(URL url, ArticleParser parser,
+            ArticleRepository.CachedArticles cached, ArticleParser.Listener listener) {
+        ArticleRepository.CachedArticles fetched = null;
 
-        // If the URL is null, then return early.
-        if (url == null) {
-            return jsonResponse;
+        // If the URL is null or the request was cancelled, then return early.
+        if (url == null || Thread.currentThread().isInterrupted()) {
+            return null;
         }
 
-        HttpURLConnection urlConnection = null;
-        InputStream inputStream = null;
+        PipelineMetrics metrics = PipelineMetrics.getInstance();
+        metrics.increment(PipelineMetrics.Counter.NETWORK_REQUESTS);
+
+        HttpResponse response = null;
         try {
-            urlConnection = (HttpURLConnection) url.openConnection();
-            urlConnection.setReadTimeout(10000);
-            urlConnection.setConnectTimeout(15000);
-            urlConnection.setRequestMethod("GET");
-            urlConnection.connect();
-
-            // If the request was successful (response code 200),
-            // then read the input stream and parse the response.
-            if (urlConnection.getResponseCode() == 200) {
-                inputStream = urlConnection.getInputStream();
-                jsonResponse = readFromStream(inputStream);
+            response = getTransport(url).get(url,
+                    cached != null ? cached.getEtag() : null,
+                    cached != null ? cached.getLastModified() : null);
+            long now = System.currentTimeMillis();
+
+            // If the request was successful (response code 200), parse the response.
+            // If the cached results have not changed (response code 304), keep them.
+            if (response.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                fetched = new ArticleRepository.CachedArticles(
+                        parse(response, parser, listener), now, response.getEtag(), response.getLastModified());
+            } else if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                metrics.increment(PipelineMetrics.Counter.NOT_MODIFIED);
+                fetched = cached.revalidated(now, response.getEtag(), response.getLastModified());
             } else {
-                Log.e(LOG_TAG, "Error response code: " + urlConnection.getResponseCode());
+                metrics.increment(PipelineMetrics.Counter.ERRORS);
+                Log.e(LOG_TAG, "Error response code: " + response.getResponseCode());
             }
+        } catch (SocketTimeoutException e) {
+            metrics.increment(PipelineMetrics.Counter.ERRORS);
+            Log.e(LOG_TAG, "Request timed out: " + url, e);
+        } catch (InterruptedIOException e) {
+            Log.d(LOG_TAG, "Request cancelled: " + url);
+        } catch (CircuitOpenException e) {
+            Log.d(LOG_TAG, "Request skipped: " + e.getMessage());
         } catch (IOException e) {
-            Log.e(LOG_TAG, "Problem retrieving the JSON results.", e);
+            metrics.increment(PipelineMetrics.Counter.ERRORS);
+            Log.e(LOG_TAG, "Problem retrieving the results.", e);
         } finally {
-            if (urlConnection != null) {
-                urlConnection.disconnect();
-            }
-            if (inputStream != null) {
-                inputStream.close();
+            if (response != null) {
+                try {
+                    response.close();
+                } catch (IOException e) {
+                    Log.e(LOG_TAG, "Error closing input stream", e);
+                }
             }
         }
-        return jsonResponse;
+        return fetched;
     }
 
     /**
-     * This method reads and inputStream and converts it into a string.
+     * This method parses the body of a response, recording the time spent
+     * waiting for the body apart from the time spent decompressing and
+     * parsing it, and the bytes read off the connection.
      *
-     * @param inputStream The inputStream to be read.
-     * @return Returns the string representation of the inputStream.
-     * @throws IOException Thrown if there is a problem reading from the input stream.
+     * @param response The response.
+     * @param parser The parser that reads the response.
+     * @param listener The listener, or null.
+     * @return The parsed articles.
+     * @throws IOException Thrown if the body cannot be read or parsed.
      */
-    private static String readFromStream(InputStream inputStream) throws IOException {
-        StringBuilder output = new StringBuilder();
-        if (inputStream != null) {
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, Charset.forName("UTF-8"));
-            BufferedReader reader = new BufferedReader(inputStreamReader);
-            String line = reader.readLine();
-            while (line != null) {
-                output.append(line);
-                line = reader.readLine();
-            }
+    private static List<NewsArticle> parse(HttpResponse response, ArticleParser parser,
+                                           ArticleParser.Listener listener) throws IOException {
+        PipelineMetrics metrics = PipelineMetrics.getInstance();
+        // The transport meters the body before it is decompressed. Reading
+        // the gzip header may already have waited for the first bytes.
+        long startNanos = response.getReadNanos();
+        long start = PipelineMetrics.now();
+        try {
+            return parser.parse(new InterruptibleInputStream(response.getBody()), listener);
+        } finally {
+            long elapsed = PipelineMetrics.now() - start;
+            metrics.record(PipelineMetrics.Stage.BODY_READ, response.getReadNanos());
+            metrics.record(PipelineMetrics.Stage.PARSE, elapsed - (response.getReadNanos() - startNanos));
+            metrics.add(PipelineMetrics.Counter.BYTES_READ, response.getBytesRead());
         }
-        return output.toString();
     }
 
 }
@@ -0,0 +1,171 @@
+package udacity.android.newsapp.utility;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * This class makes concurrent requests for the same key share a single
+ * execution. The first caller to wait for a request runs it on its own
+ * thread and every other caller that asks for the same key while it is in
+ * flight waits for the same result. Callers hold a Ticket each, and the
+ * shared request is only cancelled once every ticket has been cancelled.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class RequestCoalescer<V> {
+
+    // Requests in flight by key, guarded by the map itself
+    private final Map<String, SharedRequest> inFlight = new HashMap<>();
+
+    /**
+     * This method returns a ticket for the request with the passed in key.
+     * If the request is already in flight the ticket shares it, otherwise
+     * the passed in callable becomes the new shared request.
+     *
+     * @param key The key identifying identical requests.
+     * @param callable The request to run if none is in flight.
+     * @return The ticket of the caller.
+     */
+    public Ticket<V> acquire(String key, Callable<V> callable) {
+        synchronized (inFlight) {
+            SharedRequest request = inFlight.get(key);
+            if (request == null || request.isCancelled()) {
+                request = new SharedRequest(key, callable);
+                inFlight.put(key, request);
+            }
+            request.references++;
+            return new Ticket<>(this, request);
+        }
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return The number of distinct keys being requested.
+     */
+    public int getInFlightCount() {
+        synchronized (inFlight) {
+            return inFlight.size();
+        }
+    }
+
+    /**
+     * This method drops the reference of a ticket, cancelling the shared
+     * request if it was the last one and the request has not finished.
+     *
+     * @param request The shared request of the ticket.
+     */
+    private void release(SharedRequest request) {
+        synchronized (inFlight) {
+            request.references--;
+            if (request.references > 0) {
+                return;
+            }
+            if (inFlight.get(request.key) == request) {
+                inFlight.remove(request.key);
+            }
+        }
+
+        // Interrupts the thread running the request, if any
+        request.cancel(true);
+    }
+
+    /**
+     * This class is a request shared by every ticket acquired for its key.
+     */
+    private final class SharedRequest extends FutureTask<V> {
+
+        final String key;
+
+        // Number of tickets that have not been released, guarded by inFlight
+        int references;
+
+        SharedRequest(String key, Callable<V> callable) {
+            super(callable);
+            this.key = key;
+        }
+
+        /**
+         * This method stops sharing the request once it has finished,
+         * so later callers start a new one.
+         */
+        @Override
+        protected void done() {
+            synchronized (inFlight) {
+                if (inFlight.get(key) == this) {
+                    inFlight.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * This class is the handle of one caller on a shared request.
+     * A ticket is released when get returns or when it is cancelled,
+     * whichever comes first.
+     */
+    public static final class Ticket<V> {
+
+        private final RequestCoalescer<V> coalescer;
+        private final RequestCoalescer<V>.SharedRequest request;
+        private boolean released;
+
+        Ticket(RequestCoalescer<V> coalescer, RequestCoalescer<V>.SharedRequest request) {
+            this.coalescer = coalescer;
+            this.request = request;
+        }
+
+        /**
+         * This method runs the shared request on the calling thread if no
+         * other caller is running it yet, and waits for its result.
+         *
+         * @return The result or null if the request was cancelled.
+         */
+        public V get() {
+            try {
+                request.run();
+                return request.get();
+            } catch (CancellationException e) {
+                // Clear the interrupt left by the cancellation if this thread ran the request
+                Thread.interrupted();
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * This method gives up on the result. The shared request keeps
+         * running for as long as other callers are waiting for it.
+         */
+        public void cancel() {
+            release();
+        }
+
+        /**
+         * This method drops the reference of the ticket once.
+         */
+        private void release() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            coalescer.release(request);
+        }
+    }
+}
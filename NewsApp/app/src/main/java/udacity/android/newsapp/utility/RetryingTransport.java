@@ -0,0 +1,212 @@
+package udacity.android.newsapp.utility;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import udacity.android.newsapp.core.CircuitBreaker;
+import udacity.android.newsapp.core.JitteredBackoff;
+import udacity.android.newsapp.core.PipelineMetrics;
+
+/**
+ * This class makes requests through another HttpTransport and retries the
+ * ones that failed for a reason that may go away: connection problems,
+ * timeouts, server errors and rate limiting. Retries wait a jittered,
+ * exponentially growing time, or as long as the server asked in its
+ * Retry-After header, and are only made while the request is within its
+ * time budget. Failures are tracked by a circuit breaker, and while it is
+ * open requests fail at once with a CircuitOpenException so cached
+ * results are shown instead of waiting for the server. A request that is
+ * cancelled, or fails in a way that says nothing about the server, is not
+ * counted either way.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class RetryingTransport implements HttpTransport {
+
+    private static final String LOG_TAG = RetryingTransport.class.getSimpleName();
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    // No retry is started after this long since the first attempt
+    private static final long RETRY_BUDGET_MILLIS = TimeUnit.SECONDS.toMillis(12);
+
+    // Longer waits asked for by the server are not waited out by a request
+    private static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final long BACKOFF_BASE_MILLIS = 500;
+    private static final long BACKOFF_MAX_MILLIS = TimeUnit.SECONDS.toMillis(4);
+
+    private static final int FAILURE_THRESHOLD = 4;
+    private static final long OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_OPEN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final HttpTransport transport;
+    private final JitteredBackoff backoff = new JitteredBackoff(BACKOFF_BASE_MILLIS, BACKOFF_MAX_MILLIS);
+    private final CircuitBreaker circuitBreaker =
+            new CircuitBreaker(FAILURE_THRESHOLD, OPEN_MILLIS, MAX_OPEN_MILLIS);
+    private final PipelineMetrics metrics = PipelineMetrics.getInstance();
+
+    /**
+     * Constructor
+     *
+     * @param transport The transport that makes the requests.
+     */
+    public RetryingTransport(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * This method makes a GET request to the passed in url, retrying it
+     * while it fails for a reason that may go away. If the last attempt
+     * got a response it is returned even if it is an error.
+     *
+     * @param url The url to which the request is made.
+     * @param etag The ETag of the cached response or null.
+     * @param lastModified The Last-Modified date of the cached response or null.
+     * @return The response, which must be closed by the caller.
+     * @throws IOException Thrown if the last attempt failed without a response.
+     * @throws CircuitOpenException Thrown if no request was made because the server is failing.
+     */
+    @Override
+    public HttpResponse get(URL url, String etag, String lastModified) throws IOException {
+        long deadline = System.currentTimeMillis() + RETRY_BUDGET_MILLIS;
+
+        for (int attempt = 0; ; attempt++) {
+            long now = System.currentTimeMillis();
+            if (!circuitBreaker.allowRequest(now)) {
+                metrics.increment(PipelineMetrics.Counter.CIRCUIT_REJECTIONS);
+                throw new CircuitOpenException("Requests are paused after repeated failures");
+            }
+
+            boolean lastAttempt = attempt + 1 == MAX_ATTEMPTS;
+            long delay;
+            try {
+                HttpResponse response = transport.get(url, etag, lastModified);
+                now = System.currentTimeMillis();
+                int responseCode = response.getResponseCode();
+
+                if (responseCode == HTTP_TOO_MANY_REQUESTS
+                        || responseCode == HttpURLConnection.HTTP_UNAVAILABLE) {
+                    // Everyone waits as long as the server asked
+                    long retryAfter = parseRetryAfter(response.getRetryAfter(), now);
+                    if (responseCode == HTTP_TOO_MANY_REQUESTS) {
+                        metrics.increment(PipelineMetrics.Counter.RATE_LIMITED);
+                    }
+                    if (retryAfter >= 0) {
+                        circuitBreaker.openUntil(now + retryAfter);
+                    } else {
+                        circuitBreaker.onFailure(now);
+                    }
+                    delay = retryAfter >= 0 ? retryAfter : backoff.getDelayMillis(attempt);
+                    if (lastAttempt || delay > MAX_RETRY_AFTER_MILLIS || now + delay > deadline) {
+                        return response;
+                    }
+                } else if (responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                    circuitBreaker.onFailure(now);
+                    delay = backoff.getDelayMillis(attempt);
+                    if (lastAttempt || now + delay > deadline) {
+                        return response;
+                    }
+                } else {
+                    circuitBreaker.onSuccess();
+                    return response;
+                }
+
+                Log.d(LOG_TAG, "Retrying after response code " + responseCode + ": " + url);
+                response.close();
+            } catch (SocketTimeoutException e) {
+                delay = onRequestFailed(e, attempt, lastAttempt, deadline);
+            } catch (InterruptedIOException | RuntimeException e) {
+                // The request was cancelled or failed here, the server may be fine
+                circuitBreaker.onCancelled();
+                throw e;
+            } catch (IOException e) {
+                delay = onRequestFailed(e, attempt, lastAttempt, deadline);
+            }
+
+            metrics.increment(PipelineMetrics.Counter.RETRIES);
+            sleep(delay);
+        }
+    }
+
+    /**
+     * This method records an attempt that failed without a response and
+     * decides whether to retry it.
+     *
+     * @param e The exception the attempt failed with.
+     * @param attempt The number of attempts made before this one.
+     * @param lastAttempt Whether no more attempts may be made.
+     * @param deadline The time after which no retry is started.
+     * @return How long to wait before the retry in milliseconds.
+     * @throws IOException The passed in exception, if it is not retried.
+     */
+    private long onRequestFailed(IOException e, int attempt, boolean lastAttempt, long deadline)
+            throws IOException {
+        long now = System.currentTimeMillis();
+        circuitBreaker.onFailure(now);
+
+        long delay = backoff.getDelayMillis(attempt);
+        if (lastAttempt || now + delay > deadline) {
+            throw e;
+        }
+        Log.d(LOG_TAG, "Retrying after " + e);
+        return delay;
+    }
+
+    /**
+     * This method waits before a retry.
+     *
+     * @param millis The time to wait in milliseconds.
+     * @throws InterruptedIOException Thrown if the request is cancelled while waiting.
+     */
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Cancelled while waiting to retry");
+        }
+    }
+
+    /**
+     * This method reads a Retry-After header, which holds either a number
+     * of seconds or an HTTP date.
+     *
+     * @param retryAfter The header or null.
+     * @param now The current time.
+     * @return How long to wait in milliseconds, or -1 if the header is missing or invalid.
+     */
+    static long parseRetryAfter(String retryAfter, long now) {
+        if (retryAfter == null) {
+            return -1;
+        }
+
+        String value = retryAfter.trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, so it should be a date
+        }
+
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return Math.max(0, format.parse(value).getTime() - now);
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
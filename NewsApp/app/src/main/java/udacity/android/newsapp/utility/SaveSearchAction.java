@@ -0,0 +1,53 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.view.MenuItem;
+
+import udacity.android.newsapp.R;
+import udacity.android.newsapp.model.SavedSearch;
+
+/**
+ * This class is the menu action that saves a search, so it is kept up to
+ * date in the background, or removes it from the saved searches again.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class SaveSearchAction {
+
+    private final SavedSearchStore store;
+    private final SavedSearch search;
+
+    /**
+     * Constructor
+     *
+     * @param context Any context, only its application context is kept.
+     * @param searchText The search text.
+     * @param orderBy The order of the results.
+     */
+    public SaveSearchAction(Context context, String searchText, String orderBy) {
+        this.store = SavedSearchStore.getInstance(context);
+        this.search = new SavedSearch(searchText, orderBy);
+    }
+
+    /**
+     * This method updates the title of the menu item to match whether
+     * the search is saved.
+     *
+     * @param item The menu item.
+     */
+    public void updateMenuItem(MenuItem item) {
+        item.setTitle(store.contains(search) ? R.string.unsave_search_menu_item : R.string.save_search_menu_item);
+    }
+
+    /**
+     * This method saves the search, or removes it if it is saved.
+     */
+    public void toggle() {
+        if (store.contains(search)) {
+            store.remove(search);
+        } else {
+            store.add(search);
+        }
+    }
+}
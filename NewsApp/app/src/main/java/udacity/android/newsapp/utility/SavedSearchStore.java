@@ -0,0 +1,129 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import udacity.android.newsapp.model.SavedSearch;
+
+/**
+ * This class keeps the saved searches in their own preferences file and
+ * reschedules the background sync whenever they change.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class SavedSearchStore {
+
+    private static final String PREFERENCES_NAME = "saved_searches";
+    private static final String SEARCHES_KEY = "searches";
+
+    // Separates the order from the query, which cannot contain a line break
+    private static final char SEPARATOR = '\n';
+
+    private static SavedSearchStore instance;
+
+    private final Context context;
+    private final SharedPreferences preferences;
+
+    /**
+     * Private constructor, use getInstance.
+     *
+     * @param context The application context.
+     */
+    private SavedSearchStore(Context context) {
+        this.context = context;
+        this.preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Returns the single SavedSearchStore of the process.
+     *
+     * @param context Any context, only its application context is kept.
+     * @return The store.
+     */
+    public static synchronized SavedSearchStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SavedSearchStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the saved searches ordered by their search text.
+     *
+     * @return The List of SavedSearches.
+     */
+    public synchronized List<SavedSearch> getAll() {
+        List<SavedSearch> searches = new ArrayList<>();
+        for (String value : preferences.getStringSet(SEARCHES_KEY, Collections.<String>emptySet())) {
+            int separator = value.indexOf(SEPARATOR);
+            if (separator > 0) {
+                searches.add(new SavedSearch(value.substring(separator + 1), value.substring(0, separator)));
+            }
+        }
+
+        Collections.sort(searches, new Comparator<SavedSearch>() {
+            @Override
+            public int compare(SavedSearch first, SavedSearch second) {
+                return first.getQuery().compareToIgnoreCase(second.getQuery());
+            }
+        });
+        return searches;
+    }
+
+    /**
+     * Returns whether a search has been saved.
+     *
+     * @param search The search.
+     * @return true if the search is saved.
+     */
+    public synchronized boolean contains(SavedSearch search) {
+        return preferences.getStringSet(SEARCHES_KEY, Collections.<String>emptySet()).contains(encode(search));
+    }
+
+    /**
+     * This method saves a search and schedules the background sync.
+     *
+     * @param search The search to save.
+     */
+    public void add(SavedSearch search) {
+        synchronized (this) {
+            Set<String> values = new HashSet<>(preferences.getStringSet(SEARCHES_KEY, Collections.<String>emptySet()));
+            values.add(encode(search));
+            preferences.edit().putStringSet(SEARCHES_KEY, values).apply();
+        }
+        SyncScheduler.schedule(context);
+    }
+
+    /**
+     * This method removes a saved search and cancels the background sync
+     * if no saved searches are left.
+     *
+     * @param search The search to remove.
+     */
+    public void remove(SavedSearch search) {
+        synchronized (this) {
+            Set<String> values = new HashSet<>(preferences.getStringSet(SEARCHES_KEY, Collections.<String>emptySet()));
+            values.remove(encode(search));
+            preferences.edit().putStringSet(SEARCHES_KEY, values).apply();
+        }
+        SyncScheduler.schedule(context);
+    }
+
+    /**
+     * This method encodes a search as a single preference value.
+     *
+     * @param search The search.
+     * @return The encoded search.
+     */
+    private static String encode(SavedSearch search) {
+        return search.getOrderBy() + SEPARATOR + search.getQuery();
+    }
+}
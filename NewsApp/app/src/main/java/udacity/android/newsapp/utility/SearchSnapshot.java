@@ -0,0 +1,82 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.os.Trace;
+
+import udacity.android.newsapp.model.ArticleSnapshot;
+import udacity.android.newsapp.model.ArticleStore;
+
+/**
+ * This class shows and keeps the snapshot of the results of one search.
+ * Snapshots are kept by everything that changes the results: the search
+ * text, the order and the sources searched. The results are only written
+ * again once they have changed.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public class SearchSnapshot {
+
+    private final SnapshotStore snapshotStore;
+    private final String searchText;
+    private final SearchSources sources;
+
+    // The results last kept, so they are not written again
+    private ArticleStore saved;
+
+    /**
+     * Constructor
+     *
+     * @param context Any context, only its application context is kept.
+     * @param searchText The search text.
+     * @param sources The sources searched.
+     */
+    public SearchSnapshot(Context context, String searchText, SearchSources sources) {
+        this.snapshotStore = SnapshotStore.getInstance(context);
+        this.searchText = searchText;
+        this.sources = sources;
+    }
+
+    /**
+     * This method maps the snapshot of the search, if there is one, and
+     * hands it to the adapter, which only reads the rows it binds. The
+     * first results can then be drawn before the loaders have read anything.
+     *
+     * @param adapter The adapter of the list.
+     * @param order The order of the results.
+     * @return true if a snapshot is shown.
+     */
+    public boolean show(ArticleAdapter adapter, String order) {
+        Trace.beginSection("SearchSnapshot.show");
+        try {
+            ArticleSnapshot snapshot = snapshotStore.open(getKey(order));
+            return snapshot != null && adapter.showSnapshot(snapshot);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * This method keeps the displayed results as the snapshot of the search,
+     * unless there are none or they were kept already.
+     *
+     * @param articles The displayed results.
+     * @param order The order they are displayed in.
+     */
+    public void save(ArticleStore articles, String order) {
+        if (articles.size() > 0 && articles != saved) {
+            saved = articles;
+            snapshotStore.save(getKey(order), articles);
+        }
+    }
+
+    /**
+     * Returns the key the snapshot of the search is kept under.
+     *
+     * @param order The order of the results.
+     * @return The key.
+     */
+    private String getKey(String order) {
+        return searchText + '\n' + order + sources.toKey();
+    }
+}
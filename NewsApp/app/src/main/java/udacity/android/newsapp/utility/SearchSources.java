@@ -0,0 +1,106 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import udacity.android.newsapp.core.NewsProvider;
+
+/**
+ * This class holds the sources a search is made in, as selected in the
+ * settings: the Guardian sections and the other feeds. A search in at
+ * most one section of the Guardian is loaded a page at a time, any other
+ * search is fanned out to one provider per section and feed.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public class SearchSources {
+
+    // Sections in alphabetical order, all sections if empty
+    private final Set<String> sections;
+    private final List<String> feedUrls;
+
+    /**
+     * Constructor
+     *
+     * @param sections The sections to search in, all of them if empty.
+     * @param feedUrls The urls of the other feeds to search.
+     */
+    public SearchSources(Set<String> sections, List<String> feedUrls) {
+        this.sections = Collections.unmodifiableSet(new TreeSet<>(sections));
+        this.feedUrls = Collections.unmodifiableList(new ArrayList<>(feedUrls));
+    }
+
+    /**
+     * This method reads the sources selected in the settings.
+     *
+     * @param context The context to provide access to the preferences.
+     * @return The sources.
+     */
+    public static SearchSources fromSettings(Context context) {
+        return new SearchSources(QueryUrlBuilder.getSections(context), QueryUrlBuilder.getFeedUrls(context));
+    }
+
+    /**
+     * Returns whether the search is fanned out to several providers rather
+     * than loaded a page at a time.
+     *
+     * @return true if several sections or other feeds are searched.
+     */
+    public boolean isFannedOut() {
+        return sections.size() > 1 || !feedUrls.isEmpty();
+    }
+
+    /**
+     * Returns the section of a search that is loaded a page at a time.
+     *
+     * @return The section, or null to search in all of them.
+     */
+    public String getSection() {
+        return sections.isEmpty() ? null : sections.iterator().next();
+    }
+
+    /**
+     * This method creates the providers a search is fanned out to: one
+     * per section, or one for all sections, and one per feed.
+     *
+     * @param context Any context, only its application context is kept.
+     * @param orderBy The order of the results.
+     * @return The providers.
+     */
+    public List<NewsProvider> createProviders(Context context, String orderBy) {
+        List<NewsProvider> providers = new ArrayList<>(sections.size() + feedUrls.size() + 1);
+        if (sections.isEmpty()) {
+            providers.add(new GuardianProvider(context, orderBy, null));
+        }
+        for (String section : sections) {
+            providers.add(new GuardianProvider(context, orderBy, section));
+        }
+        for (String url : feedUrls) {
+            providers.add(new FeedProvider(url));
+        }
+        return providers;
+    }
+
+    /**
+     * Returns the sections and feeds one per line, in a stable order, to
+     * be used in keys that change with the sources.
+     *
+     * @return The sources as text.
+     */
+    public String toKey() {
+        StringBuilder key = new StringBuilder();
+        for (String section : sections) {
+            key.append('\n').append(section);
+        }
+        for (String url : feedUrls) {
+            key.append('\n').append(url);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package udacity.android.newsapp.utility;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import udacity.android.newsapp.model.ArticleSnapshot;
+import udacity.android.newsapp.model.ArticleStore;
+
+/**
+ * This class keeps an ArticleSnapshot of the last results displayed for
+ * each of the recent searches, so they can be memory-mapped and shown
+ * the moment the search is opened again, before its loaders have read
+ * anything. Only the first screens of results are kept, and only for the
+ * most recently displayed searches. Snapshots are written on a single
+ * background thread and replace the previous one in one step.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class SnapshotStore {
+
+    private static final String LOG_TAG = SnapshotStore.class.getSimpleName();
+
+    private static final String DIRECTORY = "snapshots";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Searches kept, and the articles kept of each, enough for the first screens
+    private static final int MAX_SNAPSHOTS = 8;
+    private static final int MAX_ARTICLES = 40;
+
+    private static SnapshotStore instance;
+
+    private final File directory;
+
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "SnapshotWriter");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Private constructor, use getInstance.
+     *
+     * @param context The application context.
+     */
+    private SnapshotStore(Context context) {
+        directory = new File(context.getFilesDir(), DIRECTORY);
+    }
+
+    /**
+     * Returns the store shared by the whole process.
+     *
+     * @param context Any context, only its application context is kept.
+     * @return The SnapshotStore instance.
+     */
+    public static synchronized SnapshotStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SnapshotStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * This method maps the snapshot of a search. Only its header is read,
+     * so it can be called on the main thread while the activity starts.
+     *
+     * @param key The key of the search.
+     * @return The snapshot, or null if there is none.
+     */
+    public ArticleSnapshot open(String key) {
+        File file = new File(directory, DiskLruStore.fileName(key));
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            ArticleSnapshot snapshot = ArticleSnapshot.map(file);
+            // Keeps the snapshot of a search in use from being replaced first
+            file.setLastModified(System.currentTimeMillis());
+            return snapshot;
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Problem mapping snapshot " + file, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * This method writes the displayed results of a search as its snapshot
+     * on a background thread.
+     *
+     * @param key The key of the search.
+     * @param store The displayed results, which are not modified any more.
+     */
+    public void save(final String key, final ArticleStore store) {
+        final long createdAt = System.currentTimeMillis();
+        writeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                write(key, store, createdAt);
+                trimToCount();
+            }
+        });
+    }
+
+    /**
+     * This method writes a snapshot to a temporary file and then renames
+     * it, so a snapshot being mapped is never seen half written.
+     *
+     * @param key The key of the search.
+     * @param store The results.
+     * @param createdAt When the results were displayed.
+     */
+    private void write(String key, ArticleStore store, long createdAt) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(LOG_TAG, "Unable to create snapshot directory " + directory);
+            return;
+        }
+
+        String name = DiskLruStore.fileName(key);
+        File temp = new File(directory, name + TEMP_SUFFIX);
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(temp));
+            ArticleSnapshot.write(store, MAX_ARTICLES, createdAt, out);
+            out.close();
+            out = null;
+
+            if (!temp.renameTo(new File(directory, name))) {
+                throw new IOException("Unable to rename " + temp);
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Problem writing snapshot " + name, e);
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Nothing more can be done
+                }
+            }
+            temp.delete();
+        }
+    }
+
+    /**
+     * This method deletes the least recently used snapshots until no more
+     * than MAX_SNAPSHOTS are left.
+     */
+    private void trimToCount() {
+        File[] files = directory.listFiles();
+        if (files == null || files.length <= MAX_SNAPSHOTS) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                long difference = first.lastModified() - second.lastModified();
+                return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+            }
+        });
+        for (int i = 0; i < files.length - MAX_SNAPSHOTS; i++) {
+            files[i].delete();
+        }
+    }
+}
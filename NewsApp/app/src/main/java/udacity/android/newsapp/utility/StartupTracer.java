@@ -0,0 +1,208 @@
+package udacity.android.newsapp.utility;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.ViewTreeObserver;
+
+import java.util.Locale;
+
+import udacity.android.newsapp.core.PipelineMetrics;
+
+/**
+ * This class times the launches of the app. A launch is cold when the
+ * process is started for it and warm when the process was still running
+ * without any activities. It is timed from the start of the process, or
+ * from the creation of the first activity of a warm launch, until that
+ * activity draws its first frame and until the first results are drawn.
+ * Both are recorded in the PipelineMetrics and written to the log, where
+ * the startup benchmark reads them, and the first results are reported
+ * as fully drawn. It is only used on the main thread.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class StartupTracer implements Application.ActivityLifecycleCallbacks {
+
+    private static final String LOG_TAG = StartupTracer.class.getSimpleName();
+
+    private static final StartupTracer INSTANCE = new StartupTracer();
+
+    private final PipelineMetrics metrics = PipelineMetrics.getInstance();
+
+    // Activities that have been created and not destroyed yet
+    private int activityCount;
+
+    // Whether an activity is being recreated after a configuration change
+    private boolean recreating;
+
+    // Whether the process was started and no activity or job has run since
+    private boolean processStarting;
+
+    // The launch being timed and what is still to be drawn for it
+    private long launchStartNanos;
+    private boolean coldLaunch;
+    private boolean firstFramePending;
+    private boolean resultsPending;
+
+    /**
+     * Private constructor, use getInstance.
+     */
+    private StartupTracer() {
+    }
+
+    /**
+     * Returns the tracer of the process.
+     *
+     * @return The StartupTracer instance.
+     */
+    public static StartupTracer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This method notes the start of the process. It is called as early
+     * as possible, when the Application is created.
+     */
+    public void onProcessStart() {
+        processStarting = true;
+        launchStartNanos = PipelineMetrics.now();
+    }
+
+    /**
+     * This method notes that the process is doing work in the background,
+     * so an activity created later is not part of a cold launch.
+     */
+    public void onBackgroundWork() {
+        processStarting = false;
+    }
+
+    /**
+     * This method starts timing a launch when the first activity is created.
+     *
+     * @param activity The activity.
+     * @param savedInstanceState The saved state of the activity.
+     */
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        if (activityCount++ > 0 || recreating) {
+            recreating = false;
+            return;
+        }
+
+        coldLaunch = processStarting;
+        processStarting = false;
+        if (!coldLaunch) {
+            launchStartNanos = PipelineMetrics.now();
+        }
+        firstFramePending = true;
+        resultsPending = true;
+    }
+
+    /**
+     * This method waits for the first frame of the activity of a launch,
+     * whose window has been set up by the time it is started.
+     *
+     * @param activity The activity.
+     */
+    @Override
+    public void onActivityStarted(Activity activity) {
+        if (!firstFramePending) {
+            return;
+        }
+        firstFramePending = false;
+
+        whenDrawn(activity, new Runnable() {
+            @Override
+            public void run() {
+                record(coldLaunch ? PipelineMetrics.Stage.COLD_FIRST_FRAME
+                        : PipelineMetrics.Stage.WARM_FIRST_FRAME, "first_frame");
+            }
+        });
+    }
+
+    /**
+     * This method ends the timing of the launch once the results it was
+     * opened for are drawn. Results shown after that are not timed.
+     *
+     * @param activity The activity showing the results.
+     */
+    public void onResultsShown(final Activity activity) {
+        if (!resultsPending) {
+            return;
+        }
+        resultsPending = false;
+
+        whenDrawn(activity, new Runnable() {
+            @Override
+            public void run() {
+                record(coldLaunch ? PipelineMetrics.Stage.COLD_FIRST_RESULT
+                        : PipelineMetrics.Stage.WARM_FIRST_RESULT, "first_result");
+                activity.reportFullyDrawn();
+            }
+        });
+    }
+
+    /**
+     * This method runs a task just before the next frame of an activity is drawn.
+     *
+     * @param activity The activity.
+     * @param task The task.
+     */
+    private static void whenDrawn(Activity activity, final Runnable task) {
+        final ViewTreeObserver observer = activity.getWindow().getDecorView().getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }
+                task.run();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * This method records how long the launch has taken so far.
+     *
+     * @param stage The stage to record it as.
+     * @param event The name of what was drawn, as written to the log.
+     */
+    private void record(PipelineMetrics.Stage stage, String event) {
+        long nanos = PipelineMetrics.now() - launchStartNanos;
+        metrics.record(stage, nanos);
+        Log.i(LOG_TAG, String.format(Locale.ROOT, "%s %s %.1f ms",
+                coldLaunch ? "cold" : "warm", event, nanos / 1e6));
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    /**
+     * This method counts the activity as gone, so the next one created
+     * when there are none left starts a warm launch, unless it is only
+     * being recreated.
+     *
+     * @param activity The activity.
+     */
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        activityCount--;
+        recreating = activity.isChangingConfigurations();
+    }
+}
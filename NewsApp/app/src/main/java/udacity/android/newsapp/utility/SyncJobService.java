@@ -0,0 +1,149 @@
+package udacity.android.newsapp.utility;
+
+import android.annotation.TargetApi;
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+import udacity.android.newsapp.model.SavedSearch;
+
+/**
+ * This class refreshes every saved search in one run of the sync job. The
+ * results are fetched under the same urls the NewsActivity loads first and
+ * go through the ArticleRepository, so they land in the memory and disk
+ * caches and a saved search opens straight from local data. The run is
+ * skipped while the battery is low and not charging. A process started
+ * for the job does not count as a cold launch of the app.
+ *
+ * @author Joseph Stewart
+ * @version 1.2
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class SyncJobService extends JobService {
+
+    private static final String LOG_TAG = SyncJobService.class.getSimpleName();
+
+    // Below this battery percentage the sync waits for a charger
+    private static final int LOW_BATTERY_PERCENT = 20;
+
+    private SyncThread syncThread;
+
+    /**
+     * This method starts refreshing the saved searches on a background thread.
+     *
+     * @param params The parameters of the job.
+     * @return true if the job continues on the background thread.
+     */
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        StartupTracer.getInstance().onBackgroundWork();
+
+        if (isBatteryLow()) {
+            Log.d(LOG_TAG, "Battery low, skipping sync");
+            return false;
+        }
+
+        syncThread = new SyncThread(params);
+        syncThread.start();
+        return true;
+    }
+
+    /**
+     * This method stops the refresh when the job's constraints are no longer met.
+     *
+     * @param params The parameters of the job.
+     * @return true so the job is run again later.
+     */
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        if (syncThread != null) {
+            syncThread.cancel();
+            syncThread = null;
+        }
+        return true;
+    }
+
+    /**
+     * This method reads the battery state from the sticky battery broadcast.
+     *
+     * @return true if the battery is low and not charging.
+     */
+    private boolean isBatteryLow() {
+        Intent battery = registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery == null) {
+            return false;
+        }
+
+        int status = battery.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        if (status == BatteryManager.BATTERY_STATUS_CHARGING || status == BatteryManager.BATTERY_STATUS_FULL) {
+            return false;
+        }
+
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        return level >= 0 && scale > 0 && level * 100 / scale < LOW_BATTERY_PERCENT;
+    }
+
+    /**
+     * This class fetches the saved searches one after the other.
+     */
+    private class SyncThread extends Thread {
+
+        private final JobParameters params;
+        private volatile boolean cancelled;
+        private volatile RequestCoalescer.Ticket<List<NewsArticle>> pendingFetch;
+
+        SyncThread(JobParameters params) {
+            super("SavedSearchSync");
+            this.params = params;
+        }
+
+        @Override
+        public void run() {
+            ArticleRepository repository = ArticleRepository.getInstance(SyncJobService.this);
+            int fetched = 0;
+
+            for (SavedSearch search : SavedSearchStore.getInstance(SyncJobService.this).getAll()) {
+                List<String> urls = QueryUrlBuilder.buildFirstUrls(
+                        SyncJobService.this, search.getQuery(), search.getOrderBy());
+                for (String url : urls) {
+                    if (cancelled) {
+                        return;
+                    }
+                    RequestCoalescer.Ticket<List<NewsArticle>> ticket = repository.fetchShared(url);
+                    pendingFetch = ticket;
+                    // A cancel that came before the ticket was set did not see it
+                    if (cancelled) {
+                        ticket.cancel();
+                        return;
+                    }
+                    ticket.get();
+                    pendingFetch = null;
+                    fetched++;
+                }
+            }
+
+            Log.d(LOG_TAG, "Synced " + fetched + " queries");
+            jobFinished(params, false);
+        }
+
+        /**
+         * This method stops the thread before its next fetch and gives up
+         * on the fetch in flight.
+         */
+        void cancel() {
+            cancelled = true;
+            RequestCoalescer.Ticket<List<NewsArticle>> ticket = pendingFetch;
+            if (ticket != null) {
+                ticket.cancel();
+            }
+        }
+    }
+}
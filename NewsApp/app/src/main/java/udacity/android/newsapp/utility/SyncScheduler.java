@@ -0,0 +1,75 @@
+package udacity.android.newsapp.utility;
+
+import android.annotation.TargetApi;
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Build;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class schedules the background sync of the saved searches. All
+ * saved searches are refreshed by a single periodic job, which only runs
+ * on an unmetered network and which the system batches with the wake-ups
+ * of other apps. Devices older than Lollipop have no JobScheduler and keep
+ * loading results when a search is opened.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class SyncScheduler {
+
+    private static final int SYNC_JOB_ID = 1;
+
+    // How often the saved searches are refreshed at most
+    private static final long SYNC_INTERVAL = TimeUnit.HOURS.toMillis(3);
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private SyncScheduler() {
+        throw new AssertionError("The SyncScheduler cannot be instantiated.");
+    }
+
+    /**
+     * This method schedules the sync if there are saved searches and
+     * cancels it otherwise. A sync that is already scheduled keeps its timing.
+     *
+     * @param context The context to provide access to the JobScheduler.
+     */
+    public static void schedule(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            scheduleJob(context);
+        }
+    }
+
+    /**
+     * This method schedules or cancels the sync job.
+     *
+     * @param context The context to provide access to the JobScheduler.
+     */
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static void scheduleJob(Context context) {
+        JobScheduler jobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+
+        if (SavedSearchStore.getInstance(context).getAll().isEmpty()) {
+            jobScheduler.cancel(SYNC_JOB_ID);
+            return;
+        }
+
+        for (JobInfo job : jobScheduler.getAllPendingJobs()) {
+            if (job.getId() == SYNC_JOB_ID) {
+                return;
+            }
+        }
+
+        JobInfo job = new JobInfo.Builder(SYNC_JOB_ID, new ComponentName(context, SyncJobService.class))
+                .setPeriodic(SYNC_INTERVAL)
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setPersisted(true)
+                .build();
+        jobScheduler.schedule(job);
+    }
+}
@@ -0,0 +1,123 @@
+package udacity.android.newsapp.utility;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import udacity.android.newsapp.core.AdaptiveTimeout;
+import udacity.android.newsapp.core.PipelineMetrics;
+
+/**
+ * This class makes requests with HttpURLConnection. Connections are never
+ * disconnected, only their streams are read to the end and closed, so they
+ * go back to the platform's keep-alive pool and are reused for the next
+ * request to the same host. Responses are requested gzip compressed, and
+ * the body is metered as it comes off the connection, before it is
+ * decompressed. The time to connect and the time until the response
+ * headers arrive are recorded in the PipelineMetrics, and the timeouts
+ * follow them: a fast link gives up on a stalled request after a few
+ * seconds instead of the fixed worst case, so it can be retried sooner.
+ *
+ * @author Joseph Stewart
+ * @version 1.4
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    // Timeouts in milliseconds before any latency is known, and their bounds
+    private static final long INITIAL_CONNECT_TIMEOUT = 5000;
+    private static final long MIN_CONNECT_TIMEOUT = 1500;
+    private static final long MAX_CONNECT_TIMEOUT = 15000;
+    private static final long INITIAL_READ_TIMEOUT = 6000;
+    private static final long MIN_READ_TIMEOUT = 2000;
+    private static final long MAX_READ_TIMEOUT = 10000;
+
+    // Idle connections kept alive per host
+    private static final String MAX_CONNECTIONS = "5";
+
+    // The keep-alive pool is shared by every transport and is set up once,
+    // before the first connection is opened
+    static {
+        System.setProperty("http.keepAlive", "true");
+        System.setProperty("http.maxConnections", MAX_CONNECTIONS);
+    }
+
+    private final AdaptiveTimeout connectTimeout =
+            new AdaptiveTimeout(INITIAL_CONNECT_TIMEOUT, MIN_CONNECT_TIMEOUT, MAX_CONNECT_TIMEOUT);
+
+    // Follows the wait for the response headers, the longest wait for data
+    private final AdaptiveTimeout readTimeout =
+            new AdaptiveTimeout(INITIAL_READ_TIMEOUT, MIN_READ_TIMEOUT, MAX_READ_TIMEOUT);
+
+    /**
+     * This method makes a GET request to the passed in url.
+     *
+     * @param url The url to which the request is made.
+     * @param etag The ETag of the cached response or null.
+     * @param lastModified The Last-Modified date of the cached response or null.
+     * @return The response, which must be closed by the caller.
+     * @throws IOException Thrown if there is an issue with the request.
+     */
+    @Override
+    public HttpResponse get(URL url, String etag, String lastModified) throws IOException {
+        PipelineMetrics metrics = PipelineMetrics.getInstance();
+        long start = PipelineMetrics.now();
+
+        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+        urlConnection.setReadTimeout((int) readTimeout.getTimeoutMillis());
+        urlConnection.setConnectTimeout((int) connectTimeout.getTimeoutMillis());
+        urlConnection.setRequestMethod("GET");
+
+        // Setting the header ourselves means the body has to be decompressed here
+        urlConnection.setRequestProperty("Accept-Encoding", "gzip");
+        if (etag != null) {
+            urlConnection.setRequestProperty("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            urlConnection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+        try {
+            urlConnection.connect();
+        } catch (SocketTimeoutException e) {
+            connectTimeout.onTimeout();
+            throw e;
+        }
+        long connected = metrics.end(PipelineMetrics.Stage.CONNECT, start);
+        connectTimeout.onSample(TimeUnit.NANOSECONDS.toMillis(connected - start));
+
+        // The response code is known once the first bytes of the response arrive
+        int responseCode;
+        try {
+            responseCode = urlConnection.getResponseCode();
+        } catch (SocketTimeoutException e) {
+            readTimeout.onTimeout();
+            throw e;
+        }
+        long firstByte = metrics.end(PipelineMetrics.Stage.FIRST_BYTE, connected);
+        readTimeout.onSample(TimeUnit.NANOSECONDS.toMillis(firstByte - connected));
+        InputStream body = responseCode < HttpURLConnection.HTTP_BAD_REQUEST
+                ? urlConnection.getInputStream() : urlConnection.getErrorStream();
+
+        MeteredInputStream wire = null;
+        if (body != null) {
+            wire = new MeteredInputStream(body);
+            body = new BufferedInputStream(wire);
+
+            // Responses without a body have no gzip header to read
+            boolean hasBody = responseCode != HttpURLConnection.HTTP_NOT_MODIFIED
+                    && responseCode != HttpURLConnection.HTTP_NO_CONTENT;
+            if (hasBody && "gzip".equalsIgnoreCase(urlConnection.getContentEncoding())) {
+                body = new GZIPInputStream(body);
+            }
+        }
+
+        return new HttpResponse(responseCode, body, wire,
+                urlConnection.getHeaderField("ETag"),
+                urlConnection.getHeaderField("Last-Modified"),
+                urlConnection.getHeaderField("Retry-After"));
+    }
+}
@@ -0,0 +1,143 @@
+package udacity.android.newsapp.core;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import udacity.android.newsapp.model.ArticleStore;
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class benchmarks each stage of turning a Guardian response into the
+ * articles displayed in the list: reading the stream, parsing the JSON with
+ * either parser and constructing the articles. Throughput and sampled
+ * latency are reported for responses of 10, 100 and 1,000 results, and the
+ * gc profiler configured in build.gradle adds the allocation rate of each
+ * benchmark.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParsingBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Param({"10", "100", "1000"})
+    public int resultCount;
+
+    // Response body and its decoded text
+    private byte[] body;
+    private String json;
+
+    private final JsonObjectArticleParser treeParser = new JsonObjectArticleParser();
+    private final StreamingArticleParser streamingParser = new StreamingArticleParser();
+
+    // Parsed attributes of each article, in constructor order
+    private String[][] fields;
+
+    private List<NewsArticle> articles;
+
+    /**
+     * This method prepares the response and the inputs of the later stages.
+     *
+     * @throws IOException Thrown if the fixture cannot be loaded.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        body = ResponseFixtures.load(resultCount);
+        json = new String(body, UTF_8);
+        articles = streamingParser.parse(new ByteArrayInputStream(body));
+
+        fields = new String[articles.size()][];
+        for (int i = 0; i < articles.size(); i++) {
+            NewsArticle article = articles.get(i);
+            fields[i] = new String[] {
+                    article.getTitle(), article.getDate(), article.getSection(), article.getUrl()};
+        }
+    }
+
+    /**
+     * Reads the response body into a String.
+     *
+     * @return The response text.
+     * @throws IOException Not thrown by the in-memory stream.
+     */
+    @Benchmark
+    public String readFromStream() throws IOException {
+        return JsonObjectArticleParser.readFromStream(new ByteArrayInputStream(body));
+    }
+
+    /**
+     * Builds the JSONObject tree of an already read response.
+     *
+     * @return The root of the tree.
+     * @throws JSONException Not thrown for the fixture.
+     */
+    @Benchmark
+    public JSONObject parseJsonTree() throws JSONException {
+        return new JSONObject(json);
+    }
+
+    /**
+     * Reads the response into a JSONObject tree and extracts the articles.
+     *
+     * @return The parsed articles.
+     * @throws IOException Not thrown for the fixture.
+     */
+    @Benchmark
+    public List<NewsArticle> parseTreeResponse() throws IOException {
+        return treeParser.parse(new ByteArrayInputStream(body));
+    }
+
+    /**
+     * Extracts the articles token by token, as the app does.
+     *
+     * @return The parsed articles.
+     * @throws IOException Not thrown for the fixture.
+     */
+    @Benchmark
+    public List<NewsArticle> parseStreamingResponse() throws IOException {
+        return streamingParser.parse(new ByteArrayInputStream(body));
+    }
+
+    /**
+     * Constructs the list of NewsArticles from already parsed attributes.
+     *
+     * @return The constructed articles.
+     */
+    @Benchmark
+    public List<NewsArticle> constructArticles() {
+        List<NewsArticle> constructed = new ArrayList<>(fields.length);
+        for (String[] article : fields) {
+            constructed.add(new NewsArticle(article[0], article[1], article[2], article[3]));
+        }
+        return constructed;
+    }
+
+    /**
+     * Copies the articles into the ArticleStore displayed by the adapter.
+     *
+     * @return The populated store.
+     */
+    @Benchmark
+    public ArticleStore buildArticleStore() {
+        return ArticleStore.from(articles);
+    }
+}
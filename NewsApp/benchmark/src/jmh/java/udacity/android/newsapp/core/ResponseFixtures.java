@@ -0,0 +1,75 @@
+package udacity.android.newsapp.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * This class provides Guardian search responses for the benchmarks. A
+ * recorded response of 10 results is scaled up to larger page sizes by
+ * repeating its results with unique ids and urls, so every fixture has the
+ * same mix of field lengths and sections as the real API.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+final class ResponseFixtures {
+
+    // Recorded response of the Guardian search endpoint
+    private static final String RECORDED_RESPONSE = "/fixtures/search-10.json";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private ResponseFixtures() {
+        throw new AssertionError("The ResponseFixtures cannot be instantiated.");
+    }
+
+    /**
+     * This method builds a compact response body with the passed in number of results.
+     *
+     * @param resultCount The number of results.
+     * @return The UTF-8 encoded response body.
+     * @throws IOException Thrown if the recorded response cannot be read.
+     */
+    static byte[] load(int resultCount) throws IOException {
+        InputStream inputStream = ResponseFixtures.class.getResourceAsStream(RECORDED_RESPONSE);
+        if (inputStream == null) {
+            throw new IOException("Missing fixture " + RECORDED_RESPONSE);
+        }
+
+        try {
+            JSONObject recorded = new JSONObject(JsonObjectArticleParser.readFromStream(inputStream));
+            JSONObject response = recorded.getJSONObject(ResponseKeys.RESPONSE);
+            JSONArray recordedResults = response.getJSONArray(ResponseKeys.RESULTS);
+
+            // Repeat the recorded results, making each copy a distinct article
+            JSONArray results = new JSONArray();
+            for (int i = 0; i < resultCount; i++) {
+                JSONObject original = recordedResults.getJSONObject(i % recordedResults.length());
+                JSONObject result = new JSONObject(original, JSONObject.getNames(original));
+                int copy = i / recordedResults.length();
+                if (copy > 0) {
+                    result.put("id", original.getString("id") + "-" + copy);
+                    result.put(ResponseKeys.URL, original.getString(ResponseKeys.URL) + "-" + copy);
+                    result.put("apiUrl", original.getString("apiUrl") + "-" + copy);
+                }
+                results.put(result);
+            }
+
+            response.put(ResponseKeys.RESULTS, results);
+            response.put("pageSize", resultCount);
+            return recorded.toString().getBytes(UTF_8);
+        } catch (JSONException e) {
+            throw new IOException("Problem parsing the recorded response", e);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+#
+# Cold and warm start benchmark of the app on a connected device or
+# emulator. Install the app first, then run
+#   benchmark/startup-benchmark.sh [runs] [search text]
+# or
+#   ./gradlew :benchmark:startupBenchmark -Pruns=10 -Pquery=football
+#
+# A cold start force-stops the app before each launch, so its process is
+# started for the launch. A warm start leaves the process running and only
+# backs out of its activities. Without a search text the launcher is opened
+# and its first result is the list of saved searches; with one the launcher
+# is opened with that search and its first result is the search results.
+# The app times each launch itself, from the start of its process or from
+# its first activity of a warm start, and logs it under the StartupTracer
+# tag. The median, minimum and maximum time to the first frame and to the
+# first result are printed in milliseconds.
+
+PACKAGE=udacity.android.newsapp
+ACTIVITY=$PACKAGE/.activities.SearchActivity
+ADB=${ADB:-adb}
+
+RUNS=${1:-10}
+QUERY=$2
+
+# Seconds to wait for the first result of a launch
+TIMEOUT=30
+
+# Launches the app once and prints each event it logged with its time
+launch() {
+    "$ADB" logcat -c
+    if [ -z "$QUERY" ]; then
+        "$ADB" shell am start -W -n "$ACTIVITY" > /dev/null
+    else
+        "$ADB" shell am start -W -n "$ACTIVITY" -a android.intent.action.SEARCH \
+                --es query "'$QUERY'" > /dev/null
+    fi
+
+    for i in $(seq "$TIMEOUT"); do
+        log=$("$ADB" logcat -d -s StartupTracer:I)
+        if echo "$log" | grep -q first_result; then
+            echo "$log" | grep -o 'first_[a-z]* [0-9.]*'
+            return 0
+        fi
+        sleep 1
+    done
+    echo "No result within $TIMEOUT seconds" >&2
+    return 1
+}
+
+# Backs out of the activities of the app, leaving its process running.
+# They are started without the launcher intent, so even from Android 12
+# on the back key finishes them rather than moving them to the back.
+close_app() {
+    "$ADB" shell input keyevent KEYCODE_BACK
+    if [ -n "$QUERY" ]; then
+        "$ADB" shell input keyevent KEYCODE_BACK
+    fi
+    sleep 2
+}
+
+# Prints the median, minimum and maximum of the times in a file
+summarize() {
+    sort -n "$2" | awk -v label="$1" '{ v[NR] = $1 } END {
+        median = NR % 2 ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2
+        printf "%-20s %4d runs  median %8.1f  min %8.1f  max %8.1f\n", label, NR, median, v[1], v[NR]
+    }'
+}
+
+results=$(mktemp -d)
+trap 'rm -rf "$results"' EXIT
+
+for mode in cold warm; do
+    # The process of the last cold start keeps running for the warm starts
+    if [ "$mode" = warm ]; then
+        close_app
+    fi
+
+    for run in $(seq "$RUNS"); do
+        echo "$mode start $run of $RUNS" >&2
+        if [ "$mode" = cold ]; then
+            "$ADB" shell am force-stop "$PACKAGE"
+            sleep 1
+        fi
+
+        launch | while read -r event millis; do
+            echo "$millis" >> "$results/$mode-$event"
+        done
+
+        if [ "$mode" = warm ]; then
+            close_app
+        fi
+    done
+done
+
+for mode in cold warm; do
+    for event in first_frame first_result; do
+        if [ -s "$results/$mode-$event" ]; then
+            summarize "$mode $event" "$results/$mode-$event"
+        fi
+    done
+done
@@ -0,0 +1,81 @@
+package udacity.android.newsapp.core;
+
+/**
+ * This class works out a timeout from the latencies observed so far, the
+ * way TCP works out its retransmission timeout: it keeps a smoothed mean
+ * and a smoothed deviation of the samples and waits for the mean plus four
+ * deviations. A fast, steady link gets a short timeout, so a request that
+ * stalls is given up on and retried early, while a slow or jittery link
+ * gets a longer one. Each timeout doubles the next timeout until a request
+ * succeeds again. The timeout always stays between a minimum and a maximum.
+ * All methods are thread safe.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class AdaptiveTimeout {
+
+    // Gains of the smoothed mean and deviation, as in RFC 6298
+    private static final double MEAN_GAIN = 0.125;
+    private static final double DEVIATION_GAIN = 0.25;
+    private static final int DEVIATIONS = 4;
+
+    private final long initialMillis;
+    private final long minMillis;
+    private final long maxMillis;
+
+    // Negative until the first sample
+    private double smoothedMillis = -1;
+    private double deviationMillis;
+
+    // The timeout after a timeout, 0 while requests succeed
+    private long backedOffMillis;
+
+    /**
+     * Constructor
+     *
+     * @param initialMillis The timeout used before any latency has been observed.
+     * @param minMillis The shortest timeout.
+     * @param maxMillis The longest timeout.
+     */
+    public AdaptiveTimeout(long initialMillis, long minMillis, long maxMillis) {
+        this.initialMillis = initialMillis;
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Returns the timeout to use for the next request.
+     *
+     * @return The timeout in milliseconds.
+     */
+    public synchronized long getTimeoutMillis() {
+        long timeout = smoothedMillis < 0
+                ? initialMillis : (long) (smoothedMillis + DEVIATIONS * deviationMillis);
+        timeout = Math.max(timeout, backedOffMillis);
+        return Math.min(maxMillis, Math.max(minMillis, timeout));
+    }
+
+    /**
+     * This method adds the latency of a request that completed in time.
+     *
+     * @param millis The latency in milliseconds.
+     */
+    public synchronized void onSample(long millis) {
+        if (smoothedMillis < 0) {
+            smoothedMillis = millis;
+            deviationMillis = millis / 2.0;
+        } else {
+            deviationMillis += DEVIATION_GAIN * (Math.abs(smoothedMillis - millis) - deviationMillis);
+            smoothedMillis += MEAN_GAIN * (millis - smoothedMillis);
+        }
+        backedOffMillis = 0;
+    }
+
+    /**
+     * This method doubles the timeout after a request timed out.
+     */
+    public synchronized void onTimeout() {
+        backedOffMillis = Math.min(maxMillis, 2 * getTimeoutMillis());
+    }
+}
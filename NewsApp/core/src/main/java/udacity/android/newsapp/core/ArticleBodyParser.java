@@ -0,0 +1,65 @@
+package udacity.android.newsapp.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * This class reads the body of an article from a Guardian content response
+ * requested with show-fields=body. Like the StreamingArticleParser it reads
+ * the response token by token and skips everything but the path to the
+ * body: response, content, fields, body.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ArticleBodyParser {
+
+    // Keys looked for at each level of the response
+    private static final String[] DOCUMENT_KEYS = {ResponseKeys.RESPONSE};
+    private static final String[] RESPONSE_KEYS = {ResponseKeys.CONTENT};
+    private static final String[] CONTENT_KEYS = {ResponseKeys.FIELDS};
+    private static final String[] FIELDS_KEYS = {ResponseKeys.BODY};
+
+    /**
+     * This method reads the body of the article from the response.
+     *
+     * @param inputStream The response body.
+     * @return The HTML body of the article, or null if the response has none.
+     * @throws IOException Thrown if the stream cannot be read or parsed.
+     */
+    public String parse(InputStream inputStream) throws IOException {
+        JsonPullParser reader = new JsonPullParser(new InputStreamReader(inputStream, Charset.forName("UTF-8")));
+        return readObject(reader, DOCUMENT_KEYS, RESPONSE_KEYS, CONTENT_KEYS, FIELDS_KEYS);
+    }
+
+    /**
+     * This method reads an object, descending into the member named by
+     * the first set of keys with the remaining sets, and returns the
+     * string value found at the end of the path.
+     *
+     * @param reader The reader positioned at the object.
+     * @param path The keys to look for at this level and each level below.
+     * @return The value at the end of the path, or null if it is missing.
+     * @throws IOException Thrown if there is a problem reading the stream.
+     */
+    private String readObject(JsonPullParser reader, String[]... path) throws IOException {
+        String value = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName(path[0]) == JsonPullParser.UNKNOWN_NAME) {
+                reader.skipValue();
+            } else if (path.length == 1) {
+                value = reader.nextString();
+            } else {
+                String[][] rest = new String[path.length - 1][];
+                System.arraycopy(path, 1, rest, 0, rest.length);
+                value = readObject(reader, rest);
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+}
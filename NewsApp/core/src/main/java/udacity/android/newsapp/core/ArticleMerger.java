@@ -0,0 +1,154 @@
+package udacity.android.newsapp.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import udacity.android.newsapp.model.IsoDate;
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class merges the results of several providers into one list,
+ * newest or oldest first. Each list is sorted by date on its own, which
+ * is close to free as sources mostly return them in order, and the lists
+ * are then merged with a k-way merge that always takes the first of their
+ * heads from a heap, so merging n articles from k sources takes O(n log k).
+ * Articles are compared by the date they parsed when they were created. An
+ * article whose url was already taken from another list is dropped, and
+ * articles of the same date keep the order of the lists they come from.
+ * Articles without a date go last either way. The same order is used to
+ * re-sort a list that is already loaded.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public final class ArticleMerger {
+
+    private static final Comparator<NewsArticle> NEWEST_FIRST = new DateOrder(true);
+    private static final Comparator<NewsArticle> OLDEST_FIRST = new DateOrder(false);
+
+    /**
+     * This class orders articles by date, newest or oldest first, with
+     * articles without a date last either way.
+     */
+    private static final class DateOrder implements Comparator<NewsArticle> {
+
+        private final boolean newestFirst;
+
+        DateOrder(boolean newestFirst) {
+            this.newestFirst = newestFirst;
+        }
+
+        @Override
+        public int compare(NewsArticle first, NewsArticle second) {
+            long firstTime = first.getTime();
+            long secondTime = second.getTime();
+            if (firstTime == secondTime) {
+                return 0;
+            } else if (firstTime == IsoDate.NO_DATE || secondTime == IsoDate.NO_DATE) {
+                return firstTime == IsoDate.NO_DATE ? 1 : -1;
+            }
+            boolean before = newestFirst ? firstTime > secondTime : firstTime < secondTime;
+            return before ? -1 : 1;
+        }
+    }
+
+    /**
+     * This class is the position reached in one of the merged lists.
+     */
+    private static final class Cursor {
+
+        final List<NewsArticle> articles;
+        final int source;
+        int position;
+
+        Cursor(List<NewsArticle> articles, int source) {
+            this.articles = articles;
+            this.source = source;
+        }
+
+        NewsArticle head() {
+            return articles.get(position);
+        }
+    }
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private ArticleMerger() {
+        throw new AssertionError("The ArticleMerger cannot be instantiated.");
+    }
+
+    /**
+     * This method sorts a list of articles by date in place. The sort is
+     * stable, so articles of the same date keep their order.
+     *
+     * @param articles The articles, which must be modifiable.
+     * @param newestFirst Whether the newest or the oldest articles come first.
+     */
+    public static void sortByDate(List<NewsArticle> articles, boolean newestFirst) {
+        Collections.sort(articles, newestFirst ? NEWEST_FIRST : OLDEST_FIRST);
+    }
+
+    /**
+     * This method merges lists of articles by date, newest first, dropping
+     * duplicate urls.
+     *
+     * @param sources The lists to merge, in order of preference. They are not changed.
+     * @return The merged articles.
+     */
+    public static List<NewsArticle> merge(List<List<NewsArticle>> sources) {
+        return merge(sources, true);
+    }
+
+    /**
+     * This method merges lists of articles by date, dropping duplicate urls.
+     *
+     * @param sources The lists to merge, in order of preference. They are not changed.
+     * @param newestFirst Whether the newest or the oldest articles come first.
+     * @return The merged articles.
+     */
+    public static List<NewsArticle> merge(List<List<NewsArticle>> sources, boolean newestFirst) {
+        final Comparator<NewsArticle> order = newestFirst ? NEWEST_FIRST : OLDEST_FIRST;
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, sources.size()), new Comparator<Cursor>() {
+            @Override
+            public int compare(Cursor first, Cursor second) {
+                int result = order.compare(first.head(), second.head());
+                return result != 0 ? result : (first.source < second.source ? -1 : 1);
+            }
+        });
+
+        int total = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            List<NewsArticle> source = sources.get(i);
+            if (source == null || source.isEmpty()) {
+                continue;
+            }
+
+            List<NewsArticle> sorted = new ArrayList<>(source);
+            sortByDate(sorted, newestFirst);
+            heads.add(new Cursor(sorted, i));
+            total += sorted.size();
+        }
+
+        List<NewsArticle> merged = new ArrayList<>(total);
+        Set<String> urls = new HashSet<>();
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            NewsArticle article = cursor.head();
+            if (article.getUrl() == null || urls.add(article.getUrl())) {
+                merged.add(article);
+            }
+
+            cursor.position++;
+            if (cursor.position < cursor.articles.size()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+}
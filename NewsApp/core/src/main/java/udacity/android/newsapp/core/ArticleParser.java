@@ -0,0 +1,54 @@
+package udacity.android.newsapp.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This interface represents a strategy for turning the body of a Guardian
+ * search response into a List of NewsArticles. Implementations read the
+ * response directly from the InputStream of the connection, and can hand
+ * each article to a listener as soon as it has been read. Parsers hold
+ * no state between calls and may be shared by several threads.
+ *
+ * @author Joseph Stewart
+ * @version 1.2
+ */
+public interface ArticleParser {
+
+    /**
+     * This interface receives the articles of a response one at a time,
+     * on the thread that parses it.
+     */
+    interface Listener {
+
+        /**
+         * This method is called each time an article has been parsed.
+         *
+         * @param article The article.
+         */
+        void onArticleParsed(NewsArticle article);
+    }
+
+    /**
+     * This method parses the JSON response in the passed in stream.
+     *
+     * @param inputStream The response body. It is not closed by this method.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or is not valid JSON.
+     */
+    List<NewsArticle> parse(InputStream inputStream) throws IOException;
+
+    /**
+     * This method parses the JSON response in the passed in stream and
+     * hands each article to the listener as it is parsed.
+     *
+     * @param inputStream The response body. It is not closed by this method.
+     * @param listener The listener, or null.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or is not valid JSON.
+     */
+    List<NewsArticle> parse(InputStream inputStream, Listener listener) throws IOException;
+}
@@ -0,0 +1,349 @@
+package udacity.android.newsapp.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class is an in-memory inverted index over the titles and sections
+ * of articles, so searches can be answered without the network. Titles
+ * and sections are split into lower case tokens, and each token maps to
+ * the articles containing it. The tokens are kept sorted, so a query token
+ * also matches every indexed token it is a prefix of, which lets partly
+ * typed words find results. An article must match every query token. The
+ * results are ranked by how rare the matched tokens are, with title
+ * matches and whole word matches counting more, and newer articles first
+ * when scores are equal.
+ *
+ * Articles are identified by url. Adding an article that is already
+ * indexed replaces it, and once most of the index is made up of replaced
+ * articles it is rebuilt from the current ones. All methods are thread
+ * safe.
+ *
+ * @author Joseph Stewart
+ * @version 1.2
+ */
+public class ArticleSearchIndex {
+
+    // Weight of a token occurring in the title and in the section
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float SECTION_WEIGHT = 1f;
+
+    // Share of the weight given when a query token only matches the start of a token
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    // The index is only rebuilt once it holds at least this many replaced documents
+    private static final int MIN_COMPACT_REMOVED = 64;
+
+    // Indexed articles by document id, and the ids by url
+    private final List<NewsArticle> documents = new ArrayList<>();
+    private final Map<String, Integer> documentIds = new HashMap<>();
+
+    // Documents replaced by a newer version, skipped by searches
+    private final BitSet removed = new BitSet();
+    private int removedCount;
+
+    // Postings of every token, sorted so prefixes can be looked up as ranges
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+
+    /**
+     * This class lists the documents containing a token, in increasing
+     * document id, with the weight of the token in each of them.
+     */
+    private static final class Postings {
+        int[] documents = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int document, float weight) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            documents[size] = document;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * This method adds articles to the index. Articles without a url
+     * cannot be told apart and are not indexed.
+     *
+     * @param articles The articles to add.
+     */
+    public synchronized void addAll(List<NewsArticle> articles) {
+        for (int i = 0; i < articles.size(); i++) {
+            add(articles.get(i));
+        }
+    }
+
+    /**
+     * This method adds an article to the index, replacing the article
+     * with the same url if there is one.
+     *
+     * @param article The article to add.
+     */
+    public synchronized void add(NewsArticle article) {
+        String url = article.getUrl();
+        if (url == null) {
+            return;
+        }
+
+        Integer existing = documentIds.get(url);
+        if (existing != null) {
+            NewsArticle previous = documents.get(existing);
+            if (equal(previous.getTitle(), article.getTitle())
+                    && equal(previous.getSection(), article.getSection())) {
+                // Same tokens, only the stored article needs updating
+                documents.set(existing, article);
+                return;
+            }
+            removed.set(existing);
+            removedCount++;
+        }
+
+        int document = documents.size();
+        documents.add(article);
+        documentIds.put(url, document);
+
+        // Sum the weights of each token in the article before posting them
+        Map<String, Float> weights = new HashMap<>();
+        addTokens(weights, article.getTitle(), TITLE_WEIGHT);
+        addTokens(weights, article.getSection(), SECTION_WEIGHT);
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            Postings tokenPostings = postings.get(entry.getKey());
+            if (tokenPostings == null) {
+                tokenPostings = new Postings();
+                postings.put(entry.getKey(), tokenPostings);
+            }
+            tokenPostings.add(document, entry.getValue());
+        }
+
+        if (removedCount >= MIN_COMPACT_REMOVED && removedCount * 2 > documents.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * This method rebuilds the index from the articles that have not been
+     * replaced, dropping the documents and postings of the replaced ones.
+     */
+    private void compact() {
+        List<NewsArticle> current = new ArrayList<>(documents.size() - removedCount);
+        for (int document = 0; document < documents.size(); document++) {
+            if (!removed.get(document)) {
+                current.add(documents.get(document));
+            }
+        }
+
+        documents.clear();
+        documentIds.clear();
+        removed.clear();
+        removedCount = 0;
+        postings.clear();
+        for (int i = 0; i < current.size(); i++) {
+            add(current.get(i));
+        }
+    }
+
+    /**
+     * Returns the number of indexed articles.
+     *
+     * @return The number of articles.
+     */
+    public synchronized int size() {
+        return documentIds.size();
+    }
+
+    /**
+     * Returns the number of documents in the index, including the
+     * replaced ones that have not been compacted away yet.
+     *
+     * @return The number of documents.
+     */
+    synchronized int getDocumentCount() {
+        return documents.size();
+    }
+
+    /**
+     * This method finds the articles matching every token of the query.
+     *
+     * @param query The search text.
+     * @param limit The maximum number of results.
+     * @return The matching articles, best match first.
+     */
+    public synchronized List<NewsArticle> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || documents.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int documentCount = documents.size();
+        final float[] scores = new float[documentCount];
+        int[] matchedTokens = new int[documentCount];
+
+        for (int t = 0; t < queryTokens.size(); t++) {
+            String token = queryTokens.get(t);
+            NavigableMap<String, Postings> matches =
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false);
+
+            // Current documents matching this query token, to weigh the token by its rarity
+            BitSet matchedDocuments = new BitSet(documentCount);
+            for (Postings tokenPostings : matches.values()) {
+                for (int i = 0; i < tokenPostings.size; i++) {
+                    matchedDocuments.set(tokenPostings.documents[i]);
+                }
+            }
+            matchedDocuments.andNot(removed);
+            float idf = (float) Math.log(1.0 + (double) (documentCount - removedCount)
+                    / Math.max(1, matchedDocuments.cardinality()));
+
+            for (Map.Entry<String, Postings> match : matches.entrySet()) {
+                float factor = match.getKey().equals(token) ? idf : idf * PREFIX_MATCH_FACTOR;
+                Postings tokenPostings = match.getValue();
+                for (int i = 0; i < tokenPostings.size; i++) {
+                    int document = tokenPostings.documents[i];
+                    if (matchedTokens[document] == t) {
+                        // First match of this query token in the document
+                        matchedTokens[document] = t + 1;
+                    }
+                    if (matchedTokens[document] == t + 1) {
+                        scores[document] += tokenPostings.weights[i] * factor;
+                    }
+                }
+            }
+        }
+
+        // Keep the documents that matched every query token
+        List<Integer> results = new ArrayList<>();
+        for (int document = 0; document < documentCount; document++) {
+            if (matchedTokens[document] == queryTokens.size() && !removed.get(document)) {
+                results.add(document);
+            }
+        }
+
+        Collections.sort(results, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                int byScore = Float.compare(scores[second], scores[first]);
+                if (byScore != 0) {
+                    return byScore;
+                }
+                // Newer first, the dates were parsed when the articles were created
+                long firstTime = documents.get(first).getTime();
+                long secondTime = documents.get(second).getTime();
+                return firstTime > secondTime ? -1 : (firstTime == secondTime ? 0 : 1);
+            }
+        });
+
+        List<NewsArticle> articles = new ArrayList<>(Math.min(limit, results.size()));
+        for (int i = 0; i < results.size() && i < limit; i++) {
+            articles.add(documents.get(results.get(i)));
+        }
+        return articles;
+    }
+
+    /**
+     * This method splits text into lower case tokens of letters and digits.
+     *
+     * @param text The text, may be null.
+     * @return The tokens in the order they appear.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * This method keeps the articles whose title or section has a token
+     * starting with each of the tokens of the query, so sources that cannot
+     * be searched can be filtered by the same rules as the index.
+     *
+     * @param articles The articles.
+     * @param query The search text.
+     * @return The matching articles in their original order.
+     */
+    public static List<NewsArticle> filter(List<NewsArticle> articles, String query) {
+        List<String> queryTokens = tokenize(query);
+        List<NewsArticle> matches = new ArrayList<>();
+        for (NewsArticle article : articles) {
+            List<String> tokens = tokenize(article.getTitle());
+            tokens.addAll(tokenize(article.getSection()));
+            if (matchesAll(tokens, queryTokens)) {
+                matches.add(article);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns whether every query token is the start of one of the tokens.
+     *
+     * @param tokens The tokens of an article.
+     * @param queryTokens The query tokens.
+     * @return true if all query tokens match.
+     */
+    private static boolean matchesAll(List<String> tokens, List<String> queryTokens) {
+        for (String queryToken : queryTokens) {
+            boolean found = false;
+            for (int i = 0; i < tokens.size() && !found; i++) {
+                found = tokens.get(i).startsWith(queryToken);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method adds the weight of each token of a field to the weights of the document.
+     *
+     * @param weights The token weights of the document.
+     * @param field The text of the field, may be null.
+     * @param weight The weight of a token in this field.
+     */
+    private static void addTokens(Map<String, Float> weights, String field, float weight) {
+        for (String token : tokenize(field)) {
+            Float current = weights.get(token);
+            weights.put(token, current == null ? weight : current + weight);
+        }
+    }
+
+    /**
+     * This method compares two Strings that may be null.
+     *
+     * @param first The first String.
+     * @param second The second String.
+     * @return true if both are null or equal.
+     */
+    private static boolean equal(String first, String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+}
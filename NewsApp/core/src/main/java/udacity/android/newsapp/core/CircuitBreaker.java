@@ -0,0 +1,151 @@
+package udacity.android.newsapp.core;
+
+/**
+ * This class stops requests to a server that keeps failing, so the app
+ * serves what it has cached straight away instead of waiting for every
+ * request to time out. After a number of failures in a row the circuit
+ * opens and requests are refused. Once the open period is over a single
+ * trial request is let through: if it succeeds the circuit closes again,
+ * otherwise it opens for twice as long, up to a maximum. A server asking
+ * clients to slow down can also open the circuit until a given time.
+ * A trial request that ends without an answer, because it was cancelled,
+ * gives its turn back so the next request can be the trial instead.
+ * Times are passed in so the breaker does not depend on a clock. All
+ * methods are thread safe.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class CircuitBreaker {
+
+    /**
+     * The states of the circuit.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long maxOpenMillis;
+
+    private State state = State.CLOSED;
+    private int failures;
+
+    // Number of times the circuit opened since it last closed
+    private int openings;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    /**
+     * Constructor
+     *
+     * @param failureThreshold The number of failures in a row that opens the circuit.
+     * @param openMillis How long the circuit stays open the first time.
+     * @param maxOpenMillis The longest the circuit stays open.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, long maxOpenMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.maxOpenMillis = maxOpenMillis;
+    }
+
+    /**
+     * This method decides whether a request may be made. When it returns
+     * true, one of onSuccess, onFailure or onCancelled must be called once
+     * the request is over, or a trial request blocks every later one.
+     *
+     * @param nowMillis The current time.
+     * @return true if the request may be made.
+     */
+    public synchronized boolean allowRequest(long nowMillis) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowMillis < openUntil) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                // Only one trial request at a time
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * This method records a successful request, which closes the circuit.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        openings = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * This method records a failed request, opening the circuit if the
+     * failure was the trial request or one too many in a row.
+     *
+     * @param nowMillis The current time.
+     */
+    public synchronized void onFailure(long nowMillis) {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            // Stop doubling before the shift overflows
+            long duration = openings >= Long.numberOfLeadingZeros(openMillis) - 1
+                    ? maxOpenMillis : Math.min(maxOpenMillis, openMillis << openings);
+            openings++;
+            open(nowMillis + duration);
+        }
+    }
+
+    /**
+     * This method records a request that ended without telling whether the
+     * server works, such as a cancelled one. A trial request gives up its
+     * turn, so the next request is let through as the trial.
+     */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * This method opens the circuit until the passed in time at least,
+     * for a server that asked clients to wait.
+     *
+     * @param untilMillis The time requests may be made again.
+     */
+    public synchronized void openUntil(long untilMillis) {
+        open(untilMillis);
+    }
+
+    /**
+     * Returns the state of the circuit.
+     *
+     * @return The state.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * This method opens the circuit.
+     *
+     * @param untilMillis The end of the open period.
+     */
+    private void open(long untilMillis) {
+        openUntil = state == State.OPEN ? Math.max(openUntil, untilMillis) : untilMillis;
+        state = State.OPEN;
+        trialInFlight = false;
+    }
+}
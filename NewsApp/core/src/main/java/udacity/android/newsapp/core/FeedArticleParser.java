@@ -0,0 +1,338 @@
+package udacity.android.newsapp.core;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import udacity.android.newsapp.model.IsoDate;
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class parses RSS 2.0 and Atom feeds with a SAX parser, which reads
+ * the feed straight from the InputStream without building a document.
+ * Items and entries become NewsArticles with the title, link, date and
+ * first category of the item, or the title of the feed when it has no
+ * category, and the url of a media thumbnail or image enclosure. Dates
+ * are converted to the UTC ISO 8601 timestamps the Guardian API uses, so
+ * articles of every source can be compared by date. Each article is handed
+ * to the listener as soon as its item has been read.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class FeedArticleParser implements ArticleParser {
+
+    // RFC 822 dates of RSS, with and without the day of the week and seconds
+    private static final String[] RFC_822_PATTERNS = {
+            "EEE, d MMM yyyy HH:mm:ss z", "d MMM yyyy HH:mm:ss z",
+            "EEE, d MMM yyyy HH:mm z", "d MMM yyyy HH:mm z"};
+
+    private static final String ISO_8601_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+    private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+
+    /**
+     * This method parses the feed in the passed in stream.
+     *
+     * @param inputStream The feed. It is not closed by this method.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or is not a valid feed.
+     */
+    @Override
+    public List<NewsArticle> parse(InputStream inputStream) throws IOException {
+        return parse(inputStream, null);
+    }
+
+    /**
+     * This method parses the feed in the passed in stream and hands each
+     * article to the listener as it is parsed.
+     *
+     * @param inputStream The feed. It is not closed by this method.
+     * @param listener The listener, or null.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or is not a valid feed.
+     */
+    @Override
+    public List<NewsArticle> parse(InputStream inputStream, Listener listener) throws IOException {
+        FeedHandler handler = new FeedHandler(listener);
+        try {
+            newParser().parse(new InputSource(inputStream), handler);
+        } catch (SAXException e) {
+            throw new IOException("Invalid feed: " + e.getMessage(), e);
+        }
+        return handler.articles;
+    }
+
+    /**
+     * This method creates a namespace aware SAX parser that does not load
+     * external entities.
+     *
+     * @return The parser.
+     * @throws IOException Thrown if no parser is available.
+     */
+    private static SAXParser newParser() throws IOException {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            disableFeature(factory, "http://xml.org/sax/features/external-general-entities");
+            disableFeature(factory, "http://xml.org/sax/features/external-parameter-entities");
+            return factory.newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("No feed parser available", e);
+        }
+    }
+
+    /**
+     * This method turns off a feature of the parser if it is supported.
+     *
+     * @param factory The parser factory.
+     * @param feature The feature.
+     * @throws ParserConfigurationException Thrown if the factory cannot be configured.
+     */
+    private static void disableFeature(SAXParserFactory factory, String feature)
+            throws ParserConfigurationException {
+        try {
+            factory.setFeature(feature, false);
+        } catch (SAXException e) {
+            // Parsers that do not know the feature do not load entities either
+        }
+    }
+
+    /**
+     * This class collects the items of a feed while it is parsed.
+     */
+    private static final class FeedHandler extends DefaultHandler {
+
+        final List<NewsArticle> articles = new ArrayList<>();
+        private final Listener listener;
+
+        // Date formats are not thread safe, so each parse has its own
+        private final SimpleDateFormat[] rfc822Formats = new SimpleDateFormat[RFC_822_PATTERNS.length];
+        private final SimpleDateFormat isoFormat = new SimpleDateFormat(ISO_8601_PATTERN, Locale.US);
+
+        private final StringBuilder text = new StringBuilder();
+        private boolean capturing;
+
+        private String feedTitle;
+        private NewsArticle item;
+        private String guid;
+
+        FeedHandler(Listener listener) {
+            this.listener = listener;
+            for (int i = 0; i < RFC_822_PATTERNS.length; i++) {
+                rfc822Formats[i] = new SimpleDateFormat(RFC_822_PATTERNS[i], Locale.US);
+            }
+            isoFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            String name = localName.isEmpty() ? qName : localName;
+            if ("item".equals(name) || "entry".equals(name)) {
+                item = new NewsArticle();
+                guid = null;
+                return;
+            }
+
+            if (item == null) {
+                capturing = "title".equals(name) && feedTitle == null;
+            } else if ("link".equals(name) && attributes.getValue("href") != null) {
+                // Atom links are attributes, the alternate one is the article
+                String rel = attributes.getValue("rel");
+                if ((rel == null || "alternate".equals(rel)) && item.getUrl() == null) {
+                    item.setUrl(attributes.getValue("href"));
+                }
+            } else if ("category".equals(name) && attributes.getValue("term") != null) {
+                if (item.getSection() == null) {
+                    item.setSection(attributes.getValue("term"));
+                }
+            } else if ("thumbnail".equals(name) || "content".equals(name) || "enclosure".equals(name)) {
+                readImage(name, attributes);
+                capturing = false;
+            } else {
+                capturing = isItemText(name);
+            }
+            text.setLength(0);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (capturing) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            String name = localName.isEmpty() ? qName : localName;
+            if (item == null) {
+                if (capturing && "title".equals(name)) {
+                    feedTitle = text.toString().trim();
+                }
+                capturing = false;
+                return;
+            }
+
+            if ("item".equals(name) || "entry".equals(name)) {
+                finishItem();
+                return;
+            }
+
+            if (capturing) {
+                setField(name, text.toString().trim());
+            }
+            capturing = false;
+        }
+
+        /**
+         * Returns whether the text of an element of an item is kept.
+         *
+         * @param name The local name of the element.
+         * @return true if it is one of the fields of the article.
+         */
+        private boolean isItemText(String name) {
+            return "title".equals(name) || "link".equals(name) || "guid".equals(name)
+                    || "category".equals(name) || "pubDate".equals(name) || "published".equals(name)
+                    || "updated".equals(name) || "date".equals(name);
+        }
+
+        /**
+         * This method sets a field of the current item from the text of an element.
+         *
+         * @param name The local name of the element.
+         * @param value The text of the element.
+         */
+        private void setField(String name, String value) {
+            if (value.isEmpty()) {
+                return;
+            }
+
+            if ("title".equals(name)) {
+                item.setTitle(value);
+            } else if ("link".equals(name)) {
+                item.setUrl(value);
+            } else if ("guid".equals(name)) {
+                guid = value;
+            } else if ("category".equals(name)) {
+                if (item.getSection() == null) {
+                    item.setSection(value);
+                }
+            } else if (item.getDate() == null || "published".equals(name) || "pubDate".equals(name)) {
+                // The publication date is preferred over the date of the last update
+                String date = toIsoDate(value);
+                if (date != null) {
+                    item.setDate(date);
+                }
+            }
+        }
+
+        /**
+         * This method keeps the url of the first image attached to the item.
+         *
+         * @param name The local name of the element.
+         * @param attributes The attributes of the element.
+         */
+        private void readImage(String name, Attributes attributes) {
+            String url = attributes.getValue("url");
+            if (url == null || item.getThumbnailUrl() != null) {
+                return;
+            }
+
+            String type = attributes.getValue("type");
+            String medium = attributes.getValue("medium");
+            boolean image = "thumbnail".equals(name) || "image".equals(medium)
+                    || (type != null && type.startsWith("image/"));
+            if (image) {
+                item.setThumbnailUrl(url);
+            }
+        }
+
+        /**
+         * This method completes the current item and hands it to the listener.
+         */
+        private void finishItem() {
+            if (item.getUrl() == null && guid != null && guid.startsWith("http")) {
+                item.setUrl(guid);
+            }
+            if (item.getSection() == null) {
+                item.setSection(feedTitle);
+            }
+
+            articles.add(item);
+            if (listener != null) {
+                listener.onArticleParsed(item);
+            }
+            item = null;
+            capturing = false;
+        }
+
+        /**
+         * This method converts an RFC 822 or ISO 8601 date to a UTC ISO 8601 timestamp.
+         *
+         * @param value The date of the feed.
+         * @return The timestamp, or null if the date could not be read.
+         */
+        private String toIsoDate(String value) {
+            long millis = IsoDate.parse(value);
+            if (millis != IsoDate.NO_DATE) {
+                millis -= zoneOffsetMinutes(value) * MILLIS_PER_MINUTE;
+                return isoFormat.format(new Date(millis));
+            }
+
+            for (SimpleDateFormat format : rfc822Formats) {
+                try {
+                    return isoFormat.format(format.parse(value));
+                } catch (ParseException e) {
+                    // Try the next pattern
+                }
+            }
+            return null;
+        }
+
+        /**
+         * This method reads the zone offset after the time of an ISO 8601 date.
+         *
+         * @param value The date.
+         * @return The offset from UTC in minutes, 0 for UTC or no offset.
+         */
+        private static int zoneOffsetMinutes(String value) {
+            // The offset follows the seconds and any fraction of a second
+            int index = 19;
+            while (index < value.length() && (value.charAt(index) == '.'
+                    || Character.isDigit(value.charAt(index)))) {
+                index++;
+            }
+            if (index + 6 > value.length()) {
+                return 0;
+            }
+
+            char sign = value.charAt(index);
+            if ((sign != '+' && sign != '-') || value.charAt(index + 3) != ':') {
+                return 0;
+            }
+            try {
+                int hours = Integer.parseInt(value.substring(index + 1, index + 3));
+                int minutes = Integer.parseInt(value.substring(index + 4, index + 6));
+                int offset = hours * 60 + minutes;
+                return sign == '-' ? -offset : offset;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package udacity.android.newsapp.core;
+
+import java.util.Random;
+
+/**
+ * This class works out how long to wait before retrying a request. The
+ * longest wait doubles with each retry up to a cap, and the actual wait is
+ * picked at random below it, so clients that failed at the same moment do
+ * not all retry at the same moment again.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class JitteredBackoff {
+
+    private final long baseMillis;
+    private final long maxMillis;
+    private final Random random;
+
+    /**
+     * Constructor
+     *
+     * @param baseMillis The longest wait before the first retry.
+     * @param maxMillis The longest wait before any retry.
+     */
+    public JitteredBackoff(long baseMillis, long maxMillis) {
+        this(baseMillis, maxMillis, new Random());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param baseMillis The longest wait before the first retry.
+     * @param maxMillis The longest wait before any retry.
+     * @param random The source of the jitter.
+     */
+    public JitteredBackoff(long baseMillis, long maxMillis, Random random) {
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+        this.random = random;
+    }
+
+    /**
+     * Returns how long to wait before a retry.
+     *
+     * @param retry The number of retries made before this one, starting at 0.
+     * @return The wait in milliseconds.
+     */
+    public long getDelayMillis(int retry) {
+        // Stop doubling before the shift overflows
+        long cap = retry >= Long.numberOfLeadingZeros(baseMillis) - 1
+                ? maxMillis : Math.min(maxMillis, baseMillis << retry);
+        return (long) (random.nextDouble() * (cap + 1));
+    }
+}
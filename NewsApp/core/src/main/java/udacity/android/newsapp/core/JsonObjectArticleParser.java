@@ -0,0 +1,110 @@
+package udacity.android.newsapp.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class parses a Guardian search response by reading the whole body
+ * into a String and building a JSONObject tree from it. It is kept as a
+ * reference implementation to compare against the StreamingArticleParser.
+ * As the whole body is read first, a listener receives every article at
+ * once after the download has finished.
+ * It relies on the org.json classes that Android provides, which other
+ * platforms have to add as a library.
+ *
+ * @author Joseph Stewart
+ * @version 1.3
+ */
+public class JsonObjectArticleParser implements ArticleParser {
+
+    /**
+     * This method reads the response into a JSONObject and extracts
+     * the articles from its results array.
+     *
+     * @param inputStream The response body.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or parsed.
+     */
+    @Override
+    public List<NewsArticle> parse(InputStream inputStream) throws IOException {
+        return parse(inputStream, null);
+    }
+
+    /**
+     * This method reads the response into a JSONObject and extracts the
+     * articles from its results array, handing each to the listener.
+     *
+     * @param inputStream The response body.
+     * @param listener The listener, or null.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or parsed.
+     */
+    @Override
+    public List<NewsArticle> parse(InputStream inputStream, Listener listener) throws IOException {
+        String jsonResponse = readFromStream(inputStream);
+
+        try {
+            // Create a JSONObject from the received string response
+            JSONObject response = new JSONObject(jsonResponse);
+
+            // Extract the data from the response
+            JSONObject responseObject = response.getJSONObject(ResponseKeys.RESPONSE);
+            JSONArray resultsArray = responseObject.getJSONArray(ResponseKeys.RESULTS);
+
+            List<NewsArticle> articles = new ArrayList<>(resultsArray.length());
+
+            // Traverse the results of the JSON array
+            for (int i = 0; i < resultsArray.length(); i++) {
+                JSONObject articleObject = resultsArray.getJSONObject(i);
+                JSONObject fieldsObject = articleObject.optJSONObject(ResponseKeys.FIELDS);
+
+                // Construct and add a new NewsArticle object from the data
+                NewsArticle article = new NewsArticle(
+                        articleObject.optString(ResponseKeys.TITLE, null),
+                        articleObject.optString(ResponseKeys.DATE, null),
+                        articleObject.optString(ResponseKeys.SECTION, null),
+                        articleObject.optString(ResponseKeys.URL, null),
+                        fieldsObject == null ? null : fieldsObject.optString(ResponseKeys.THUMBNAIL, null));
+                articles.add(article);
+                if (listener != null) {
+                    listener.onArticleParsed(article);
+                }
+            }
+            return articles;
+        } catch (JSONException e) {
+            throw new IOException("Problem parsing the JSON results", e);
+        }
+    }
+
+    /**
+     * This method reads and inputStream and converts it into a string.
+     *
+     * @param inputStream The inputStream to be read.
+     * @return Returns the string representation of the inputStream.
+     * @throws IOException Thrown if there is a problem reading from the input stream.
+     */
+    static String readFromStream(InputStream inputStream) throws IOException {
+        StringBuilder output = new StringBuilder();
+        if (inputStream != null) {
+            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, Charset.forName("UTF-8"));
+            BufferedReader reader = new BufferedReader(inputStreamReader);
+            String line = reader.readLine();
+            while (line != null) {
+                output.append(line);
+                line = reader.readLine();
+            }
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,433 @@
+package udacity.android.newsapp.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * This class reads a JSON document one token at a time. It only provides
+ * what the article parsers need: walking objects and arrays, matching
+ * names against a set of known keys, reading string values and skipping
+ * everything else. Names are compared inside a reusable buffer, so
+ * matching a key or skipping an unknown field creates no objects.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+final class JsonPullParser {
+
+    // Returned by nextName when the name is not one of the passed in keys
+    static final int UNKNOWN_NAME = -1;
+
+    // Scopes of the values that are currently open
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Used to skip names without matching them
+    private static final String[] NO_KEYS = new String[0];
+
+    private final Reader reader;
+
+    // Characters read ahead from the reader
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Number of characters consumed before the buffer, for error messages
+    private long offset;
+
+    // The last name or string read
+    private char[] text = new char[128];
+    private int textLength;
+
+    private int[] scopes = new int[16];
+    private int depth = 1;
+
+    /**
+     * Constructor
+     *
+     * @param reader The reader of the document. It is not closed by this class.
+     */
+    JsonPullParser(Reader reader) {
+        this.reader = reader;
+        scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * This method consumes the start of an object.
+     *
+     * @throws IOException Thrown if the next value is not an object.
+     */
+    void beginObject() throws IOException {
+        beforeValue();
+        expect('{');
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * This method consumes the end of the current object.
+     *
+     * @throws IOException Thrown if the object has more members.
+     */
+    void endObject() throws IOException {
+        int scope = scopes[depth - 1];
+        if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) {
+            throw syntaxError("Not in an object");
+        }
+        expect('}');
+        depth--;
+    }
+
+    /**
+     * This method consumes the start of an array.
+     *
+     * @throws IOException Thrown if the next value is not an array.
+     */
+    void beginArray() throws IOException {
+        beforeValue();
+        expect('[');
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * This method consumes the end of the current array.
+     *
+     * @throws IOException Thrown if the array has more elements.
+     */
+    void endArray() throws IOException {
+        int scope = scopes[depth - 1];
+        if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY) {
+            throw syntaxError("Not in an array");
+        }
+        expect(']');
+        depth--;
+    }
+
+    /**
+     * Returns whether the current object or array has another member.
+     *
+     * @return true if there is another member.
+     * @throws IOException Thrown if the stream cannot be read.
+     */
+    boolean hasNext() throws IOException {
+        int c = peek();
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    /**
+     * This method reads the name of the next member of the current object
+     * and looks it up in the passed in keys.
+     *
+     * @param keys The keys to look for.
+     * @return The index of the name in the keys or UNKNOWN_NAME.
+     * @throws IOException Thrown if the next token is not a name.
+     */
+    int nextName(String[] keys) throws IOException {
+        int scope = scopes[depth - 1];
+        if (scope == NONEMPTY_OBJECT) {
+            expect(',');
+        } else if (scope != EMPTY_OBJECT) {
+            throw syntaxError("Expected a value");
+        }
+        scopes[depth - 1] = DANGLING_NAME;
+
+        expect('"');
+        readString(true);
+
+        for (int i = 0; i < keys.length; i++) {
+            if (textEquals(keys[i])) {
+                return i;
+            }
+        }
+        return UNKNOWN_NAME;
+    }
+
+    /**
+     * This method reads the next value as a string. Numbers and booleans
+     * are returned as they appear in the document.
+     *
+     * @return The value or null for a JSON null.
+     * @throws IOException Thrown if the next value is an object or an array.
+     */
+    String nextString() throws IOException {
+        beforeValue();
+        int c = peek();
+        if (c == '"') {
+            position++;
+            readString(true);
+            return new String(text, 0, textLength);
+        } else if (c == '{' || c == '[') {
+            throw syntaxError("Expected a string");
+        }
+
+        readLiteral();
+        if (textEquals("null")) {
+            return null;
+        }
+        return new String(text, 0, textLength);
+    }
+
+    /**
+     * This method skips the next value, including everything nested in it.
+     *
+     * @throws IOException Thrown if the document is malformed.
+     */
+    void skipValue() throws IOException {
+        beforeValue();
+        int c = peek();
+        if (c == '{') {
+            position++;
+            push(EMPTY_OBJECT);
+            while (hasNext()) {
+                nextName(NO_KEYS);
+                skipValue();
+            }
+            endObject();
+        } else if (c == '[') {
+            position++;
+            push(EMPTY_ARRAY);
+            while (hasNext()) {
+                skipValue();
+            }
+            endArray();
+        } else if (c == '"') {
+            position++;
+            readString(false);
+        } else {
+            readLiteral();
+        }
+    }
+
+    /**
+     * This method consumes the separator in front of a value and
+     * records that the enclosing scope is no longer empty.
+     *
+     * @throws IOException Thrown if the separator is missing.
+     */
+    private void beforeValue() throws IOException {
+        switch (scopes[depth - 1]) {
+            case EMPTY_DOCUMENT:
+                scopes[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case EMPTY_ARRAY:
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                expect(',');
+                break;
+            case DANGLING_NAME:
+                expect(':');
+                scopes[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            default:
+                throw syntaxError("Expected a name");
+        }
+    }
+
+    /**
+     * This method reads the rest of a string whose opening quote has been
+     * consumed, decoding escape sequences.
+     *
+     * @param keep Whether to keep the characters in the text buffer.
+     * @throws IOException Thrown if the string is not terminated.
+     */
+    private void readString(boolean keep) throws IOException {
+        textLength = 0;
+        while (true) {
+            if (position == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+
+            char c = buffer[position++];
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                c = readEscape();
+            }
+            if (keep) {
+                append(c);
+            }
+        }
+    }
+
+    /**
+     * This method reads the character of an escape sequence whose
+     * backslash has been consumed.
+     *
+     * @return The escaped character.
+     * @throws IOException Thrown if the escape sequence is invalid.
+     */
+    private char readEscape() throws IOException {
+        if (position == limit && !fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+
+        char c = buffer[position++];
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (position == limit && !fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    int digit = Character.digit(buffer[position++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid escape sequence");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                // Quotes, backslashes and slashes stand for themselves
+                return c;
+        }
+    }
+
+    /**
+     * This method reads an unquoted value such as a number, true, false or null.
+     *
+     * @throws IOException Thrown if there is no value.
+     */
+    private void readLiteral() throws IOException {
+        textLength = 0;
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || isWhitespace(c)) {
+                break;
+            }
+            append(c);
+            position++;
+        }
+        if (textLength == 0) {
+            throw syntaxError("Expected a value");
+        }
+    }
+
+    /**
+     * This method adds a character to the text buffer, growing it if needed.
+     *
+     * @param c The character.
+     */
+    private void append(char c) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, textLength * 2);
+        }
+        text[textLength++] = c;
+    }
+
+    /**
+     * This method compares the text buffer with a String.
+     *
+     * @param value The String to compare with.
+     * @return true if they hold the same characters.
+     */
+    private boolean textEquals(String value) {
+        if (value.length() != textLength) {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if (text[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method skips whitespace and returns the next character without consuming it.
+     *
+     * @return The next character or -1 at the end of the document.
+     * @throws IOException Thrown if the stream cannot be read.
+     */
+    private int peek() throws IOException {
+        while (position < limit || fill()) {
+            char c = buffer[position];
+            if (!isWhitespace(c)) {
+                return c;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * This method consumes the next character, which must be the passed in one.
+     *
+     * @param expected The expected character.
+     * @throws IOException Thrown if a different character is found.
+     */
+    private void expect(char expected) throws IOException {
+        if (peek() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    /**
+     * This method opens a nested scope.
+     *
+     * @param scope The scope.
+     */
+    private void push(int scope) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth++] = scope;
+    }
+
+    /**
+     * This method reads the next characters from the reader into the buffer.
+     *
+     * @return false at the end of the stream.
+     * @throws IOException Thrown if the stream cannot be read.
+     */
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = 0;
+
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        limit = count;
+        return true;
+    }
+
+    /**
+     * Returns whether a character is JSON whitespace.
+     *
+     * @param c The character.
+     * @return true if the character is whitespace.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /**
+     * This method creates the exception thrown for a malformed document.
+     *
+     * @param message The description of the problem.
+     * @return The exception, including the offset of the problem.
+     */
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at character " + (offset + position));
+    }
+}
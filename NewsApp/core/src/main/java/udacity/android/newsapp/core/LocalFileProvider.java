@@ -0,0 +1,105 @@
+package udacity.android.newsapp.core;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class is a provider that reads its articles from a file, in any
+ * format one of the parsers reads, such as a saved Guardian response or
+ * feed. It stands in for a remote source in tests and benchmarks, and can
+ * be slowed down to see how a slow source is handled. The whole file is
+ * read on every query and filtered by the search text.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class LocalFileProvider implements NewsProvider {
+
+    private final String name;
+    private final File file;
+    private final ArticleParser parser;
+    private final long timeoutMillis;
+    private final long delayMillis;
+
+    /**
+     * Constructor
+     *
+     * @param name The name of the provider.
+     * @param file The file holding the articles.
+     * @param parser The parser that reads the file.
+     * @param timeoutMillis How long a query may take.
+     */
+    public LocalFileProvider(String name, File file, ArticleParser parser, long timeoutMillis) {
+        this(name, file, parser, timeoutMillis, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param name The name of the provider.
+     * @param file The file holding the articles.
+     * @param parser The parser that reads the file.
+     * @param timeoutMillis How long a query may take.
+     * @param delayMillis How long each query waits before reading the file.
+     */
+    public LocalFileProvider(String name, File file, ArticleParser parser,
+                             long timeoutMillis, long delayMillis) {
+        this.name = name;
+        this.file = file;
+        this.parser = parser;
+        this.timeoutMillis = timeoutMillis;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Returns the name of the provider.
+     *
+     * @return The name.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns how long a query may take.
+     *
+     * @return The timeout in milliseconds.
+     */
+    @Override
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * This method reads the articles of the file that match the search text.
+     *
+     * @param query The search text, all articles are returned if it is empty.
+     * @return The matching articles.
+     * @throws IOException Thrown if the file cannot be read or parsed, or the query is interrupted.
+     */
+    @Override
+    public List<NewsArticle> query(String query) throws IOException {
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Query of " + name + " interrupted", e);
+            }
+        }
+
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return ArticleSearchIndex.filter(parser.parse(inputStream), query);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package udacity.android.newsapp.core;
+
+import java.io.IOException;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This interface represents a source of articles that can be searched,
+ * such as the Guardian API, an RSS or Atom feed or a local file. Several
+ * providers are queried at the same time and their results merged by
+ * date, so each provider says how long it may take before its results
+ * are given up on. Queries are made on background threads and should
+ * give up when the thread is interrupted.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public interface NewsProvider {
+
+    /**
+     * Returns the name of the provider, used in logs.
+     *
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Returns how long a query may take before its results are given up on.
+     *
+     * @return The timeout in milliseconds.
+     */
+    long getTimeoutMillis();
+
+    /**
+     * This method returns the articles of the provider that match the search text.
+     *
+     * @param query The search text, all articles are returned if it is empty.
+     * @return The matching articles.
+     * @throws IOException Thrown if the source cannot be read.
+     */
+    List<NewsArticle> query(String query) throws IOException;
+}
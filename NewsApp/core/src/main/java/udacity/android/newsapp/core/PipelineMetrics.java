@@ -0,0 +1,224 @@
+package udacity.android.newsapp.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class collects where the time goes in the app, from a launch to
+ * the results of a search on the screen. There is one process-wide
+ * instance. Every Stage has a histogram of its durations and every
+ * Counter a running total, both kept in fixed arrays indexed by the enum,
+ * so they can be updated from any thread without locking.
+ *
+ * A stage is timed by taking a start time with now() and passing it to
+ * end() when the stage is over, which returns the time the next stage
+ * starts at, so timing a stage allocates nothing. The collected metrics
+ * can be written out as a text report and cleared with reset().
+ *
+ * @author Joseph Stewart
+ * @version 1.5
+ */
+public final class PipelineMetrics {
+
+    /**
+     * The stages of loading and displaying a search, in pipeline order.
+     */
+    public enum Stage {
+        URL_BUILD,
+        CONNECT,
+        FIRST_BYTE,
+        BODY_READ,
+        PARSE,
+        BIND,
+        FIRST_FRAME,
+        SEARCH_TO_FIRST_FRAME,
+        IMAGE_DECODE,
+        COLD_FIRST_FRAME,
+        COLD_FIRST_RESULT,
+        WARM_FIRST_FRAME,
+        WARM_FIRST_RESULT
+    }
+
+    /**
+     * The events counted while loading searches.
+     */
+    public enum Counter {
+        BYTES_READ,
+        MEMORY_CACHE_HITS,
+        DISK_CACHE_HITS,
+        NETWORK_REQUESTS,
+        NOT_MODIFIED,
+        RETRIES,
+        RATE_LIMITED,
+        CIRCUIT_REJECTIONS,
+        ERRORS,
+        IMAGE_MEMORY_HITS,
+        IMAGE_DISK_HITS,
+        IMAGE_DOWNLOADS,
+        BITMAPS_REUSED,
+        PROVIDER_TIMEOUTS
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Counter[] COUNTERS = Counter.values();
+
+    // The percentiles listed in the report
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    // Created after the arrays above, which the constructor uses
+    private static final PipelineMetrics INSTANCE = new PipelineMetrics();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length);
+
+    /**
+     * Private constructor, use getInstance.
+     */
+    private PipelineMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Returns the metrics of the process.
+     *
+     * @return The PipelineMetrics instance.
+     */
+    public static PipelineMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the current time to start timing a stage with.
+     *
+     * @return The time in nanoseconds.
+     */
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * This method records the duration of a stage that started at the
+     * passed in time and ends now.
+     *
+     * @param stage The stage.
+     * @param startNanos The time the stage started, from now().
+     * @return The time the stage ended, to start timing the next stage with.
+     */
+    public long end(Stage stage, long startNanos) {
+        long endNanos = now();
+        record(stage, endNanos - startNanos);
+        return endNanos;
+    }
+
+    /**
+     * This method records the duration of a stage.
+     *
+     * @param stage The stage.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * This method adds one to a counter.
+     *
+     * @param counter The counter.
+     */
+    public void increment(Counter counter) {
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    /**
+     * This method adds to a counter.
+     *
+     * @param counter The counter.
+     * @param amount The amount to add.
+     */
+    public void add(Counter counter, long amount) {
+        counters.addAndGet(counter.ordinal(), amount);
+    }
+
+    /**
+     * Returns the durations recorded for a stage.
+     *
+     * @param stage The stage.
+     * @return The histogram of the stage.
+     */
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * Returns the value of a counter.
+     *
+     * @param counter The counter.
+     * @return The value.
+     */
+    public long getCount(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    /**
+     * This method clears every histogram and counter.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * This method writes the stages and counters as a text report with
+     * one line per stage and per counter. Durations are in milliseconds.
+     *
+     * @param writer The writer to write the report to. It is not closed by this method.
+     * @throws IOException Thrown if the report cannot be written.
+     */
+    public void writeReport(Writer writer) throws IOException {
+        writer.write(String.format(Locale.ROOT, "%-22s %7s %9s %9s %9s %9s %9s%n",
+                "stage", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Stage stage : STAGES) {
+            LatencyHistogram histogram = getHistogram(stage);
+            writer.write(String.format(Locale.ROOT, "%-22s %7d %9s",
+                    name(stage), histogram.getCount(), millis(histogram.getMeanMicros())));
+            for (double percentile : PERCENTILES) {
+                writer.write(String.format(Locale.ROOT, " %9s",
+                        millis(histogram.getPercentileMicros(percentile))));
+            }
+            writer.write(String.format(Locale.ROOT, " %9s%n", millis(histogram.getMaxMicros())));
+        }
+
+        writer.write(String.format(Locale.ROOT, "%n%-22s %13s%n", "counter", "value"));
+        for (Counter counter : COUNTERS) {
+            writer.write(String.format(Locale.ROOT, "%-22s %13d%n", name(counter), getCount(counter)));
+        }
+    }
+
+    /**
+     * This method formats a duration in milliseconds with one decimal.
+     *
+     * @param micros The duration in microseconds.
+     * @return The formatted duration.
+     */
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+
+    /**
+     * Returns the name of a stage or counter as it appears in the report.
+     *
+     * @param value The stage or counter.
+     * @return The lower case name.
+     */
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
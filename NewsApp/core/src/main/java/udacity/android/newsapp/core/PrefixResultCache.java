@@ -0,0 +1,118 @@
+package udacity.android.newsapp.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class keeps the results of recent searches made while the user
+ * types, so they can be reused as the search text changes. Going back to
+ * a search text that was already searched returns its results directly,
+ * and a longer search text is answered straight away by filtering the
+ * results of the longest cached search text it starts with, until its
+ * own results arrive.
+ *
+ * Search texts are compared by their tokens, so case and spacing do not
+ * matter. Results are cached per scope, which stands for everything else
+ * that changes the results, such as the order and the sections. The
+ * least recently used searches are dropped first. All methods are thread
+ * safe.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public class PrefixResultCache {
+
+    private final Map<String, List<NewsArticle>> results;
+
+    /**
+     * Constructor
+     *
+     * @param maxSearches The number of searches to keep.
+     */
+    public PrefixResultCache(final int maxSearches) {
+        results = new LinkedHashMap<String, List<NewsArticle>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<NewsArticle>> eldest) {
+                return size() > maxSearches;
+            }
+        };
+    }
+
+    /**
+     * This method stores the results of a search.
+     *
+     * @param scope The scope of the search.
+     * @param query The search text.
+     * @param articles The results.
+     */
+    public synchronized void put(String scope, String query, List<NewsArticle> articles) {
+        String normalized = normalize(query);
+        if (!normalized.isEmpty()) {
+            results.put(key(scope, normalized), new ArrayList<>(articles));
+        }
+    }
+
+    /**
+     * This method returns the stored results of a search.
+     *
+     * @param scope The scope of the search.
+     * @param query The search text.
+     * @return The results, or null if the search is not cached.
+     */
+    public synchronized List<NewsArticle> get(String scope, String query) {
+        List<NewsArticle> articles = results.get(key(scope, normalize(query)));
+        return articles == null ? null : new ArrayList<>(articles);
+    }
+
+    /**
+     * This method finds the longest cached search text the passed in one
+     * starts with and returns the results of it that match every token
+     * of the passed in search text in their title or section.
+     *
+     * @param scope The scope of the search.
+     * @param query The search text.
+     * @return The matching results, or null if no prefix is cached.
+     */
+    public synchronized List<NewsArticle> getFromPrefix(String scope, String query) {
+        String normalized = normalize(query);
+        for (int end = normalized.length(); end > 0; end--) {
+            List<NewsArticle> articles = results.get(key(scope, normalized.substring(0, end)));
+            if (articles != null) {
+                return ArticleSearchIndex.filter(articles, normalized);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method joins the tokens of a search text with single spaces.
+     *
+     * @param query The search text.
+     * @return The normalized search text.
+     */
+    private static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder();
+        for (String token : ArticleSearchIndex.tokenize(query)) {
+            if (normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            normalized.append(token);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * This method builds the key of a search.
+     *
+     * @param scope The scope of the search.
+     * @param normalized The normalized search text.
+     * @return The key.
+     */
+    private static String key(String scope, String normalized) {
+        return scope + '\n' + normalized;
+    }
+}
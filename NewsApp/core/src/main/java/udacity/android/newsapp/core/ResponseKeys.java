@@ -0,0 +1,38 @@
+package udacity.android.newsapp.core;
+
+/**
+ * This class holds the JSON keys used to read the Guardian search and
+ * article responses. They are constants so the parsers compare against
+ * them directly instead of looking anything up while reading the fields
+ * of each article.
+ *
+ * @author Joseph Stewart
+ * @version 2.2
+ */
+public final class ResponseKeys {
+
+    // Keys of the enclosing objects
+    public static final String RESPONSE = "response";
+    public static final String RESULTS = "results";
+
+    // Keys of the article attributes
+    public static final String TITLE = "webTitle";
+    public static final String DATE = "webPublicationDate";
+    public static final String SECTION = "sectionName";
+    public static final String URL = "webUrl";
+
+    // Keys of the extra fields, requested with show-fields
+    public static final String FIELDS = "fields";
+    public static final String THUMBNAIL = "thumbnail";
+
+    // Keys of the body of a single article, requested with show-fields=body
+    public static final String CONTENT = "content";
+    public static final String BODY = "body";
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private ResponseKeys() {
+        throw new AssertionError("The ResponseKeys cannot be instantiated.");
+    }
+}
@@ -0,0 +1,189 @@
+package udacity.android.newsapp.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+/**
+ * This class parses a Guardian search response token by token straight
+ * from the InputStream. NewsArticles are created as soon as their object
+ * has been read and every field that is not needed is skipped, so the body
+ * is never held in memory as a String or a JSONObject tree. Field names are
+ * matched against the constant ResponseKeys without creating Strings. Each
+ * article is handed to the listener before the next one is read, so the
+ * first results can be shown while the rest of the body is downloading.
+ *
+ * @author Joseph Stewart
+ * @version 2.2
+ */
+public class StreamingArticleParser implements ArticleParser {
+
+    // Keys looked for at each level of the response
+    private static final String[] DOCUMENT_KEYS = {ResponseKeys.RESPONSE};
+    private static final String[] RESPONSE_KEYS = {ResponseKeys.RESULTS};
+    private static final String[] ARTICLE_KEYS = {
+            ResponseKeys.TITLE, ResponseKeys.DATE, ResponseKeys.SECTION, ResponseKeys.URL,
+            ResponseKeys.FIELDS};
+    private static final String[] FIELD_KEYS = {ResponseKeys.THUMBNAIL};
+
+    // Indexes of the article keys
+    private static final int TITLE = 0;
+    private static final int DATE = 1;
+    private static final int SECTION = 2;
+    private static final int URL = 3;
+    private static final int FIELDS = 4;
+
+    /**
+     * This method walks the response looking for the results array
+     * and reads each of its objects into a NewsArticle.
+     *
+     * @param inputStream The response body.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or parsed.
+     */
+    @Override
+    public List<NewsArticle> parse(InputStream inputStream) throws IOException {
+        return parse(inputStream, null);
+    }
+
+    /**
+     * This method walks the response looking for the results array and
+     * reads each of its objects into a NewsArticle, handing each one to
+     * the listener as soon as it has been read.
+     *
+     * @param inputStream The response body.
+     * @param listener The listener, or null.
+     * @return The populated List of NewsArticles.
+     * @throws IOException Thrown if the stream cannot be read or parsed.
+     */
+    @Override
+    public List<NewsArticle> parse(InputStream inputStream, Listener listener) throws IOException {
+        List<NewsArticle> articles = new ArrayList<>();
+        JsonPullParser reader = new JsonPullParser(new InputStreamReader(inputStream, Charset.forName("UTF-8")));
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName(DOCUMENT_KEYS) != JsonPullParser.UNKNOWN_NAME) {
+                readResponse(reader, articles, listener);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return articles;
+    }
+
+    /**
+     * This method reads the response object and hands its results
+     * array to readResults.
+     *
+     * @param reader The reader positioned at the response object.
+     * @param articles The list the articles are added to.
+     * @param listener The listener, or null.
+     * @throws IOException Thrown if there is a problem reading the stream.
+     */
+    private void readResponse(JsonPullParser reader, List<NewsArticle> articles, Listener listener)
+            throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName(RESPONSE_KEYS) != JsonPullParser.UNKNOWN_NAME) {
+                readResults(reader, articles, listener);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * This method reads each object of the results array.
+     *
+     * @param reader The reader positioned at the results array.
+     * @param articles The list the articles are added to.
+     * @param listener The listener, or null.
+     * @throws IOException Thrown if there is a problem reading the stream.
+     */
+    private void readResults(JsonPullParser reader, List<NewsArticle> articles, Listener listener)
+            throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            NewsArticle article = readArticle(reader);
+            articles.add(article);
+            if (listener != null) {
+                listener.onArticleParsed(article);
+            }
+        }
+        reader.endArray();
+    }
+
+    /**
+     * This method reads a single result object into a NewsArticle.
+     *
+     * @param reader The reader positioned at the result object.
+     * @return The constructed NewsArticle.
+     * @throws IOException Thrown if there is a problem reading the stream.
+     */
+    private NewsArticle readArticle(JsonPullParser reader) throws IOException {
+        // The desired article attributes
+        String title = null;
+        String date = null;
+        String section = null;
+        String url = null;
+        String thumbnailUrl = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName(ARTICLE_KEYS)) {
+                case TITLE:
+                    title = reader.nextString();
+                    break;
+                case DATE:
+                    date = reader.nextString();
+                    break;
+                case SECTION:
+                    section = reader.nextString();
+                    break;
+                case URL:
+                    url = reader.nextString();
+                    break;
+                case FIELDS:
+                    thumbnailUrl = readThumbnailUrl(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        return new NewsArticle(title, date, section, url, thumbnailUrl);
+    }
+
+    /**
+     * This method reads the fields object of a result, which holds the
+     * thumbnail url when it was requested with show-fields=thumbnail.
+     *
+     * @param reader The reader positioned at the fields object.
+     * @return The thumbnail url or null if the article has none.
+     * @throws IOException Thrown if there is a problem reading the stream.
+     */
+    private String readThumbnailUrl(JsonPullParser reader) throws IOException {
+        String thumbnailUrl = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName(FIELD_KEYS) != JsonPullParser.UNKNOWN_NAME) {
+                thumbnailUrl = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return thumbnailUrl;
+    }
+}
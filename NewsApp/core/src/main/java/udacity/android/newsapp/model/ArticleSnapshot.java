@@ -0,0 +1,443 @@
+package udacity.android.newsapp.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads a list of articles straight from a memory-mapped
+ * snapshot file, so the last results of a search can be shown the moment
+ * the app starts without reading or decoding the whole file first. The
+ * file starts with a header and a table of section names, followed by one
+ * fixed-width record per article and a blob of UTF-8 text:
+ *
+ * header:   magic, version, section count, article count, created at, blob offset
+ * sections: offset and length of each name in the blob
+ * records:  date, section id, flags, date label, and the offset and length
+ *           in the blob of the title, url and thumbnail url
+ * blob:     the UTF-8 bytes of all names, titles and urls
+ *
+ * As every record has the same size, the record of an article is found
+ * by its index, and its text is only decoded when the row is displayed,
+ * into a char buffer supplied by the caller. Only the section names,
+ * which are few, and the thumbnail urls, which are handed to the image
+ * pipeline as Strings on every bind, are decoded when the file is mapped.
+ * The file is read through absolute gets, so a snapshot can be read by
+ * several threads.
+ *
+ * @author Joseph Stewart
+ * @version 1.1
+ */
+public final class ArticleSnapshot {
+
+    private static final int MAGIC = 0x4E575353;
+    private static final int VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Length of the date part of the ISO timestamp, yyyy-MM-dd
+    private static final int DATE_LABEL_LENGTH = 10;
+
+    // Bytes of the header and of each entry of the section table
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 4 + 8 + 4;
+    private static final int SECTION_SIZE = 4 + 4;
+
+    // Layout of a record, padded to a multiple of eight bytes
+    private static final int DATE = 0;
+    private static final int SECTION = 8;
+    private static final int FLAGS = 10;
+    private static final int DATE_LABEL_SIZE = 11;
+    private static final int DATE_LABEL = 12;
+    private static final int TITLE = DATE_LABEL + DATE_LABEL_LENGTH;
+    private static final int URL = TITLE + 8;
+    private static final int THUMBNAIL = URL + 8;
+    private static final int RECORD_SIZE = 48;
+
+    // Bits of the flags byte
+    private static final int HAS_URL = 1;
+    private static final int HAS_THUMBNAIL = 1 << 1;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final long createdAt;
+    private final int recordsOffset;
+    private final int blobOffset;
+    private final String[] sections;
+    private final String[] thumbnailUrls;
+
+    /**
+     * Private constructor, use map or wrap.
+     *
+     * @param buffer The contents of the snapshot.
+     * @throws IOException Thrown if the contents are not a valid snapshot.
+     */
+    private ArticleSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an article snapshot");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported article snapshot version: " + buffer.getShort(4));
+        }
+
+        int sectionCount = buffer.getShort(6) & 0xFFFF;
+        size = buffer.getInt(8);
+        createdAt = buffer.getLong(12);
+        blobOffset = buffer.getInt(20);
+        recordsOffset = HEADER_SIZE + sectionCount * SECTION_SIZE;
+        if (size < 0 || blobOffset != recordsOffset + (long) size * RECORD_SIZE
+                || blobOffset > buffer.limit()) {
+            throw new IOException("Truncated article snapshot");
+        }
+
+        sections = new String[sectionCount];
+        for (int i = 0; i < sectionCount; i++) {
+            int entry = HEADER_SIZE + i * SECTION_SIZE;
+            sections[i] = decode(buffer.getInt(entry), buffer.getInt(entry + 4));
+        }
+
+        thumbnailUrls = new String[size];
+        for (int i = 0; i < size; i++) {
+            int record = record(i);
+            if ((buffer.get(record + FLAGS) & HAS_THUMBNAIL) != 0) {
+                thumbnailUrls[i] = decode(buffer.getInt(record + THUMBNAIL), buffer.getInt(record + THUMBNAIL + 4));
+            }
+        }
+    }
+
+    /**
+     * This method maps a snapshot file into memory. Only its header,
+     * section names and thumbnail urls are read.
+     *
+     * @param file The snapshot file.
+     * @return The snapshot.
+     * @throws IOException Thrown if the file cannot be mapped or is not a valid snapshot.
+     */
+    public static ArticleSnapshot map(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            // The mapping stays valid after the file is closed
+            return new ArticleSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * This method reads a snapshot held in memory.
+     *
+     * @param data The contents of the snapshot.
+     * @return The snapshot.
+     * @throws IOException Thrown if the data is not a valid snapshot.
+     */
+    public static ArticleSnapshot wrap(byte[] data) throws IOException {
+        return new ArticleSnapshot(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * This method writes the first articles of a store as a snapshot.
+     *
+     * @param store The articles.
+     * @param maxArticles The number of articles to write at most.
+     * @param createdAt The time the articles were loaded.
+     * @param outputStream The stream to write to. It is not closed by this method.
+     * @throws IOException Thrown if the stream cannot be written.
+     */
+    public static void write(ArticleStore store, int maxArticles, long createdAt,
+                             OutputStream outputStream) throws IOException {
+        int count = Math.min(store.size(), maxArticles);
+        ByteArrayOutputStream blob = new ByteArrayOutputStream(count * 160);
+
+        // Only the sections in use are written, each of them once
+        List<String> sectionNames = new ArrayList<>();
+        List<int[]> sectionRuns = new ArrayList<>();
+        int[] sectionIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            String section = store.getSection(i);
+            int id = section == null ? -1 : sectionNames.indexOf(section);
+            if (section != null && id < 0) {
+                id = sectionNames.size();
+                sectionNames.add(section);
+                sectionRuns.add(append(blob, section));
+            }
+            sectionIds[i] = id;
+        }
+
+        int blobOffset = HEADER_SIZE + sectionNames.size() * SECTION_SIZE + count * RECORD_SIZE;
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE);
+        char[] dateLabels = store.getDateLabelChars();
+        for (int i = 0; i < count; i++) {
+            int record = i * RECORD_SIZE;
+            records.putLong(record + DATE, store.getDate(i));
+            records.putShort(record + SECTION, (short) sectionIds[i]);
+            records.put(record + FLAGS, (byte) ((store.hasUrl(i) ? HAS_URL : 0)
+                    | (store.hasThumbnail(i) ? HAS_THUMBNAIL : 0)));
+
+            // Date labels are ASCII digits and dashes
+            int labelLength = store.getDateLabelLength(i);
+            records.put(record + DATE_LABEL_SIZE, (byte) labelLength);
+            for (int j = 0; j < labelLength; j++) {
+                records.put(record + DATE_LABEL + j, (byte) dateLabels[store.getDateLabelStart(i) + j]);
+            }
+
+            putRun(records, record + TITLE, append(blob, store.getTitle(i)));
+            putRun(records, record + URL, append(blob, store.hasUrl(i) ? store.getUrl(i) : ""));
+            putRun(records, record + THUMBNAIL,
+                    append(blob, store.hasThumbnail(i) ? store.getThumbnailUrl(i) : ""));
+        }
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(sectionNames.size());
+        out.writeInt(count);
+        out.writeLong(createdAt);
+        out.writeInt(blobOffset);
+        for (int[] run : sectionRuns) {
+            out.writeInt(run[0]);
+            out.writeInt(run[1]);
+        }
+        out.write(records.array());
+        blob.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Returns the number of articles in the snapshot.
+     *
+     * @return The number of articles.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns when the articles of the snapshot were loaded.
+     *
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the publication date of an article.
+     *
+     * @param index The index of the article.
+     * @return The milliseconds since the epoch or IsoDate.NO_DATE.
+     */
+    public long getDate(int index) {
+        return buffer.getLong(record(index) + DATE);
+    }
+
+    /**
+     * Returns the section name of an article.
+     *
+     * @param index The index of the article.
+     * @return The section name or null.
+     */
+    public String getSection(int index) {
+        int sectionId = buffer.getShort(record(index) + SECTION);
+        return sectionId < 0 || sectionId >= sections.length ? null : sections[sectionId];
+    }
+
+    /**
+     * Returns the number of chars a buffer needs to hold the title of an article.
+     *
+     * @param index The index of the article.
+     * @return The buffer length needed by readTitle.
+     */
+    public int getTitleCapacity(int index) {
+        // A UTF-8 byte never decodes to more than one char
+        return Math.max(0, buffer.getInt(record(index) + TITLE + 4));
+    }
+
+    /**
+     * This method decodes the title of an article into a char buffer.
+     *
+     * @param index The index of the article.
+     * @param destination The buffer, at least getTitleCapacity long.
+     * @return The number of chars of the title.
+     */
+    public int readTitle(int index, char[] destination) {
+        int record = record(index);
+        return decode(buffer.getInt(record + TITLE), buffer.getInt(record + TITLE + 4), destination);
+    }
+
+    /**
+     * This method copies the date label of an article into a char buffer.
+     *
+     * @param index The index of the article.
+     * @param destination The buffer, at least ten chars long.
+     * @return The number of chars of the label, zero if the article has no date.
+     */
+    public int readDateLabel(int index, char[] destination) {
+        int record = record(index);
+        int length = Math.min(buffer.get(record + DATE_LABEL_SIZE), DATE_LABEL_LENGTH);
+        for (int i = 0; i < length; i++) {
+            destination[i] = (char) buffer.get(record + DATE_LABEL + i);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the url of an article as a new String.
+     *
+     * @param index The index of the article.
+     * @return The url or null.
+     */
+    public String getUrl(int index) {
+        int record = record(index);
+        if ((buffer.get(record + FLAGS) & HAS_URL) == 0) {
+            return null;
+        }
+        return decode(buffer.getInt(record + URL), buffer.getInt(record + URL + 4));
+    }
+
+    /**
+     * Returns whether an article has a thumbnail.
+     *
+     * @param index The index of the article.
+     * @return true if the article has a thumbnail url.
+     */
+    public boolean hasThumbnail(int index) {
+        return getThumbnailUrl(index) != null;
+    }
+
+    /**
+     * Returns the thumbnail url of an article, decoded when the snapshot
+     * was mapped. The same String is returned every time.
+     *
+     * @param index The index of the article.
+     * @return The thumbnail url or null.
+     */
+    public String getThumbnailUrl(int index) {
+        return thumbnailUrls[index];
+    }
+
+    /**
+     * This method decodes every article of the snapshot into a store, for
+     * example to compare it with new results on a background thread. The
+     * dates are rebuilt from the stored time, so an article compares equal
+     * to the one the snapshot was written from.
+     *
+     * @return The populated store.
+     */
+    public ArticleStore toStore() {
+        List<NewsArticle> articles = new ArrayList<>(size);
+        char[] label = new char[DATE_LABEL_LENGTH];
+        char[] title = new char[0];
+        for (int i = 0; i < size; i++) {
+            if (title.length < getTitleCapacity(i)) {
+                title = new char[getTitleCapacity(i)];
+            }
+            String date = IsoDate.format(getDate(i));
+            if (date == null) {
+                int labelLength = readDateLabel(i, label);
+                date = labelLength > 0 ? new String(label, 0, labelLength) : null;
+            }
+            articles.add(new NewsArticle(new String(title, 0, readTitle(i, title)), date,
+                    getSection(i), getUrl(i), getThumbnailUrl(i)));
+        }
+        return ArticleStore.from(articles);
+    }
+
+    /**
+     * Returns where the record of an article starts.
+     *
+     * @param index The index of the article.
+     * @return The offset of the record.
+     */
+    private int record(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return recordsOffset + index * RECORD_SIZE;
+    }
+
+    /**
+     * This method decodes a run of the blob into a new String.
+     *
+     * @param offset The offset of the run in the blob.
+     * @param length The length of the run in bytes.
+     * @return The decoded String.
+     */
+    private String decode(int offset, int length) {
+        char[] chars = new char[length];
+        return new String(chars, 0, decode(offset, length, chars));
+    }
+
+    /**
+     * This method decodes a run of UTF-8 bytes of the blob without creating
+     * any objects. Malformed bytes are decoded as the replacement char.
+     *
+     * @param offset The offset of the run in the blob.
+     * @param length The length of the run in bytes.
+     * @param destination The buffer the chars are written to.
+     * @return The number of chars written.
+     */
+    private int decode(int offset, int length, char[] destination) {
+        if (offset < 0 || length <= 0) {
+            return 0;
+        }
+        int position = blobOffset + offset;
+        int end = (int) Math.min((long) position + length, buffer.limit());
+        int count = 0;
+        while (position < end) {
+            int b = buffer.get(position++) & 0xFF;
+            if (b < 0x80) {
+                destination[count++] = (char) b;
+            } else if (b >= 0xC0 && b < 0xE0 && position < end) {
+                destination[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(position++) & 0x3F));
+            } else if (b >= 0xE0 && b < 0xF0 && position + 1 < end) {
+                destination[count++] = (char) (((b & 0x0F) << 12)
+                        | ((buffer.get(position++) & 0x3F) << 6) | (buffer.get(position++) & 0x3F));
+            } else if (b >= 0xF0 && position + 2 < end) {
+                // Four bytes encode a code point outside the BMP, written as a surrogate pair
+                int codePoint = ((b & 0x07) << 18) | ((buffer.get(position++) & 0x3F) << 12)
+                        | ((buffer.get(position++) & 0x3F) << 6) | (buffer.get(position++) & 0x3F);
+                codePoint -= 0x10000;
+                destination[count++] = (char) (0xD800 + (codePoint >> 10));
+                destination[count++] = (char) (0xDC00 + (codePoint & 0x3FF));
+            } else {
+                destination[count++] = '\uFFFD';
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This method appends a String to the blob.
+     *
+     * @param blob The blob.
+     * @param value The String.
+     * @return The offset and length of the run written.
+     */
+    private static int[] append(ByteArrayOutputStream blob, String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        int[] run = {blob.size(), bytes.length};
+        blob.write(bytes, 0, bytes.length);
+        return run;
+    }
+
+    /**
+     * This method writes the offset and length of a run into a record.
+     *
+     * @param records The records.
+     * @param position Where the run is written.
+     * @param run The offset and length of the run.
+     */
+    private static void putRun(ByteBuffer records, int position, int[] run) {
+        records.putInt(position, run[0]);
+        records.putInt(position + 4, run[1]);
+    }
+}
@@ -0,0 +1,463 @@
+package udacity.android.newsapp.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class stores a list of articles column by column instead of as one
+ * NewsArticle object per article. Section names are interned into a table
+ * and referenced by small ids, dates are kept as the epoch milliseconds
+ * the articles parsed them into, and titles and urls are packed into
+ * shared char buffers with offsets. Thumbnail urls are handed straight to
+ * the image pipeline, so each is kept as the String it was parsed into,
+ * resolved once when the article is added. The accessors let a row be
+ * displayed and its thumbnail requested without creating any objects.
+ *
+ * Articles are only ever added. A store that has been handed to another
+ * thread or to an adapter must not be modified any further.
+ *
+ * @author Joseph Stewart
+ * @version 1.3
+ */
+public class ArticleStore {
+
+    // Section id of articles without a section
+    public static final int NO_SECTION = -1;
+
+    // Length of the date part of the ISO timestamp, yyyy-MM-dd
+    private static final int DATE_LABEL_LENGTH = 10;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Initial length of each char buffer of a store that is filled later
+    private static final int INITIAL_CHARS = 256;
+
+    // Number of articles
+    private int size;
+
+    // Interned section names
+    private final Map<String, Integer> sectionIds = new HashMap<>();
+    private String[] sections = new String[8];
+    private int sectionCount;
+
+    // Columns, one entry per article
+    private int[] sectionColumn;
+    private long[] dateColumn;
+    private byte[] dateLabelLengths;
+
+    // Offsets into the char buffers, one more than the number of articles
+    private int[] titleOffsets;
+    private int[] urlOffsets;
+
+    // Shared char buffers
+    private char[] titleChars;
+    private char[] urlChars;
+    private char[] dateLabelChars;
+
+    // Whether an article has a url, as an empty run cannot tell null from ""
+    private boolean[] hasUrl;
+
+    // Thumbnail url of each article, null if it has none
+    private String[] thumbnailUrls;
+
+    /**
+     * Constructor
+     */
+    public ArticleStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param capacity The number of articles to make room for.
+     */
+    public ArticleStore(int capacity) {
+        this(capacity, capacity > 0 ? INITIAL_CHARS : 0, capacity > 0 ? INITIAL_CHARS : 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param capacity The number of articles to make room for.
+     * @param titleLength The number of title chars to make room for.
+     * @param urlLength The number of url chars to make room for.
+     */
+    private ArticleStore(int capacity, int titleLength, int urlLength) {
+        capacity = Math.max(capacity, 1);
+        sectionColumn = new int[capacity];
+        dateColumn = new long[capacity];
+        dateLabelLengths = new byte[capacity];
+        hasUrl = new boolean[capacity];
+        thumbnailUrls = new String[capacity];
+        titleOffsets = new int[capacity + 1];
+        urlOffsets = new int[capacity + 1];
+        titleChars = new char[titleLength];
+        urlChars = new char[urlLength];
+        dateLabelChars = new char[capacity * DATE_LABEL_LENGTH];
+    }
+
+    /**
+     * This method creates a store holding the passed in articles, with its
+     * char buffers sized to exactly fit their titles and urls.
+     *
+     * @param articles The articles to store.
+     * @return The populated store.
+     */
+    public static ArticleStore from(List<NewsArticle> articles) {
+        int titleLength = 0;
+        int urlLength = 0;
+        for (int i = 0; i < articles.size(); i++) {
+            NewsArticle article = articles.get(i);
+            titleLength += length(article.getTitle());
+            urlLength += length(article.getUrl());
+        }
+
+        ArticleStore store = new ArticleStore(articles.size(), titleLength, urlLength);
+        store.addAll(articles);
+        return store;
+    }
+
+    /**
+     * This method adds the articles to the end of the store.
+     *
+     * @param articles The articles to add.
+     */
+    public void addAll(List<NewsArticle> articles) {
+        for (int i = 0; i < articles.size(); i++) {
+            add(articles.get(i));
+        }
+    }
+
+    /**
+     * This method adds an article to the end of the store.
+     *
+     * @param article The article to add.
+     */
+    public void add(NewsArticle article) {
+        ensureCapacity(size + 1);
+        int index = size;
+
+        sectionColumn[index] = internSection(article.getSection());
+        dateColumn[index] = article.getTime();
+
+        String label = article.getDateLabel();
+        int labelLength = Math.min(label.length(), DATE_LABEL_LENGTH);
+        label.getChars(0, labelLength, dateLabelChars, index * DATE_LABEL_LENGTH);
+        dateLabelLengths[index] = (byte) labelLength;
+
+        String title = article.getTitle() != null ? article.getTitle() : "";
+        titleChars = ensureChars(titleChars, titleOffsets[index] + title.length());
+        title.getChars(0, title.length(), titleChars, titleOffsets[index]);
+        titleOffsets[index + 1] = titleOffsets[index] + title.length();
+
+        String url = article.getUrl() != null ? article.getUrl() : "";
+        urlChars = ensureChars(urlChars, urlOffsets[index] + url.length());
+        url.getChars(0, url.length(), urlChars, urlOffsets[index]);
+        urlOffsets[index + 1] = urlOffsets[index] + url.length();
+        hasUrl[index] = article.getUrl() != null;
+
+        thumbnailUrls[index] = article.getThumbnailUrl();
+
+        size++;
+    }
+
+    /**
+     * Returns the number of articles in the store.
+     *
+     * @return The number of articles.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the buffer holding the titles of all articles.
+     *
+     * @return The title buffer, to be read with getTitleStart and getTitleLength.
+     */
+    public char[] getTitleChars() {
+        return titleChars;
+    }
+
+    /**
+     * Returns where the title of an article starts in the title buffer.
+     *
+     * @param index The index of the article.
+     * @return The start of the title.
+     */
+    public int getTitleStart(int index) {
+        return titleOffsets[index];
+    }
+
+    /**
+     * Returns the length of the title of an article.
+     *
+     * @param index The index of the article.
+     * @return The length of the title.
+     */
+    public int getTitleLength(int index) {
+        return titleOffsets[index + 1] - titleOffsets[index];
+    }
+
+    /**
+     * Returns the title of an article as a new String.
+     *
+     * @param index The index of the article.
+     * @return The title of the article.
+     */
+    public String getTitle(int index) {
+        return new String(titleChars, getTitleStart(index), getTitleLength(index));
+    }
+
+    /**
+     * Returns the interned section name of an article.
+     *
+     * @param index The index of the article.
+     * @return The section name or null.
+     */
+    public String getSection(int index) {
+        int sectionId = sectionColumn[index];
+        return sectionId == NO_SECTION ? null : sections[sectionId];
+    }
+
+    /**
+     * Returns the id of the section of an article within this store.
+     *
+     * @param index The index of the article.
+     * @return The section id or NO_SECTION.
+     */
+    public int getSectionId(int index) {
+        return sectionColumn[index];
+    }
+
+    /**
+     * Returns the publication date of an article.
+     *
+     * @param index The index of the article.
+     * @return The milliseconds since the epoch or IsoDate.NO_DATE.
+     */
+    public long getDate(int index) {
+        return dateColumn[index];
+    }
+
+    /**
+     * Returns the buffer holding the date labels of all articles.
+     *
+     * @return The label buffer, to be read with getDateLabelStart and getDateLabelLength.
+     */
+    public char[] getDateLabelChars() {
+        return dateLabelChars;
+    }
+
+    /**
+     * Returns where the date label of an article starts in the label buffer.
+     *
+     * @param index The index of the article.
+     * @return The start of the date label.
+     */
+    public int getDateLabelStart(int index) {
+        return index * DATE_LABEL_LENGTH;
+    }
+
+    /**
+     * Returns the length of the date label of an article.
+     *
+     * @param index The index of the article.
+     * @return The length of the date label, zero if the article has no date.
+     */
+    public int getDateLabelLength(int index) {
+        return dateLabelLengths[index];
+    }
+
+    /**
+     * Returns whether an article has a url.
+     *
+     * @param index The index of the article.
+     * @return true if the article has a url.
+     */
+    public boolean hasUrl(int index) {
+        return hasUrl[index];
+    }
+
+    /**
+     * Returns the url of an article as a new String.
+     *
+     * @param index The index of the article.
+     * @return The url or null.
+     */
+    public String getUrl(int index) {
+        if (!hasUrl[index]) {
+            return null;
+        }
+        return new String(urlChars, urlOffsets[index], urlOffsets[index + 1] - urlOffsets[index]);
+    }
+
+    /**
+     * Returns whether an article has a thumbnail.
+     *
+     * @param index The index of the article.
+     * @return true if the article has a thumbnail url.
+     */
+    public boolean hasThumbnail(int index) {
+        return thumbnailUrls[index] != null;
+    }
+
+    /**
+     * Returns the thumbnail url of an article. The same String is returned
+     * every time, so it can be requested on each bind without allocating.
+     *
+     * @param index The index of the article.
+     * @return The thumbnail url or null.
+     */
+    public String getThumbnailUrl(int index) {
+        return thumbnailUrls[index];
+    }
+
+    /**
+     * This method recreates a NewsArticle from the store. Its date is
+     * formatted from the stored time, so it sorts and compares the same as
+     * the original; only a date that could not be parsed falls back to the
+     * date label.
+     *
+     * @param index The index of the article.
+     * @return The NewsArticle.
+     */
+    public NewsArticle get(int index) {
+        String date = IsoDate.format(dateColumn[index]);
+        if (date == null && getDateLabelLength(index) > 0) {
+            date = new String(dateLabelChars, getDateLabelStart(index), getDateLabelLength(index));
+        }
+        return new NewsArticle(getTitle(index), date, getSection(index), getUrl(index),
+                getThumbnailUrl(index));
+    }
+
+    /**
+     * This method compares the url of an article with one in another store.
+     *
+     * @param index The index of the article in this store.
+     * @param other The other store.
+     * @param otherIndex The index of the article in the other store.
+     * @return true if both articles have the same url.
+     */
+    public boolean urlEquals(int index, ArticleStore other, int otherIndex) {
+        return hasUrl[index] == other.hasUrl[otherIndex]
+                && regionEquals(urlChars, urlOffsets[index], urlOffsets[index + 1],
+                other.urlChars, other.urlOffsets[otherIndex], other.urlOffsets[otherIndex + 1]);
+    }
+
+    /**
+     * This method compares the displayed attributes of an article with
+     * those of one in another store.
+     *
+     * @param index The index of the article in this store.
+     * @param other The other store.
+     * @param otherIndex The index of the article in the other store.
+     * @return true if both articles are displayed the same way.
+     */
+    public boolean contentEquals(int index, ArticleStore other, int otherIndex) {
+        String section = getSection(index);
+        String otherSection = other.getSection(otherIndex);
+        return dateColumn[index] == other.dateColumn[otherIndex]
+                && (section == null ? otherSection == null : section.equals(otherSection))
+                && regionEquals(titleChars, titleOffsets[index], titleOffsets[index + 1],
+                other.titleChars, other.titleOffsets[otherIndex], other.titleOffsets[otherIndex + 1])
+                && (thumbnailUrls[index] == null ? other.thumbnailUrls[otherIndex] == null
+                : thumbnailUrls[index].equals(other.thumbnailUrls[otherIndex]));
+    }
+
+    /**
+     * This method returns the id of a section name, adding it to the table
+     * the first time it is seen.
+     *
+     * @param section The section name or null.
+     * @return The section id.
+     */
+    private int internSection(String section) {
+        if (section == null) {
+            return NO_SECTION;
+        }
+
+        Integer sectionId = sectionIds.get(section);
+        if (sectionId == null) {
+            if (sectionCount == sections.length) {
+                sections = Arrays.copyOf(sections, sectionCount * 2);
+            }
+            sectionId = sectionCount;
+            sections[sectionCount++] = section;
+            sectionIds.put(section, sectionId);
+        }
+        return sectionId;
+    }
+
+    /**
+     * This method grows the columns to hold at least the passed in number of articles.
+     *
+     * @param capacity The number of articles.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= sectionColumn.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, sectionColumn.length * 2);
+        sectionColumn = Arrays.copyOf(sectionColumn, newCapacity);
+        dateColumn = Arrays.copyOf(dateColumn, newCapacity);
+        dateLabelLengths = Arrays.copyOf(dateLabelLengths, newCapacity);
+        hasUrl = Arrays.copyOf(hasUrl, newCapacity);
+        thumbnailUrls = Arrays.copyOf(thumbnailUrls, newCapacity);
+        titleOffsets = Arrays.copyOf(titleOffsets, newCapacity + 1);
+        urlOffsets = Arrays.copyOf(urlOffsets, newCapacity + 1);
+        dateLabelChars = Arrays.copyOf(dateLabelChars, newCapacity * DATE_LABEL_LENGTH);
+    }
+
+    /**
+     * Returns the length of a string that may be null.
+     *
+     * @param value The string or null.
+     * @return Its length, 0 for null.
+     */
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * This method grows a char buffer to hold at least the passed in number of chars.
+     *
+     * @param buffer The buffer.
+     * @param length The number of chars.
+     * @return The buffer or a larger copy of it.
+     */
+    private static char[] ensureChars(char[] buffer, int length) {
+        if (length <= buffer.length) {
+            return buffer;
+        }
+        return Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+    }
+
+    /**
+     * This method compares two runs of chars.
+     *
+     * @param first The first buffer.
+     * @param firstStart The start of the first run.
+     * @param firstEnd The end of the first run.
+     * @param second The second buffer.
+     * @param secondStart The start of the second run.
+     * @param secondEnd The end of the second run.
+     * @return true if both runs hold the same chars.
+     */
+    private static boolean regionEquals(char[] first, int firstStart, int firstEnd,
+                                        char[] second, int secondStart, int secondEnd) {
+        if (firstEnd - firstStart != secondEnd - secondStart) {
+            return false;
+        }
+        for (int i = firstStart, j = secondStart; i < firstEnd; i++, j++) {
+            if (first[i] != second[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,165 @@
+package udacity.android.newsapp.model;
+
+/**
+ * This class converts the ISO 8601 timestamps of the Guardian API, such as
+ * 2017-01-31T18:05:00Z, into milliseconds since the epoch without creating
+ * any objects, and formats milliseconds back into such timestamps.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public final class IsoDate {
+
+    // Returned for missing or malformed timestamps
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * MILLIS_PER_SECOND;
+
+    // Length of a formatted timestamp, yyyy-MM-ddTHH:mm:ssZ
+    private static final int TIMESTAMP_LENGTH = 20;
+
+    /**
+     * Private constructor that throws AssertionError to prevent instantiation.
+     */
+    private IsoDate() {
+        throw new AssertionError("The IsoDate cannot be instantiated.");
+    }
+
+    /**
+     * This method parses a UTC timestamp. Any fraction of a second and
+     * the zone designator after the seconds are ignored.
+     *
+     * @param timestamp The timestamp, may be null.
+     * @return The milliseconds since the epoch or NO_DATE.
+     */
+    public static long parse(String timestamp) {
+        if (timestamp == null || timestamp.length() < 10) {
+            return NO_DATE;
+        }
+
+        int year = digits(timestamp, 0, 4);
+        int month = digits(timestamp, 5, 2);
+        int day = digits(timestamp, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-') {
+            return NO_DATE;
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        if (timestamp.length() >= 19 && timestamp.charAt(10) == 'T') {
+            hour = digits(timestamp, 11, 2);
+            minute = digits(timestamp, 14, 2);
+            second = digits(timestamp, 17, 2);
+            if (hour < 0 || minute < 0 || second < 0) {
+                return NO_DATE;
+            }
+        }
+
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60L + second) * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * This method formats milliseconds since the epoch as a UTC timestamp,
+     * the inverse of parse for timestamps of whole seconds.
+     *
+     * @param millis The milliseconds since the epoch, of a year from 0 to 9999.
+     * @return The timestamp, or null for NO_DATE.
+     */
+    public static String format(long millis) {
+        if (millis == NO_DATE) {
+            return null;
+        }
+
+        long days = millis / MILLIS_PER_DAY;
+        long millisOfDay = millis % MILLIS_PER_DAY;
+        if (millisOfDay < 0) {
+            days--;
+            millisOfDay += MILLIS_PER_DAY;
+        }
+        int secondOfDay = (int) (millisOfDay / MILLIS_PER_SECOND);
+
+        // Inverse of daysFromCivil, with years counted from March
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthFromMarch = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthFromMarch + 2) / 5 + 1);
+        int month = (int) (monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        char[] chars = new char[TIMESTAMP_LENGTH];
+        putDigits(chars, 0, 4, year);
+        chars[4] = '-';
+        putDigits(chars, 5, 2, month);
+        chars[7] = '-';
+        putDigits(chars, 8, 2, day);
+        chars[10] = 'T';
+        putDigits(chars, 11, 2, secondOfDay / 3600);
+        chars[13] = ':';
+        putDigits(chars, 14, 2, secondOfDay / 60 % 60);
+        chars[16] = ':';
+        putDigits(chars, 17, 2, secondOfDay % 60);
+        chars[19] = 'Z';
+        return new String(chars);
+    }
+
+    /**
+     * This method writes a number as a run of decimal digits, padded with zeros.
+     *
+     * @param chars The buffer to write to.
+     * @param start The index of the first digit.
+     * @param count The number of digits.
+     * @param value The number, which must fit in the digits.
+     */
+    private static void putDigits(char[] chars, int start, int count, int value) {
+        for (int i = start + count - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * This method reads a run of decimal digits.
+     *
+     * @param text The text to read from.
+     * @param start The index of the first digit.
+     * @param count The number of digits.
+     * @return The value or -1 if a character is not a digit.
+     */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * This method returns the number of days between the epoch and a date
+     * of the proleptic Gregorian calendar.
+     *
+     * @param year The year.
+     * @param month The month, 1 to 12.
+     * @param day The day of the month.
+     * @return The days since 1970-01-01.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        // Count years from March so the leap day is the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -2,17 +2,27 @@ package udacity.android.newsapp.model;
 
 /**
  * This class represents a news article received from the Guardian news API.
+ * Its date is parsed once, when it is set, into milliseconds since the epoch
+ * for sorting and a label for display.
  *
  * @author Joseph Stewart
- * @version 1.0
+ * @version 1.3
  */
 public class NewsArticle {
 
+    // Length of the date part of the ISO timestamp, yyyy-MM-dd
+    private static final int DATE_LABEL_LENGTH = 10;
+
     // NewsArticle attributes
     private String title;
     private String date;
     private String section;
     private String url;
+    private String thumbnailUrl;
+
+    // Date shown in the list and the parsed date, computed once when the date is set
+    private String dateLabel = "";
+    private long time = IsoDate.NO_DATE;
 
     /** Constructors */
 
@@ -27,9 +37,14 @@ public class NewsArticle {
 
     public NewsArticle(String title, String date, String section, String url) {
         this.title = title;
-        this.date = date;
         this.section = section;
         this.url = url;
+        setDate(date);
+    }
+
+    public NewsArticle(String title, String date, String section, String url, String thumbnailUrl) {
+        this(title, date, section, url);
+        this.thumbnailUrl = thumbnailUrl;
     }
 
     /**
@@ -66,6 +81,34 @@ public class NewsArticle {
      */
     public void setDate(String date) {
         this.date = date;
+        time = IsoDate.parse(date);
+
+        // Removes time and zone data
+        if (date == null) {
+            dateLabel = "";
+        } else if (date.length() > DATE_LABEL_LENGTH) {
+            dateLabel = date.substring(0, DATE_LABEL_LENGTH);
+        } else {
+            dateLabel = date;
+        }
+    }
+
+    /**
+     * Returns the date of the article without its time, for display.
+     *
+     * @return The date label, empty if the article has no date.
+     */
+    public String getDateLabel() {
+        return dateLabel;
+    }
+
+    /**
+     * Returns the date the article was written as a number, for sorting.
+     *
+     * @return The milliseconds since the epoch or IsoDate.NO_DATE.
+     */
+    public long getTime() {
+        return time;
     }
 
     /**
@@ -104,6 +147,24 @@ public class NewsArticle {
         this.url = url;
     }
 
+    /**
+     * Returns the url of the thumbnail of this article.
+     *
+     * @return The thumbnail url or null if the article has none.
+     */
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    /**
+     * Sets the url of the thumbnail of this article.
+     *
+     * @param thumbnailUrl The thumbnail url.
+     */
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
     /**
      * A string representation of this NewsArticle object.
      *
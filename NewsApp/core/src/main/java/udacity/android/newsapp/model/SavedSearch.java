@@ -0,0 +1,66 @@
+package udacity.android.newsapp.model;
+
+/**
+ * This class represents a search the user saved so its results can be
+ * kept up to date in the background.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class SavedSearch {
+
+    // SavedSearch attributes
+    private final String query;
+    private final String orderBy;
+
+    /**
+     * Constructor
+     *
+     * @param query The search text.
+     * @param orderBy The order of the results.
+     */
+    public SavedSearch(String query, String orderBy) {
+        this.query = query;
+        this.orderBy = orderBy;
+    }
+
+    /**
+     * Returns the search text.
+     *
+     * @return The search text.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns the order of the results.
+     *
+     * @return The order-by value.
+     */
+    public String getOrderBy() {
+        return orderBy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SavedSearch)) {
+            return false;
+        }
+        SavedSearch other = (SavedSearch) o;
+        return query.equals(other.query) && orderBy.equals(other.orderBy);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * query.hashCode() + orderBy.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return query + " (" + orderBy + ")";
+    }
+}
@@ -0,0 +1,81 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the timeouts worked out by the AdaptiveTimeout.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class AdaptiveTimeoutTest {
+
+    private static final long INITIAL_MILLIS = 10000;
+    private static final long MIN_MILLIS = 1000;
+    private static final long MAX_MILLIS = 30000;
+
+    private AdaptiveTimeout timeout;
+
+    @Before
+    public void setUp() {
+        timeout = new AdaptiveTimeout(INITIAL_MILLIS, MIN_MILLIS, MAX_MILLIS);
+    }
+
+    @Test
+    public void usesInitialTimeoutBeforeFirstSample() {
+        assertEquals(INITIAL_MILLIS, timeout.getTimeoutMillis());
+    }
+
+    @Test
+    public void firstSampleGivesMeanPlusFourHalfDeviations() {
+        timeout.onSample(2000);
+        assertEquals(2000 + 4 * 1000, timeout.getTimeoutMillis());
+    }
+
+    @Test
+    public void steadyLatencyShortensTimeout() {
+        for (int i = 0; i < 100; i++) {
+            timeout.onSample(2000);
+        }
+        assertTrue(timeout.getTimeoutMillis() < 2100);
+    }
+
+    @Test
+    public void jitteryLatencyLengthensTimeout() {
+        AdaptiveTimeout steady = new AdaptiveTimeout(INITIAL_MILLIS, MIN_MILLIS, MAX_MILLIS);
+        for (int i = 0; i < 100; i++) {
+            steady.onSample(2000);
+            timeout.onSample(i % 2 == 0 ? 500 : 3500);
+        }
+        assertTrue(timeout.getTimeoutMillis() > steady.getTimeoutMillis() + 3000);
+    }
+
+    @Test
+    public void staysWithinMinimumAndMaximum() {
+        for (int i = 0; i < 100; i++) {
+            timeout.onSample(10);
+        }
+        assertEquals(MIN_MILLIS, timeout.getTimeoutMillis());
+
+        timeout.onSample(100000);
+        assertEquals(MAX_MILLIS, timeout.getTimeoutMillis());
+    }
+
+    @Test
+    public void timeoutsDoubleUntilSuccess() {
+        timeout.onSample(2000);
+        timeout.onTimeout();
+        assertEquals(12000, timeout.getTimeoutMillis());
+        timeout.onTimeout();
+        assertEquals(24000, timeout.getTimeoutMillis());
+        timeout.onTimeout();
+        assertEquals(MAX_MILLIS, timeout.getTimeoutMillis());
+
+        timeout.onSample(2000);
+        assertTrue(timeout.getTimeoutMillis() < 12000);
+    }
+}
@@ -0,0 +1,123 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of merging and sorting articles by date with the ArticleMerger.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ArticleMergerTest {
+
+    /**
+     * This method creates an article whose title is its url.
+     *
+     * @param url The url.
+     * @param date The timestamp, or null.
+     * @return The article.
+     */
+    private static NewsArticle article(String url, String date) {
+        return new NewsArticle(url, date, "World", url);
+    }
+
+    /**
+     * Returns the urls of articles in order.
+     *
+     * @param articles The articles.
+     * @return Their urls.
+     */
+    private static List<String> urls(List<NewsArticle> articles) {
+        List<String> urls = new ArrayList<>();
+        for (NewsArticle article : articles) {
+            urls.add(article.getUrl());
+        }
+        return urls;
+    }
+
+    @Test
+    public void mergesNewestFirst() {
+        List<NewsArticle> first = Arrays.asList(
+                article("a3", "2017-02-14T12:00:00Z"), article("a1", "2017-02-14T08:00:00Z"));
+        List<NewsArticle> second = Arrays.asList(
+                article("b2", "2017-02-14T10:00:00Z"), article("b4", "2017-02-14T14:00:00Z"));
+
+        List<NewsArticle> merged = ArticleMerger.merge(Arrays.asList(first, second));
+        assertEquals(Arrays.asList("b4", "a3", "b2", "a1"), urls(merged));
+    }
+
+    @Test
+    public void mergesOldestFirst() {
+        List<NewsArticle> first = Arrays.asList(
+                article("a3", "2017-02-14T12:00:00Z"), article("a1", "2017-02-14T08:00:00Z"));
+        List<NewsArticle> second = Collections.singletonList(article("b2", "2017-02-14T10:00:00Z"));
+
+        List<NewsArticle> merged = ArticleMerger.merge(Arrays.asList(first, second), false);
+        assertEquals(Arrays.asList("a1", "b2", "a3"), urls(merged));
+    }
+
+    @Test
+    public void dropsDuplicateUrlsKeepingPreferredSource() {
+        NewsArticle preferred = new NewsArticle("Preferred", "2017-02-14T10:00:00Z", "World", "same");
+        NewsArticle duplicate = new NewsArticle("Duplicate", "2017-02-14T10:00:00Z", "World", "same");
+
+        List<NewsArticle> merged = ArticleMerger.merge(Arrays.asList(
+                Collections.singletonList(preferred), Collections.singletonList(duplicate)));
+        assertEquals(1, merged.size());
+        assertEquals("Preferred", merged.get(0).getTitle());
+    }
+
+    @Test
+    public void keepsSourceOrderForEqualDates() {
+        List<NewsArticle> merged = ArticleMerger.merge(Arrays.asList(
+                Collections.singletonList(article("a", "2017-02-14T10:00:00Z")),
+                Collections.singletonList(article("b", "2017-02-14T10:00:00Z")),
+                Collections.singletonList(article("c", "2017-02-14T10:00:00Z"))));
+        assertEquals(Arrays.asList("a", "b", "c"), urls(merged));
+    }
+
+    @Test
+    public void putsUndatedArticlesLastEitherWay() {
+        List<List<NewsArticle>> sources = Arrays.asList(
+                Arrays.asList(article("undated", null), article("old", "2017-02-13T10:00:00Z")),
+                Collections.singletonList(article("new", "2017-02-14T10:00:00Z")));
+
+        assertEquals(Arrays.asList("new", "old", "undated"), urls(ArticleMerger.merge(sources, true)));
+        assertEquals(Arrays.asList("old", "new", "undated"), urls(ArticleMerger.merge(sources, false)));
+    }
+
+    @Test
+    public void skipsMissingSourcesAndKeepsInputs() {
+        List<NewsArticle> source = Arrays.asList(
+                article("old", "2017-02-13T10:00:00Z"), article("new", "2017-02-14T10:00:00Z"));
+
+        List<NewsArticle> merged = ArticleMerger.merge(Arrays.asList(
+                null, source, Collections.<NewsArticle>emptyList()));
+        assertEquals(Arrays.asList("new", "old"), urls(merged));
+        assertEquals(Arrays.asList("old", "new"), urls(source));
+        assertTrue(ArticleMerger.merge(new ArrayList<List<NewsArticle>>()).isEmpty());
+    }
+
+    @Test
+    public void sortsInPlaceStably() {
+        List<NewsArticle> articles = new ArrayList<>(Arrays.asList(
+                article("b", "2017-02-13T10:00:00Z"), article("undated", null),
+                article("c", "2017-02-14T10:00:00Z"), article("a", "2017-02-13T10:00:00Z")));
+
+        ArticleMerger.sortByDate(articles, true);
+        assertEquals(Arrays.asList("c", "b", "a", "undated"), urls(articles));
+
+        ArticleMerger.sortByDate(articles, false);
+        assertEquals(Arrays.asList("b", "a", "c", "undated"), urls(articles));
+    }
+}
@@ -0,0 +1,141 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the search, replacement and compaction of the ArticleSearchIndex.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ArticleSearchIndexTest {
+
+    private ArticleSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new ArticleSearchIndex();
+    }
+
+    /**
+     * This method creates an article.
+     *
+     * @param title The title.
+     * @param date The timestamp.
+     * @param section The section.
+     * @param url The url.
+     * @return The article.
+     */
+    private static NewsArticle article(String title, String date, String section, String url) {
+        return new NewsArticle(title, date, section, url);
+    }
+
+    @Test
+    public void tokenizesLettersAndDigitsInLowerCase() {
+        assertEquals(Arrays.asList("world", "cup", "2018", "caf\u00e9"),
+                ArticleSearchIndex.tokenize("World-Cup 2018: Caf\u00e9!"));
+        assertTrue(ArticleSearchIndex.tokenize(null).isEmpty());
+        assertTrue(ArticleSearchIndex.tokenize(" ,.; ").isEmpty());
+    }
+
+    @Test
+    public void matchesEveryTokenAndPrefixes() {
+        index.addAll(Arrays.asList(
+                article("Football transfer news", "2017-02-14T10:00:00Z", "Sport", "https://a"),
+                article("Football tactics explained", "2017-02-14T11:00:00Z", "Sport", "https://b"),
+                article("Transfer of power", "2017-02-14T12:00:00Z", "Politics", "https://c")));
+
+        List<NewsArticle> results = index.search("foot trans", 10);
+        assertEquals(1, results.size());
+        assertEquals("https://a", results.get(0).getUrl());
+
+        assertEquals(2, index.search("football", 10).size());
+        assertEquals(1, index.search("football", 1).size());
+        assertTrue(index.search("cricket", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    @Test
+    public void ranksTitleAndWholeWordMatchesFirst() {
+        index.addAll(Arrays.asList(
+                article("Election results", "2017-02-14T10:00:00Z", "Sport", "https://section"),
+                article("Sport funding cut", "2017-02-14T09:00:00Z", "Politics", "https://title"),
+                article("Sportswear sales", "2017-02-14T11:00:00Z", "Business", "https://prefix")));
+
+        List<NewsArticle> results = index.search("sport", 10);
+        assertEquals(3, results.size());
+        assertEquals("https://title", results.get(0).getUrl());
+    }
+
+    @Test
+    public void ranksNewerFirstWhenScoresAreEqual() {
+        index.addAll(Arrays.asList(
+                article("Budget", "2017-02-13T10:00:00Z", "Politics", "https://older"),
+                article("Budget", "2017-02-14T10:00:00Z", "Politics", "https://newer")));
+
+        List<NewsArticle> results = index.search("budget", 10);
+        assertEquals("https://newer", results.get(0).getUrl());
+        assertEquals("https://older", results.get(1).getUrl());
+    }
+
+    @Test
+    public void skipsArticlesWithoutUrl() {
+        index.add(new NewsArticle("No url", "World"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void replacesArticleWithSameUrl() {
+        index.add(article("Old headline", "2017-02-14T10:00:00Z", "World", "https://a"));
+        index.add(article("New headline", "2017-02-14T11:00:00Z", "World", "https://a"));
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals("New headline", index.search("headline", 10).get(0).getTitle());
+    }
+
+    @Test
+    public void addingSameArticleAgainDoesNotGrowIndex() {
+        NewsArticle article = article("Headline", "2017-02-14T10:00:00Z", "World", "https://a");
+        for (int i = 0; i < 10; i++) {
+            index.add(article);
+        }
+        assertEquals(1, index.getDocumentCount());
+    }
+
+    @Test
+    public void compactsReplacedArticles() {
+        for (int version = 0; version < 100; version++) {
+            for (int i = 0; i < 10; i++) {
+                index.add(article("Story " + i + " version " + version, "2017-02-14T10:00:00Z",
+                        "World", "https://" + i));
+            }
+        }
+
+        assertEquals(10, index.size());
+        assertTrue(index.getDocumentCount() <= 10 + 2 * 64);
+        assertEquals(10, index.search("story", 100).size());
+        assertEquals(10, index.search("version 99", 100).size());
+        assertTrue(index.search("version 98", 100).isEmpty());
+    }
+
+    @Test
+    public void filtersBySameRules() {
+        List<NewsArticle> articles = Arrays.asList(
+                article("Football transfer news", "2017-02-14T10:00:00Z", "Sport", "https://a"),
+                article("Transfer of power", "2017-02-14T12:00:00Z", "Politics", "https://c"));
+
+        List<NewsArticle> matches = ArticleSearchIndex.filter(articles, "trans spo");
+        assertEquals(1, matches.size());
+        assertEquals("https://a", matches.get(0).getUrl());
+    }
+}
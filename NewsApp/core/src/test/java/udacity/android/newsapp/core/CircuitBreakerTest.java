@@ -0,0 +1,137 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the state changes of the CircuitBreaker.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class CircuitBreakerTest {
+
+    private static final int THRESHOLD = 3;
+    private static final long OPEN_MILLIS = 1000;
+    private static final long MAX_OPEN_MILLIS = 3000;
+
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        breaker = new CircuitBreaker(THRESHOLD, OPEN_MILLIS, MAX_OPEN_MILLIS);
+    }
+
+    /**
+     * This method fails requests until the circuit opens.
+     *
+     * @param nowMillis The time of the failures.
+     */
+    private void openCircuit(long nowMillis) {
+        for (int i = 0; i < THRESHOLD; i++) {
+            assertTrue(breaker.allowRequest(nowMillis));
+            breaker.onFailure(nowMillis);
+        }
+    }
+
+    @Test
+    public void staysClosedBelowThreshold() {
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            breaker.onFailure(0);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(0));
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        breaker.onSuccess();
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void opensAtThresholdAndRefusesRequests() {
+        openCircuit(0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(OPEN_MILLIS - 1));
+    }
+
+    @Test
+    public void letsOneTrialThroughOnceOpenPeriodIsOver() {
+        openCircuit(0);
+        assertTrue(breaker.allowRequest(OPEN_MILLIS));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(OPEN_MILLIS));
+    }
+
+    @Test
+    public void successfulTrialClosesCircuit() {
+        openCircuit(0);
+        assertTrue(breaker.allowRequest(OPEN_MILLIS));
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(OPEN_MILLIS));
+    }
+
+    @Test
+    public void failedTrialReopensForTwiceAsLong() {
+        openCircuit(0);
+        assertTrue(breaker.allowRequest(OPEN_MILLIS));
+        breaker.onFailure(OPEN_MILLIS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        long reopened = OPEN_MILLIS;
+        assertFalse(breaker.allowRequest(reopened + 2 * OPEN_MILLIS - 1));
+        assertTrue(breaker.allowRequest(reopened + 2 * OPEN_MILLIS));
+    }
+
+    @Test
+    public void openPeriodIsCappedAtMaximum() {
+        long now = 0;
+        openCircuit(now);
+        for (int i = 0; i < 10; i++) {
+            now += MAX_OPEN_MILLIS;
+            assertTrue(breaker.allowRequest(now));
+            breaker.onFailure(now);
+        }
+        assertFalse(breaker.allowRequest(now + MAX_OPEN_MILLIS - 1));
+        assertTrue(breaker.allowRequest(now + MAX_OPEN_MILLIS));
+    }
+
+    @Test
+    public void cancelledTrialLetsNextTrialThrough() {
+        openCircuit(0);
+        assertTrue(breaker.allowRequest(OPEN_MILLIS));
+        breaker.onCancelled();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest(OPEN_MILLIS + 1));
+        assertFalse(breaker.allowRequest(OPEN_MILLIS + 1));
+    }
+
+    @Test
+    public void cancelledRequestWhileClosedChangesNothing() {
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        breaker.onCancelled();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void openUntilKeepsLaterEnd() {
+        breaker.openUntil(5000);
+        breaker.openUntil(2000);
+        assertFalse(breaker.allowRequest(4999));
+        assertTrue(breaker.allowRequest(5000));
+    }
+}
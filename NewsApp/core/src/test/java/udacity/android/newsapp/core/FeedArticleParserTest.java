@@ -0,0 +1,106 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of reading RSS and Atom feeds with the FeedArticleParser.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class FeedArticleParserTest {
+
+    private static final String RSS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<rss version=\"2.0\" xmlns:media=\"http://search.yahoo.com/mrss/\"><channel>"
+            + "<title>Example News</title>"
+            + "<item><title>First story</title><link>https://example.com/1</link>"
+            + "<category>Science</category><category>Space</category>"
+            + "<pubDate>Tue, 14 Feb 2017 18:31:12 +0100</pubDate>"
+            + "<media:thumbnail url=\"https://example.com/1.jpg\"/></item>"
+            + "<item><title>Second &amp; last</title><guid>https://example.com/2</guid>"
+            + "<pubDate>14 Feb 2017 08:00 GMT</pubDate>"
+            + "<enclosure url=\"https://example.com/2.mp3\" type=\"audio/mpeg\"/>"
+            + "<enclosure url=\"https://example.com/2.png\" type=\"image/png\"/></item>"
+            + "<item><title>Bad date</title><link>https://example.com/3</link>"
+            + "<pubDate>yesterday</pubDate></item>"
+            + "</channel></rss>";
+
+    private static final String ATOM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<feed xmlns=\"http://www.w3.org/2005/Atom\"><title>Example Atom</title>"
+            + "<entry><title>Atom story</title>"
+            + "<link rel=\"self\" href=\"https://example.com/self\"/>"
+            + "<link href=\"https://example.com/a\"/>"
+            + "<category term=\"Technology\"/>"
+            + "<updated>2017-02-15T09:00:00Z</updated>"
+            + "<published>2017-02-14T12:31:12+05:30</published></entry>"
+            + "</feed>";
+
+    private final ArticleParser parser = new FeedArticleParser();
+
+    /**
+     * This method creates the stream of a feed.
+     *
+     * @param xml The feed.
+     * @return The stream.
+     * @throws IOException Not thrown for UTF-8.
+     */
+    private static InputStream stream(String xml) throws IOException {
+        return new ByteArrayInputStream(xml.getBytes("UTF-8"));
+    }
+
+    @Test
+    public void readsRssItems() throws IOException {
+        List<NewsArticle> articles = parser.parse(stream(RSS));
+        assertEquals(3, articles.size());
+
+        NewsArticle first = articles.get(0);
+        assertEquals("First story", first.getTitle());
+        assertEquals("https://example.com/1", first.getUrl());
+        assertEquals("Science", first.getSection());
+        assertEquals("2017-02-14T17:31:12Z", first.getDate());
+        assertEquals("https://example.com/1.jpg", first.getThumbnailUrl());
+    }
+
+    @Test
+    public void fallsBackToGuidFeedTitleAndImageEnclosure() throws IOException {
+        NewsArticle second = parser.parse(stream(RSS)).get(1);
+
+        assertEquals("Second & last", second.getTitle());
+        assertEquals("https://example.com/2", second.getUrl());
+        assertEquals("Example News", second.getSection());
+        assertEquals("2017-02-14T08:00:00Z", second.getDate());
+        assertEquals("https://example.com/2.png", second.getThumbnailUrl());
+    }
+
+    @Test
+    public void leavesUnreadableDateNull() throws IOException {
+        assertNull(parser.parse(stream(RSS)).get(2).getDate());
+    }
+
+    @Test
+    public void readsAtomEntries() throws IOException {
+        List<NewsArticle> articles = parser.parse(stream(ATOM));
+        assertEquals(1, articles.size());
+
+        NewsArticle entry = articles.get(0);
+        assertEquals("Atom story", entry.getTitle());
+        assertEquals("https://example.com/a", entry.getUrl());
+        assertEquals("Technology", entry.getSection());
+        assertEquals("2017-02-14T07:01:12Z", entry.getDate());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedFeed() throws IOException {
+        parser.parse(stream("<rss><channel><item><title>Open"));
+    }
+}
@@ -0,0 +1,73 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the waits picked by the JitteredBackoff.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class JitteredBackoffTest {
+
+    private static final long BASE_MILLIS = 500;
+    private static final long MAX_MILLIS = 4000;
+
+    /**
+     * This class always returns the same jitter.
+     */
+    private static final class FixedRandom extends Random {
+        private static final long serialVersionUID = 1L;
+
+        private final double value;
+
+        FixedRandom(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double nextDouble() {
+            return value;
+        }
+    }
+
+    @Test
+    public void longestWaitDoublesUpToMaximum() {
+        JitteredBackoff backoff = new JitteredBackoff(BASE_MILLIS, MAX_MILLIS, new FixedRandom(0.9999999));
+        assertEquals(500, backoff.getDelayMillis(0));
+        assertEquals(1000, backoff.getDelayMillis(1));
+        assertEquals(2000, backoff.getDelayMillis(2));
+        assertEquals(4000, backoff.getDelayMillis(3));
+        assertEquals(4000, backoff.getDelayMillis(4));
+    }
+
+    @Test
+    public void shortestWaitIsZero() {
+        JitteredBackoff backoff = new JitteredBackoff(BASE_MILLIS, MAX_MILLIS, new FixedRandom(0));
+        assertEquals(0, backoff.getDelayMillis(0));
+        assertEquals(0, backoff.getDelayMillis(5));
+    }
+
+    @Test
+    public void manyRetriesDoNotOverflow() {
+        JitteredBackoff backoff = new JitteredBackoff(BASE_MILLIS, MAX_MILLIS, new FixedRandom(0.9999999));
+        for (int retry = 50; retry < 200; retry += 7) {
+            assertEquals(MAX_MILLIS, backoff.getDelayMillis(retry));
+        }
+    }
+
+    @Test
+    public void waitsStayWithinCap() {
+        JitteredBackoff backoff = new JitteredBackoff(BASE_MILLIS, MAX_MILLIS, new Random(42));
+        for (int i = 0; i < 1000; i++) {
+            int retry = i % 6;
+            long delay = backoff.getDelayMillis(retry);
+            assertTrue(delay >= 0 && delay <= Math.min(MAX_MILLIS, BASE_MILLIS << retry));
+        }
+    }
+}
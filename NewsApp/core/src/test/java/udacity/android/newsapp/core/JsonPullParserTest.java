@@ -0,0 +1,202 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the token reading and error handling of the JsonPullParser.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class JsonPullParserTest {
+
+    private static final String[] KEYS = {"a", "b"};
+
+    /**
+     * This class hands out one character per read, so every token is split
+     * across refills of the buffer of the parser.
+     */
+    private static final class OneCharReader extends Reader {
+        private final String text;
+        private int position;
+
+        OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * This method creates a parser of a document.
+     *
+     * @param json The document.
+     * @return The parser.
+     */
+    private static JsonPullParser parser(String json) {
+        return new JsonPullParser(new StringReader(json));
+    }
+
+    @Test
+    public void matchesNamesAgainstKeys() throws IOException {
+        JsonPullParser parser = parser("{\"b\": \"2\", \"c\": \"3\", \"a\": \"1\"}");
+        parser.beginObject();
+        assertEquals(1, parser.nextName(KEYS));
+        assertEquals("2", parser.nextString());
+        assertEquals(JsonPullParser.UNKNOWN_NAME, parser.nextName(KEYS));
+        parser.skipValue();
+        assertEquals(0, parser.nextName(KEYS));
+        assertEquals("1", parser.nextString());
+        assertFalse(parser.hasNext());
+        parser.endObject();
+    }
+
+    @Test
+    public void readsLiteralsAsStrings() throws IOException {
+        JsonPullParser parser = parser("[12, -3.5e2, true, false, null, \"\"]");
+        parser.beginArray();
+        assertEquals("12", parser.nextString());
+        assertEquals("-3.5e2", parser.nextString());
+        assertEquals("true", parser.nextString());
+        assertEquals("false", parser.nextString());
+        assertNull(parser.nextString());
+        assertEquals("", parser.nextString());
+        parser.endArray();
+    }
+
+    @Test
+    public void decodesEscapes() throws IOException {
+        JsonPullParser parser = parser("[\"a\\\"b\\\\c\\/d\\n\\t\\u00e9\\u2013\"]");
+        parser.beginArray();
+        assertEquals("a\"b\\c/d\n\t\u00e9\u2013", parser.nextString());
+        parser.endArray();
+    }
+
+    @Test
+    public void skipsNestedValues() throws IOException {
+        JsonPullParser parser = parser(
+                "{\"c\": {\"x\": [1, {\"y\": [[], {}]}, \"}]\"], \"z\": null}, \"a\": \"kept\"}");
+        parser.beginObject();
+        assertEquals(JsonPullParser.UNKNOWN_NAME, parser.nextName(KEYS));
+        parser.skipValue();
+        assertEquals(0, parser.nextName(KEYS));
+        assertEquals("kept", parser.nextString());
+        parser.endObject();
+    }
+
+    @Test
+    public void readsEmptyContainers() throws IOException {
+        JsonPullParser parser = parser("{\"a\": [], \"b\": {}}");
+        parser.beginObject();
+        parser.nextName(KEYS);
+        parser.beginArray();
+        assertFalse(parser.hasNext());
+        parser.endArray();
+        parser.nextName(KEYS);
+        parser.beginObject();
+        assertFalse(parser.hasNext());
+        parser.endObject();
+        parser.endObject();
+    }
+
+    @Test
+    public void readsTokensSplitAcrossReads() throws IOException {
+        JsonPullParser parser = new JsonPullParser(new OneCharReader(
+                "{ \"a\" : \"x\\u0041y\" , \"b\" : 12345 }"));
+        parser.beginObject();
+        assertEquals(0, parser.nextName(KEYS));
+        assertEquals("xAy", parser.nextString());
+        assertEquals(1, parser.nextName(KEYS));
+        assertEquals("12345", parser.nextString());
+        parser.endObject();
+    }
+
+    @Test
+    public void readsValuesLongerThanBuffers() throws IOException {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        JsonPullParser parser = parser("[\"" + value + "\", \"next\"]");
+        parser.beginArray();
+        assertEquals(value.toString(), parser.nextString());
+        assertTrue(parser.hasNext());
+        assertEquals("next", parser.nextString());
+        parser.endArray();
+    }
+
+    @Test
+    public void rejectsUnterminatedString() {
+        assertSyntaxError("[\"abc", "Unterminated string");
+    }
+
+    @Test
+    public void rejectsInvalidEscape() {
+        assertSyntaxError("[\"\\u12g4\"]", "Invalid escape sequence");
+    }
+
+    @Test
+    public void rejectsMissingSeparators() {
+        assertSyntaxError("[\"a\" \"b\"]", "Expected ','");
+    }
+
+    @Test
+    public void rejectsObjectWhereStringExpected() {
+        assertSyntaxError("[{}]", "Expected a string");
+    }
+
+    @Test
+    public void rejectsMissingColon() throws IOException {
+        JsonPullParser parser = parser("{\"a\" \"1\"}");
+        parser.beginObject();
+        parser.nextName(KEYS);
+        try {
+            parser.nextString();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Expected ':' at character "));
+        }
+    }
+
+    /**
+     * This method reads every string of an array and checks that it
+     * fails with the passed in message.
+     *
+     * @param json The document, an array of strings.
+     * @param message The start of the expected message.
+     */
+    private static void assertSyntaxError(String json, String message) {
+        JsonPullParser parser = parser(json);
+        try {
+            parser.beginArray();
+            while (parser.hasNext()) {
+                parser.nextString();
+            }
+            parser.endArray();
+            fail("Expected " + message);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message + " at character "));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of reusing the results of typed searches with the PrefixResultCache.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class PrefixResultCacheTest {
+
+    private static final String SCOPE = "order=newest";
+
+    private static final List<NewsArticle> FOOTBALL = Arrays.asList(
+            new NewsArticle("Football transfer news", "2017-02-14T10:00:00Z", "Sport", "https://a"),
+            new NewsArticle("Football tactics", "2017-02-14T11:00:00Z", "Sport", "https://b"),
+            new NewsArticle("Women's football", "2017-02-14T12:00:00Z", "Football", "https://c"));
+
+    private PrefixResultCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new PrefixResultCache(2);
+    }
+
+    @Test
+    public void returnsCachedResultsIgnoringCaseAndSpacing() {
+        cache.put(SCOPE, "Foot ball", FOOTBALL);
+
+        assertEquals(3, cache.get(SCOPE, "  foot   BALL ").size());
+        assertNull(cache.get(SCOPE, "football"));
+        assertNull(cache.get("order=oldest", "foot ball"));
+    }
+
+    @Test
+    public void returnsCopies() {
+        cache.put(SCOPE, "football", new ArrayList<>(FOOTBALL));
+
+        cache.get(SCOPE, "football").clear();
+        assertEquals(3, cache.get(SCOPE, "football").size());
+    }
+
+    @Test
+    public void filtersResultsOfLongestCachedPrefix() {
+        cache.put(SCOPE, "foot", FOOTBALL);
+
+        List<NewsArticle> results = cache.getFromPrefix(SCOPE, "football trans");
+        assertNotNull(results);
+        assertEquals(1, results.size());
+        assertEquals("https://a", results.get(0).getUrl());
+
+        assertNull(cache.getFromPrefix(SCOPE, "cricket"));
+        assertNull(cache.getFromPrefix("order=oldest", "football"));
+    }
+
+    @Test
+    public void ignoresEmptySearchText() {
+        cache.put(SCOPE, " ,; ", FOOTBALL);
+        assertNull(cache.get(SCOPE, ""));
+    }
+
+    @Test
+    public void dropsLeastRecentlyUsedSearch() {
+        cache.put(SCOPE, "one", FOOTBALL);
+        cache.put(SCOPE, "two", FOOTBALL);
+        cache.get(SCOPE, "one");
+        cache.put(SCOPE, "three", FOOTBALL);
+
+        assertNotNull(cache.get(SCOPE, "one"));
+        assertNull(cache.get(SCOPE, "two"));
+        assertNotNull(cache.get(SCOPE, "three"));
+    }
+}
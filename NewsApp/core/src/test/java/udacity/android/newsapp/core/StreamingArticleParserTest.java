@@ -0,0 +1,118 @@
+package udacity.android.newsapp.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import udacity.android.newsapp.model.NewsArticle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the StreamingArticleParser, including that it reads the same
+ * articles as the JsonObjectArticleParser.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class StreamingArticleParserTest {
+
+    private static final String RESPONSE = "{\"response\": {"
+            + "\"status\": \"ok\", \"total\": 2, \"pages\": [1, {\"next\": null}],"
+            + "\"results\": ["
+            + "{\"id\": \"world/1\", \"type\": \"article\","
+            + " \"sectionName\": \"World news\","
+            + " \"webPublicationDate\": \"2017-02-14T17:31:12Z\","
+            + " \"webTitle\": \"Caf\\u00e9 \\\"culture\\\" \u2013 a guide\","
+            + " \"webUrl\": \"https://www.theguardian.com/world/1\","
+            + " \"tags\": [{\"webTitle\": \"ignored\"}],"
+            + " \"fields\": {\"headline\": \"ignored\", \"thumbnail\": \"https://media.guim.co.uk/1.jpg\"}},"
+            + "{\"webTitle\": \"Without extras\", \"webUrl\": \"https://www.theguardian.com/2\"}"
+            + "]}}";
+
+    private final ArticleParser parser = new StreamingArticleParser();
+
+    /**
+     * This method creates the stream of a response.
+     *
+     * @param json The response body.
+     * @return The stream.
+     * @throws IOException Not thrown for UTF-8.
+     */
+    private static InputStream stream(String json) throws IOException {
+        return new ByteArrayInputStream(json.getBytes("UTF-8"));
+    }
+
+    @Test
+    public void readsArticleFields() throws IOException {
+        List<NewsArticle> articles = parser.parse(stream(RESPONSE));
+
+        assertEquals(2, articles.size());
+        NewsArticle article = articles.get(0);
+        assertEquals("Caf\u00e9 \"culture\" \u2013 a guide", article.getTitle());
+        assertEquals("World news", article.getSection());
+        assertEquals(1487093472000L, article.getTime());
+        assertEquals("https://www.theguardian.com/world/1", article.getUrl());
+        assertEquals("https://media.guim.co.uk/1.jpg", article.getThumbnailUrl());
+    }
+
+    @Test
+    public void leavesMissingFieldsNull() throws IOException {
+        NewsArticle article = parser.parse(stream(RESPONSE)).get(1);
+
+        assertEquals("Without extras", article.getTitle());
+        assertNull(article.getSection());
+        assertNull(article.getDate());
+        assertNull(article.getThumbnailUrl());
+    }
+
+    @Test
+    public void handsEachArticleToListenerInOrder() throws IOException {
+        final List<NewsArticle> parsed = new ArrayList<>();
+        List<NewsArticle> articles = parser.parse(stream(RESPONSE), new ArticleParser.Listener() {
+            @Override
+            public void onArticleParsed(NewsArticle article) {
+                parsed.add(article);
+            }
+        });
+        assertEquals(articles, parsed);
+    }
+
+    @Test
+    public void readsResponsesWithoutResults() throws IOException {
+        assertTrue(parser.parse(stream("{\"response\": {\"results\": []}}")).isEmpty());
+        assertTrue(parser.parse(stream("{\"response\": {\"status\": \"error\"}}")).isEmpty());
+        assertTrue(parser.parse(stream("{\"message\": \"API rate limit exceeded\"}")).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedResponse() throws IOException {
+        parser.parse(stream(RESPONSE.substring(0, RESPONSE.length() / 2)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsEmptyResponse() throws IOException {
+        parser.parse(stream(""));
+    }
+
+    @Test
+    public void readsSameArticlesAsJsonObjectParser() throws IOException {
+        List<NewsArticle> streamed = parser.parse(stream(RESPONSE));
+        List<NewsArticle> tree = new JsonObjectArticleParser().parse(stream(RESPONSE));
+
+        assertEquals(tree.size(), streamed.size());
+        for (int i = 0; i < tree.size(); i++) {
+            assertEquals(tree.get(i).getTitle(), streamed.get(i).getTitle());
+            assertEquals(tree.get(i).getDate(), streamed.get(i).getDate());
+            assertEquals(tree.get(i).getSection(), streamed.get(i).getSection());
+            assertEquals(tree.get(i).getUrl(), streamed.get(i).getUrl());
+            assertEquals(tree.get(i).getThumbnailUrl(), streamed.get(i).getThumbnailUrl());
+        }
+    }
+}
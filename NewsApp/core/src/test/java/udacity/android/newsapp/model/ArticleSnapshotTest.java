@@ -0,0 +1,134 @@
+package udacity.android.newsapp.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of writing a snapshot of an ArticleStore and reading it back.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ArticleSnapshotTest {
+
+    private static final long CREATED_AT = 1487100000000L;
+
+    private static final ArticleStore STORE = ArticleStore.from(Arrays.asList(
+            new NewsArticle("Brexit: what happens next", "2017-02-14T17:31:12Z", "Politics",
+                    "https://www.theguardian.com/politics/1", "https://media.guim.co.uk/1.jpg"),
+            new NewsArticle("Caf\u00e9 culture in S\u00e3o Paulo \u2013 a guide", "2017-02-13T08:00:00Z", "Travel",
+                    "https://www.theguardian.com/travel/2"),
+            new NewsArticle("Undated", "Politics")));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * This method writes the first articles of a store to a byte array.
+     *
+     * @param store The articles.
+     * @param maxArticles The number of articles to write at most.
+     * @return The snapshot.
+     * @throws IOException Not thrown for a byte array.
+     */
+    private static byte[] write(ArticleStore store, int maxArticles) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArticleSnapshot.write(store, maxArticles, CREATED_AT, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void roundTripKeepsDatesToTheSecond() throws IOException {
+        ArticleSnapshot snapshot = ArticleSnapshot.wrap(write(STORE, Integer.MAX_VALUE));
+
+        assertEquals(3, snapshot.size());
+        assertEquals(CREATED_AT, snapshot.getCreatedAt());
+        assertEquals(1487093472000L, snapshot.getDate(0));
+        assertEquals(IsoDate.NO_DATE, snapshot.getDate(2));
+
+        ArticleStore store = snapshot.toStore();
+        assertEquals(1487093472000L, store.getDate(0));
+        for (int i = 0; i < STORE.size(); i++) {
+            assertEquals(STORE.getDate(i), store.getDate(i));
+            assertTrue(STORE.contentEquals(i, store, i));
+            assertTrue(STORE.urlEquals(i, store, i));
+        }
+    }
+
+    @Test
+    public void readsTextAndFlags() throws IOException {
+        ArticleSnapshot snapshot = ArticleSnapshot.wrap(write(STORE, Integer.MAX_VALUE));
+
+        char[] title = new char[snapshot.getTitleCapacity(1)];
+        assertEquals("Caf\u00e9 culture in S\u00e3o Paulo \u2013 a guide",
+                new String(title, 0, snapshot.readTitle(1, title)));
+        char[] label = new char[10];
+        assertEquals("2017-02-13", new String(label, 0, snapshot.readDateLabel(1, label)));
+
+        assertEquals("Travel", snapshot.getSection(1));
+        assertEquals("Politics", snapshot.getSection(2));
+        assertEquals("https://www.theguardian.com/travel/2", snapshot.getUrl(1));
+        assertTrue(snapshot.hasThumbnail(0));
+        assertEquals("https://media.guim.co.uk/1.jpg", snapshot.getThumbnailUrl(0));
+        assertSame(snapshot.getThumbnailUrl(0), snapshot.getThumbnailUrl(0));
+        assertFalse(snapshot.hasThumbnail(1));
+        assertNull(snapshot.getThumbnailUrl(1));
+        assertNull(snapshot.getUrl(2));
+        assertEquals(0, snapshot.readDateLabel(2, label));
+    }
+
+    @Test
+    public void writesAtMostMaxArticles() throws IOException {
+        ArticleSnapshot snapshot = ArticleSnapshot.wrap(write(STORE, 2));
+
+        assertEquals(2, snapshot.size());
+        assertEquals(2, snapshot.toStore().size());
+    }
+
+    @Test
+    public void writesEmptyStore() throws IOException {
+        ArticleSnapshot snapshot = ArticleSnapshot.wrap(write(new ArticleStore(0), 10));
+
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.toStore().size());
+    }
+
+    @Test
+    public void mapsFile() throws IOException {
+        File file = folder.newFile("snapshot");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            ArticleSnapshot.write(STORE, Integer.MAX_VALUE, CREATED_AT, out);
+        } finally {
+            out.close();
+        }
+
+        ArticleSnapshot snapshot = ArticleSnapshot.map(file);
+        assertEquals(3, snapshot.size());
+        assertEquals(1487093472000L, snapshot.getDate(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherData() throws IOException {
+        ArticleSnapshot.wrap("not a snapshot of any articles".getBytes("UTF-8"));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsSnapshotCutOffInRecords() throws IOException {
+        byte[] data = write(STORE, Integer.MAX_VALUE);
+        ArticleSnapshot.wrap(Arrays.copyOf(data, 100));
+    }
+}
@@ -0,0 +1,113 @@
+package udacity.android.newsapp.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the columns of the ArticleStore.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class ArticleStoreTest {
+
+    private static final NewsArticle FIRST = new NewsArticle("First title", "2017-02-14T17:31:12Z",
+            "World news", "https://www.theguardian.com/first", "https://media.guim.co.uk/first.jpg");
+    private static final NewsArticle SECOND = new NewsArticle("Second title", "2017-02-13T08:00:00Z",
+            "Sport", "https://www.theguardian.com/second");
+    private static final NewsArticle UNDATED = new NewsArticle("Undated", "World news");
+
+    @Test
+    public void readsBackColumns() {
+        ArticleStore store = ArticleStore.from(Arrays.asList(FIRST, SECOND, UNDATED));
+
+        assertEquals(3, store.size());
+        assertEquals("First title", store.getTitle(0));
+        assertEquals("World news", store.getSection(0));
+        assertEquals("https://www.theguardian.com/first", store.getUrl(0));
+        assertSame(FIRST.getThumbnailUrl(), store.getThumbnailUrl(0));
+        assertEquals(1487093472000L, store.getDate(0));
+        assertEquals("2017-02-14", new String(store.getDateLabelChars(),
+                store.getDateLabelStart(0), store.getDateLabelLength(0)));
+
+        assertFalse(store.hasThumbnail(1));
+        assertNull(store.getThumbnailUrl(1));
+        assertEquals(store.getSectionId(0), store.getSectionId(2));
+
+        assertFalse(store.hasUrl(2));
+        assertEquals(IsoDate.NO_DATE, store.getDate(2));
+        assertEquals(0, store.getDateLabelLength(2));
+    }
+
+    @Test
+    public void getKeepsTimeOfDate() {
+        ArticleStore store = ArticleStore.from(Arrays.asList(FIRST, UNDATED));
+
+        NewsArticle article = store.get(0);
+        assertEquals(FIRST.getTime(), article.getTime());
+        assertEquals("2017-02-14", article.getDateLabel());
+        assertEquals(FIRST.getTitle(), article.getTitle());
+        assertEquals(FIRST.getThumbnailUrl(), article.getThumbnailUrl());
+
+        assertNull(store.get(1).getDate());
+    }
+
+    @Test
+    public void recreatedArticlesHaveSameContent() {
+        ArticleStore store = ArticleStore.from(Arrays.asList(FIRST, SECOND, UNDATED));
+
+        List<NewsArticle> articles = new ArrayList<>();
+        for (int i = 0; i < store.size(); i++) {
+            articles.add(store.get(i));
+        }
+        ArticleStore copy = ArticleStore.from(articles);
+
+        for (int i = 0; i < store.size(); i++) {
+            assertTrue(store.contentEquals(i, copy, i));
+            assertTrue(store.urlEquals(i, copy, i));
+        }
+    }
+
+    @Test
+    public void contentDiffersByDateTitleAndSection() {
+        ArticleStore store = ArticleStore.from(Arrays.asList(FIRST,
+                new NewsArticle("First title", "2017-02-14T17:31:13Z", "World news",
+                        "https://www.theguardian.com/first", "https://media.guim.co.uk/first.jpg"),
+                new NewsArticle("Other title", "2017-02-14T17:31:12Z", "World news",
+                        "https://www.theguardian.com/first", "https://media.guim.co.uk/first.jpg"),
+                new NewsArticle("First title", "2017-02-14T17:31:12Z", "Sport",
+                        "https://www.theguardian.com/first", "https://media.guim.co.uk/first.jpg")));
+
+        assertFalse(store.contentEquals(0, store, 1));
+        assertFalse(store.contentEquals(0, store, 2));
+        assertFalse(store.contentEquals(0, store, 3));
+        assertTrue(store.urlEquals(0, store, 3));
+    }
+
+    @Test
+    public void growsPastCapacity() {
+        ArticleStore store = new ArticleStore(1);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            title.append('x');
+            store.add(new NewsArticle(title.toString(), "2017-02-14T17:31:12Z", "Section " + (i % 5),
+                    "https://www.theguardian.com/" + i));
+        }
+
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, store.getTitleLength(i));
+            assertEquals("Section " + (i % 5), store.getSection(i));
+            assertEquals("https://www.theguardian.com/" + i, store.getUrl(i));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package udacity.android.newsapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests of the parsing and formatting of the timestamps of the Guardian API.
+ *
+ * @author Joseph Stewart
+ * @version 1.0
+ */
+public class IsoDateTest {
+
+    @Test
+    public void parsesTimestamp() {
+        assertEquals(1487093472000L, IsoDate.parse("2017-02-14T17:31:12Z"));
+        assertEquals(0L, IsoDate.parse("1970-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void ignoresFractionAndZone() {
+        assertEquals(1487093472000L, IsoDate.parse("2017-02-14T17:31:12.345Z"));
+        assertEquals(1487093472000L, IsoDate.parse("2017-02-14T17:31:12+01:00"));
+    }
+
+    @Test
+    public void parsesDateWithoutTimeAsMidnight() {
+        assertEquals(1487030400000L, IsoDate.parse("2017-02-14"));
+    }
+
+    @Test
+    public void parsesDatesBeforeEpochAndLeapDays() {
+        assertEquals(-86400000L, IsoDate.parse("1969-12-31T00:00:00Z"));
+        assertEquals(951782400000L, IsoDate.parse("2000-02-29T00:00:00Z"));
+    }
+
+    @Test
+    public void rejectsInvalidTimestamps() {
+        assertEquals(IsoDate.NO_DATE, IsoDate.parse(null));
+        assertEquals(IsoDate.NO_DATE, IsoDate.parse(""));
+        assertEquals(IsoDate.NO_DATE, IsoDate.parse("2017-02"));
+        assertEquals(IsoDate.NO_DATE, IsoDate.parse("2017/02/14"));
+        assertEquals(IsoDate.NO_DATE, IsoDate.parse("2017-13-01"));
+        assertEquals(IsoDate.NO_DATE, IsoDate.parse("2017-02-14Tab:cd:efZ"));
+    }
+
+    @Test
+    public void formatsTimestamp() {
+        assertEquals("2017-02-14T17:31:12Z", IsoDate.format(1487093472000L));
+        assertEquals("1970-01-01T00:00:00Z", IsoDate.format(0L));
+        assertEquals("1969-12-31T23:59:59Z", IsoDate.format(-1000L));
+        assertEquals("2000-02-29T00:00:00Z", IsoDate.format(951782400000L));
+        assertNull(IsoDate.format(IsoDate.NO_DATE));
+    }
+
+    @Test
+    public void formatIsInverseOfParse() {
+        // Every few days over two centuries, at a different time of day each
+        for (long millis = -2208988800000L; millis < 4102444800000L; millis += 3 * 86400000L + 3601000L) {
+            assertEquals(millis, IsoDate.parse(IsoDate.format(millis)));
+        }
+    }
+}